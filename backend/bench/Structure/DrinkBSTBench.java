@@ -0,0 +1,137 @@
+// Structure/DrinkBSTBench.java
+package Structure;
+
+import model.Drink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * DrinkBST 벤치마크 (main으로 실행)
+ * - loadInventoryFromDB처럼 이름순으로 정렬된 순서로 삽입했을 때 AVL 트리와 이전 재귀 BST의 삽입/검색 시간 비교
+ * - 이전 BST는 한쪽으로만 자라 O(n) 깊이가 되므로, 큰 크기에서는 스택 오버플로 여부를 표시
+ * - AVL 트리는 무작위 삭제 후 TreeMap과 이름순 순회/접두사 검색 결과가 같은지 확인 (다르면 종료 코드 1)
+ * 실행: javac -d out -sourcepath src:bench bench/Structure/DrinkBSTBench.java && java -cp out Structure.DrinkBSTBench
+ */
+public class DrinkBSTBench {
+
+    private static final int[] SIZES = {1_000, 10_000, 50_000, 200_000};
+    private static final int LEGACY_MAX = 50_000; // 이전 BST는 O(n^2) 삽입이라 이 크기까지만 측정
+
+    // 이전 버전 (불균형, 재귀)
+    private static final class LegacyBST {
+        private static final class Node {
+            final Drink drink;
+            Node left, right;
+
+            Node(Drink drink) {
+                this.drink = drink;
+            }
+        }
+
+        private Node root;
+
+        void insert(Drink drink) {
+            root = insertRec(root, drink);
+        }
+
+        private Node insertRec(Node root, Drink drink) {
+            if (root == null) return new Node(drink);
+            if (drink.getName().compareTo(root.drink.getName()) < 0) root.left = insertRec(root.left, drink);
+            else root.right = insertRec(root.right, drink);
+            return root;
+        }
+
+        Drink search(String name) {
+            return searchRec(root, name);
+        }
+
+        private Drink searchRec(Node root, String name) {
+            if (root == null) return null;
+            int cmp = name.compareTo(root.drink.getName());
+            if (cmp == 0) return root.drink;
+            return cmp < 0 ? searchRec(root.left, name) : searchRec(root.right, name);
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %14s %14s %14s %14s%n", "n", "AVL insert", "AVL search", "BST insert", "BST search");
+        boolean ok = true;
+        for (int n : SIZES) {
+            List<Drink> drinks = sortedDrinks(n);
+
+            long t0 = System.nanoTime();
+            DrinkBST avl = new DrinkBST();
+            for (Drink d : drinks) avl.insert(d);
+            long t1 = System.nanoTime();
+            for (Drink d : drinks) {
+                if (avl.search(d.getName()) != d) ok = false;
+            }
+            long t2 = System.nanoTime();
+
+            String legacyInsert = "-";
+            String legacySearch = "-";
+            if (n <= LEGACY_MAX) {
+                try {
+                    long l0 = System.nanoTime();
+                    LegacyBST bst = new LegacyBST();
+                    for (Drink d : drinks) bst.insert(d);
+                    long l1 = System.nanoTime();
+                    for (Drink d : drinks) bst.search(d.getName());
+                    long l2 = System.nanoTime();
+                    legacyInsert = millis(l1 - l0);
+                    legacySearch = millis(l2 - l1);
+                } catch (StackOverflowError e) {
+                    legacyInsert = "StackOverflow";
+                }
+            }
+            System.out.printf("%8d %14s %14s %14s %14s%n", n, millis(t1 - t0), millis(t2 - t1), legacyInsert, legacySearch);
+
+            ok &= checkAgainstTreeMap(avl, drinks);
+        }
+
+        if (!ok) {
+            System.out.println("실패: AVL 트리 결과가 TreeMap과 다름");
+            System.exit(1);
+        }
+        System.out.println("통과");
+    }
+
+    // 무작위로 절반 삭제 후 이름순 순회/접두사 검색을 TreeMap과 비교
+    private static boolean checkAgainstTreeMap(DrinkBST avl, List<Drink> drinks) {
+        TreeMap<String, Drink> expected = new TreeMap<>();
+        for (Drink d : drinks) expected.put(d.getName(), d);
+
+        List<Drink> shuffled = new ArrayList<>(drinks);
+        Collections.shuffle(shuffled, new Random(42));
+        for (int i = 0; i < shuffled.size() / 2; i++) {
+            String name = shuffled.get(i).getName();
+            if (avl.delete(name) != expected.remove(name)) return false;
+        }
+        if (avl.size() != expected.size()) return false;
+
+        List<Drink> inOrder = new ArrayList<>(avl.size());
+        for (Drink d : avl) inOrder.add(d);
+        if (!inOrder.equals(new ArrayList<>(expected.values()))) return false;
+
+        String prefix = "음료00001";
+        List<Drink> byPrefix = avl.searchByPrefix(prefix);
+        List<Drink> expectedPrefix = new ArrayList<>(expected.subMap(prefix, prefix + Character.MAX_VALUE).values());
+        return byPrefix.equals(expectedPrefix);
+    }
+
+    private static List<Drink> sortedDrinks(int n) {
+        List<Drink> drinks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            drinks.add(new Drink(String.format("음료%07d", i), 100 + i % 900, 10));
+        }
+        return drinks;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,128 @@
+// model/DrinkStockBench.java
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedList;
+
+/**
+ * Drink 재고 마이크로벤치마크 (main으로 실행)
+ * - 재고 크기를 1부터 1000만까지 늘려가며 restock/reserve/commit/getStock이 할당하는 바이트와 남는 힙을 측정
+ * - 카운터 방식은 재고 크기와 관계없이 할당 0바이트여야 하며, 아니면 실패(종료 코드 1)
+ * - 비교용으로 이전 LinkedList<Object> 방식의 할당량도 함께 출력
+ * - 예약 중에 관리자가 재고를 설정해도 취소/확정 후 재고가 설정값 기준으로 맞는지 확인
+ * 실행: javac -d out -sourcepath src:bench bench/model/DrinkStockBench.java && java -cp out model.DrinkStockBench
+ */
+public class DrinkStockBench {
+
+    private static final int[] SIZES = {1, 1_000, 100_000, 1_000_000, 10_000_000};
+    private static final int OPS = 1_000_000; // 연산당 시간 측정 반복 수
+
+    // 이전 버전 재고 (단위마다 노드 + 객체 하나)
+    private static final class LegacyStock {
+        final LinkedList<Object> stockList = new LinkedList<>();
+
+        void restock(int amount) {
+            for (int i = 0; i < amount; i++) stockList.add(new Object());
+        }
+
+        void reduceStock() {
+            if (!stockList.isEmpty()) stockList.removeFirst();
+        }
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threads.getCurrentThreadAllocatedBytes() < 0) {
+            System.out.println("이 JVM은 스레드별 할당량 측정을 지원하지 않습니다.");
+            System.exit(2);
+        }
+        warmUp();
+
+        System.out.printf("%12s %16s %16s %16s%n", "stock", "counter alloc", "counter retained", "legacy alloc");
+        boolean flat = true;
+        for (int size : SIZES) {
+            long retainedBefore = usedHeap();
+            Drink drink = new Drink("벤치", 500, 0);
+            long afterCreate = threads.getCurrentThreadAllocatedBytes();
+            drink.restock(size);
+            for (int i = 0; i < 1000; i++) {
+                if (drink.reserve(1)) drink.commit(1);
+                drink.getStock();
+                drink.isSoldOut();
+            }
+            long opsAlloc = threads.getCurrentThreadAllocatedBytes() - afterCreate;
+            long retained = usedHeap() - retainedBefore;
+            if (drink.getStock() != Math.max(0, size - 1000)) throw new AssertionError("재고 불일치: " + drink.getStock());
+
+            String legacy = "-";
+            if (size <= 1_000_000) { // 1000만은 이전 방식으로는 수백 MB라 생략
+                long legacyBefore = threads.getCurrentThreadAllocatedBytes();
+                LegacyStock old = new LegacyStock();
+                old.restock(size);
+                for (int i = 0; i < 1000; i++) old.reduceStock();
+                legacy = (threads.getCurrentThreadAllocatedBytes() - legacyBefore) + " B";
+            }
+
+            System.out.printf("%12d %14d B %14d B %16s%n", size, opsAlloc, Math.max(0, retained), legacy);
+            if (opsAlloc != 0) flat = false;
+        }
+
+        // 연산당 시간 (재고가 충분한 상태에서 예약/확정 반복)
+        Drink drink = new Drink("벤치", 500, 0);
+        drink.restock(Integer.MAX_VALUE / 2);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) {
+            if (drink.reserve(1)) drink.commit(1);
+        }
+        double reserveNs = (System.nanoTime() - start) / (double) OPS;
+        start = System.nanoTime();
+        for (int i = 0; i < OPS; i++) drink.restock(1);
+        double restockNs = (System.nanoTime() - start) / (double) OPS;
+        System.out.printf("reserve+commit %.1f ns/op, restock(1) %.1f ns/op%n", reserveNs, restockNs);
+
+        if (!flat) {
+            System.out.println("실패: 재고 연산이 메모리를 할당함");
+            System.exit(1);
+        }
+        if (!checkSetStockWithReservation()) System.exit(1);
+        System.out.println("통과: 재고 크기와 관계없이 재고 연산 할당 0바이트");
+    }
+
+    // 예약 → 관리자 재고 설정(예약 포함 수량) → 취소/확정
+    private static boolean checkSetStockWithReservation() {
+        Drink drink = new Drink("설정", 500, 3);
+        drink.reserve(1);
+        drink.setStock(5);
+        if (drink.getStock() != 4) return fail("설정 직후 재고 " + drink.getStock() + ", 기대 4");
+        drink.release(1);
+        if (drink.getStock() != 5) return fail("취소 후 재고 " + drink.getStock() + ", 기대 5 (설정값을 넘으면 안 됨)");
+
+        drink.reserve(2);
+        drink.setStock(5);
+        drink.commit(2);
+        if (drink.getStock() != 3 || drink.getReserved() != 0) return fail("확정 후 재고 " + drink.getStock() + ", 기대 3");
+        return true;
+    }
+
+    private static boolean fail(String message) {
+        System.out.println("실패: " + message);
+        return false;
+    }
+
+    // JIT 예열 (측정 구간에서 인터프리터/컴파일러 할당이 섞이지 않도록)
+    private static void warmUp() {
+        Drink drink = new Drink("예열", 100, 0);
+        for (int i = 0; i < 200_000; i++) {
+            drink.restock(1);
+            if (drink.reserve(1)) drink.commit(1);
+            drink.getStock();
+            drink.isSoldOut();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,133 @@
+// model/InventoryStressTest.java
+package model;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * DrinkInventory 동시성 스트레스 테스트 (main으로 실행)
+ * - 구매 스레드 여러 개가 reserve → commit/release, 관리자 스레드가 restock/editDrink를 동시에 반복
+ * - 끝난 뒤 음료마다 (남은 재고 + 판매 확정 수량) == (초기 재고 + 보충 수량) 이어야 함 (초과 판매/유실 없음)
+ * - 예약 대기 수량 0, 가격순 인덱스와 이름 인덱스가 최종 상태와 일치하는지도 확인
+ * 실행: javac -d out -sourcepath src:bench bench/model/InventoryStressTest.java && java -cp out model.InventoryStressTest [구매 스레드 수] [스레드당 반복 수]
+ */
+public class InventoryStressTest {
+
+    private static final int DRINKS = 8;
+    private static final int INITIAL_STOCK = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        int buyers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        DrinkInventory inventory = new DrinkInventory();
+        for (int i = 0; i < DRINKS; i++) {
+            inventory.addDrink(new Drink("음료" + i, 100 * (i + 1), INITIAL_STOCK));
+        }
+
+        AtomicLongArray sold = new AtomicLongArray(DRINKS);      // 판매 확정 수량
+        AtomicLongArray restocked = new AtomicLongArray(DRINKS); // 보충 수량
+        AtomicLong soldOut = new AtomicLong();                   // 재고 부족으로 예약 실패한 횟수
+        AtomicLong negative = new AtomicLong();                  // 음수 재고를 관측한 횟수
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[buyers + 2];
+
+        // 구매: 예약 후 절반은 확정, 절반은 취소 (결제 실패 흉내)
+        for (int t = 0; t < buyers; t++) {
+            threads[t] = new Thread(() -> {
+                await(start);
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < iterations; i++) {
+                    int id = rnd.nextInt(DRINKS);
+                    int qty = 1 + rnd.nextInt(3);
+                    if (!inventory.reserve(id, qty)) {
+                        soldOut.incrementAndGet();
+                        continue;
+                    }
+                    if (inventory.getDrink(id).getStock() < 0) negative.incrementAndGet();
+                    if (rnd.nextBoolean()) {
+                        inventory.commit(id, qty);
+                        sold.addAndGet(id, qty);
+                    } else {
+                        inventory.release(id, qty);
+                    }
+                }
+            }, "buyer-" + t);
+        }
+
+        // 관리자 보충
+        threads[buyers] = new Thread(() -> {
+            await(start);
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < iterations; i++) {
+                int id = rnd.nextInt(DRINKS);
+                int amount = 1 + rnd.nextInt(5);
+                inventory.restock(id, amount);
+                restocked.addAndGet(id, amount);
+            }
+        }, "restocker");
+
+        // 관리자 이름/가격 수정
+        threads[buyers + 1] = new Thread(() -> {
+            await(start);
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < iterations / 10; i++) {
+                int id = rnd.nextInt(DRINKS);
+                inventory.editDrink(id, "음료" + id + "-" + (i % 4), 100 * (1 + rnd.nextInt(DRINKS)));
+            }
+        }, "editor");
+
+        for (Thread t : threads) t.start();
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) t.join();
+        long elapsedMs = (System.nanoTime() - began) / 1_000_000;
+
+        boolean ok = negative.get() == 0;
+        long totalSold = 0;
+        for (int id = 0; id < DRINKS; id++) {
+            Drink drink = inventory.getDrink(id);
+            long expected = INITIAL_STOCK + restocked.get(id);
+            long actual = drink.getStock() + sold.get(id);
+            totalSold += sold.get(id);
+            if (actual != expected || drink.getReserved() != 0) {
+                System.out.printf("불일치 %d: 재고 %d + 판매 %d = %d, 기대 %d, 예약 %d%n",
+                        id, drink.getStock(), sold.get(id), actual, expected, drink.getReserved());
+                ok = false;
+            }
+            if (inventory.getDrinkByName(drink.getName()) != drink) {
+                System.out.println("이름 인덱스 불일치: " + drink.getName());
+                ok = false;
+            }
+        }
+
+        // 가격순 인덱스: 잔액 무제한이면 재고 있는 음료 전부가 나와야 함
+        BitSet affordable = new BitSet();
+        inventory.forEachAffordable(Integer.MAX_VALUE, affordable::set);
+        for (int id = 0; id < DRINKS; id++) {
+            if (affordable.get(id) == inventory.getDrink(id).isSoldOut()) {
+                System.out.println("가격 인덱스 불일치: " + id);
+                ok = false;
+            }
+        }
+
+        System.out.printf("구매 스레드 %d개 × %d회, %dms - 판매 %d개, 품절 거절 %d회%n",
+                buyers, iterations, elapsedMs, totalSold, soldOut.get());
+        if (!ok) {
+            System.out.println("실패");
+            System.exit(1);
+        }
+        System.out.println("통과: 초과 판매/재고 유실 없음");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+// model/PurchaseHistoryBench.java
+package model;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Stack;
+
+/**
+ * PurchaseHistory 벤치마크 (main으로 실행)
+ * - 구매 100만 건을 기록했을 때 원형 버퍼와 이전 Stack<String> 방식의 기록 시간/남는 힙/최근 조회/화면 출력 시간 비교
+ * - 원형 버퍼의 최근 조회와 페이지 결과가 직접 계산한 값과 같은지, 잘못된 페이지 요청을 거부하는지 확인 (다르면 종료 코드 1)
+ * 실행: javac -d out -sourcepath src:bench bench/model/PurchaseHistoryBench.java && java -cp out model.PurchaseHistoryBench
+ */
+public class PurchaseHistoryBench {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) {
+        DrinkInventory inventory = new DrinkInventory();
+        for (int i = 0; i < 8; i++) inventory.addDrink(new Drink("음료" + i, 100 * (i + 1), 10));
+
+        int[] purchases = new int[ENTRIES];
+        Random rnd = new Random(7);
+        for (int i = 0; i < ENTRIES; i++) purchases[i] = rnd.nextInt(8);
+
+        // 원형 버퍼
+        long heap0 = usedHeap();
+        long t0 = System.nanoTime();
+        PurchaseHistory ring = new PurchaseHistory(inventory);
+        for (int id : purchases) ring.add(id);
+        long ringAdd = System.nanoTime() - t0;
+        long ringHeap = usedHeap() - heap0;
+
+        t0 = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < LOOKUPS; i++) sink += ring.getRecentId(1 + (i % ring.size()));
+        long ringRecent = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        String ringPage = ring.getPage(0);
+        long ringShow = System.nanoTime() - t0;
+
+        // 이전 Stack 방식 (이름 문자열을 무한히 쌓음)
+        heap0 = usedHeap();
+        t0 = System.nanoTime();
+        Stack<String> stack = new Stack<>();
+        for (int id : purchases) stack.push(inventory.getDrink(id).getName());
+        long stackAdd = System.nanoTime() - t0;
+        long stackHeap = usedHeap() - heap0;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) sink += stack.get(stack.size() - 1 - (i % stack.size())).length();
+        long stackRecent = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        StringBuilder sb = new StringBuilder("📦 최근 구매 기록:\n");
+        int order = 1;
+        for (int i = stack.size() - 1; i >= 0; i--) sb.append(order++).append(". ").append(stack.get(i)).append("\n");
+        String stackAll = sb.toString();
+        long stackShow = System.nanoTime() - t0;
+
+        System.out.printf("%-8s %12s %12s %16s %14s%n", "", "add 1M", "retained", "getRecent 1M", "show");
+        System.out.printf("%-8s %12s %10d KB %16s %14s%n", "ring", millis(ringAdd), ringHeap / 1024, millis(ringRecent), millis(ringShow));
+        System.out.printf("%-8s %12s %10d KB %16s %14s%n", "Stack", millis(stackAdd), stackHeap / 1024, millis(stackRecent), millis(stackShow));
+        System.out.println("(show: 원형 버퍼는 한 페이지 " + ringPage.length() + "자, Stack은 전체 " + stackAll.length() + "자, sink=" + sink + ")");
+
+        if (!verify(ring, purchases)) {
+            System.out.println("실패: 원형 버퍼 결과가 기대값과 다름");
+            System.exit(1);
+        }
+        System.out.println("통과");
+    }
+
+    // 최근 조회/페이지/잘못된 요청 확인
+    private static boolean verify(PurchaseHistory ring, int[] purchases) {
+        int capacity = PurchaseHistory.DEFAULT_CAPACITY;
+        if (ring.size() != capacity || ring.getTotalCount() != purchases.length) return false;
+        for (int n = 1; n <= capacity; n++) {
+            if (ring.getRecentId(n) != purchases[purchases.length - n]) return false;
+        }
+        if (ring.getRecentId(capacity + 1) != -1 || ring.getRecentId(0) != -1) return false;
+
+        int pageSize = 37;
+        int index = 0;
+        for (int page = 0; page * pageSize < capacity + pageSize; page++) {
+            for (PrimitiveIterator.OfInt it = ring.page(page, pageSize); it.hasNext(); index++) {
+                if (it.nextInt() != purchases[purchases.length - 1 - index]) return false;
+            }
+        }
+        if (index != capacity) return false;
+
+        int[][] invalid = {{-1, 10}, {0, 0}, {0, -5}};
+        for (int[] args : invalid) {
+            try {
+                ring.page(args[0], args[1]);
+                return false;
+            } catch (IllegalArgumentException expected) {
+                // 거부됨
+            }
+        }
+        return true;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1fms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,231 @@
+// network/LogCompressionBench.java
+package network;
+
+import util.SimpleEncryptor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 매출 로그 압축 벤치마크 (main으로 실행)
+ * - 자판기 한 대의 매출 N건을 SalesLogShipper처럼 BATCH 프레임 200건 단위로 인코딩하고, 배치마다 SYNC_FLUSH로 압축
+ * - 압축 수준별 전송 바이트/압축률/압축 CPU 시간/수신(해제+해석) CPU 시간 비교
+ *   · 연결 동안 Deflater 하나 유지 (SalesLogConnection 방식) vs 배치마다 새 Deflater
+ *   · 비교용으로 이전 텍스트 모드(암호화한 줄)도 함께 출력
+ * - 모든 경우 서버처럼 풀어서 프레임/매출을 해석했을 때 보낸 건수/금액/마지막 시퀀스가 같아야 함 (아니면 종료 코드 1)
+ * 실행: javac -d out -sourcepath src:bench bench/network/LogCompressionBench.java && java -cp out network.LogCompressionBench [매출 수]
+ */
+public class LogCompressionBench {
+
+    private static final String[] DRINKS = {"콜라", "사이다", "생수", "아메리카노", "카페라떼", "이온음료", "오렌지주스",
+            "녹차", "에너지드링크", "탄산수", "식혜", "옥수수수염차"};
+    private static final int[] PRICES = {1500, 1500, 800, 2000, 2500, 1800, 1700, 1200, 2200, 1300, 1400, 1600};
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static long expectedAmount;
+    private static long expectedLastSeq;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<SalesProtocol.Sale> sales = generate(count);
+        List<byte[]> binary = encodeBinary(sales);
+        List<byte[]> text = encodeText(sales);
+
+        System.out.printf("매출 %d건, 배치 %d개 (배치당 최대 %d건)%n", count, binary.size(), SalesProtocol.MAX_BATCH);
+        System.out.printf("%-26s %10s %10s %8s %12s %12s%n", "", "raw", "wire", "ratio", "deflate CPU", "receive CPU");
+
+        boolean ok = true;
+        ok &= run("binary, 압축 없음", binary, -1, false, count, true);
+        for (int level : new int[]{1, 6, 9}) {
+            ok &= run("binary, level " + level, binary, level, false, count, true);
+        }
+        ok &= run("binary, level 6, 배치마다 새로", binary, 6, true, count, true);
+        ok &= run("text, 압축 없음", text, -1, false, count, false);
+        ok &= run("text, level 6", text, 6, false, count, false);
+
+        if (!ok) {
+            System.out.println("실패");
+            System.exit(1);
+        }
+        System.out.println("통과");
+    }
+
+    // 날짜 순서대로 판매, 인기 음료에 몰리고 대부분 1개씩
+    private static List<SalesProtocol.Sale> generate(int count) {
+        Random rnd = new Random(23);
+        List<SalesProtocol.Sale> sales = new ArrayList<>(count);
+        int day = (int) LocalDate.of(2026, 1, 1).toEpochDay();
+        for (int i = 0; i < count; i++) {
+            if (rnd.nextInt(300) == 0) day++; // 하루 평균 300건
+            int d = Math.min(DRINKS.length - 1, (int) (-Math.log(1 - rnd.nextDouble()) * 3)); // 지수 분포로 인기 음료 편중
+            int quantity = rnd.nextInt(10) == 0 ? 2 + rnd.nextInt(2) : 1;
+            sales.add(new SalesProtocol.Sale(i + 1, day, DRINKS[d], PRICES[d], quantity));
+            expectedAmount += (long) PRICES[d] * quantity;
+        }
+        expectedLastSeq = count;
+        return sales;
+    }
+
+    // SalesLogShipper처럼 BATCH 하나씩 버퍼에 기록 후 flush (flush 단위의 바이트 배열 목록)
+    private static List<byte[]> encodeBinary(List<SalesProtocol.Sale> sales) {
+        SalesProtocol.Encoder encoder = new SalesProtocol.Encoder();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        List<byte[]> flushes = new ArrayList<>();
+        for (int from = 0; from < sales.size(); ) {
+            buffer.clear();
+            int n = encoder.batch(buffer, sales.subList(from, Math.min(sales.size(), from + SalesProtocol.MAX_BATCH)));
+            if (n == 0) throw new IllegalStateException("BATCH 기록 실패");
+            from += n;
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip().get(bytes);
+            flushes.add(bytes);
+        }
+        return flushes;
+    }
+
+    // 이전 텍스트 모드: "날짜,음료,가격,수량"을 암호화한 줄 (200줄마다 flush)
+    private static List<byte[]> encodeText(List<SalesProtocol.Sale> sales) {
+        List<byte[]> flushes = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sales.size(); i++) {
+            SalesProtocol.Sale s = sales.get(i);
+            sb.append(SimpleEncryptor.encrypt(String.format("%s,%s,%d,%d", LocalDate.ofEpochDay(s.epochDay), s.drinkName, s.price, s.quantity)))
+                    .append('\n');
+            if ((i + 1) % SalesProtocol.MAX_BATCH == 0 || i == sales.size() - 1) {
+                flushes.add(sb.toString().getBytes(StandardCharsets.US_ASCII));
+                sb.setLength(0);
+            }
+        }
+        return flushes;
+    }
+
+    // 압축(level < 0이면 그대로) → 해제 → 해석, 결과 출력 후 검증
+    private static boolean run(String name, List<byte[]> flushes, int level, boolean freshPerBatch, int count, boolean binary) {
+        compress(flushes, level, freshPerBatch); // 예열
+        long cpu0 = THREADS.getCurrentThreadCpuTime();
+        List<byte[]> wire = compress(flushes, level, freshPerBatch);
+        long deflateCpu = THREADS.getCurrentThreadCpuTime() - cpu0;
+
+        long raw = 0;
+        long sent = 0;
+        for (byte[] b : flushes) raw += b.length;
+        for (byte[] b : wire) sent += b.length;
+
+        cpu0 = THREADS.getCurrentThreadCpuTime();
+        Tally tally;
+        try {
+            tally = receive(wire, level >= 0, freshPerBatch, binary);
+        } catch (ProtocolException | DataFormatException e) {
+            System.out.println(name + ": 해석 실패 - " + e.getMessage());
+            return false;
+        }
+        long receiveCpu = THREADS.getCurrentThreadCpuTime() - cpu0;
+
+        System.out.printf("%-26s %8d KB %8d KB %7.1fx %10.1fms %10.1fms%n", name, raw / 1024, sent / 1024,
+                raw / (double) sent, deflateCpu / 1e6, receiveCpu / 1e6);
+        boolean ok = tally.sales == count && tally.amount == expectedAmount && (!binary || tally.lastSeq == expectedLastSeq);
+        if (!ok) System.out.printf("%s 불일치: %d건, 금액 %d, 마지막 시퀀스 %d%n", name, tally.sales, tally.amount, tally.lastSeq);
+        return ok;
+    }
+
+    // SalesLogConnection.writeCompressed와 같은 방식 (flush마다 SYNC_FLUSH)
+    private static List<byte[]> compress(List<byte[]> flushes, int level, boolean freshPerBatch) {
+        if (level < 0) return flushes;
+        List<byte[]> wire = new ArrayList<>(flushes.size());
+        byte[] out = new byte[8 * 1024];
+        Deflater deflater = new Deflater(level, true);
+        for (byte[] input : flushes) {
+            if (freshPerBatch) {
+                deflater.end();
+                deflater = new Deflater(level, true);
+            }
+            deflater.setInput(input);
+            ByteBuffer chunk = ByteBuffer.allocate(input.length + 64);
+            int n;
+            do {
+                n = deflater.deflate(out, 0, out.length, Deflater.SYNC_FLUSH);
+                if (chunk.remaining() < n) chunk = ByteBuffer.allocate(chunk.capacity() * 2).put(chunk.flip());
+                chunk.put(out, 0, n);
+            } while (n == out.length);
+            byte[] bytes = new byte[chunk.position()];
+            chunk.flip().get(bytes);
+            wire.add(bytes);
+        }
+        deflater.end();
+        return wire;
+    }
+
+    private static final class Tally {
+        long sales;
+        long amount;
+        long lastSeq;
+    }
+
+    // 서버 쪽: 받은 조각마다 풀어서 프레임(또는 줄) 단위로 해석
+    private static Tally receive(List<byte[]> wire, boolean compressed, boolean freshPerBatch, boolean binary)
+            throws ProtocolException, DataFormatException {
+        Tally tally = new Tally();
+        FrameCodec codec = new FrameCodec(SalesProtocol.MAX_FRAME_BYTES);
+        SalesProtocol.Decoder decoder = new SalesProtocol.Decoder();
+        SalesProtocol.Listener listener = new SalesProtocol.Listener() {
+            @Override
+            public void onSale(long seq, int epochDay, String drinkName, int price, int quantity) {
+                tally.sales++;
+                tally.amount += (long) price * quantity;
+                tally.lastSeq = seq;
+            }
+        };
+        ByteBuffer plain = ByteBuffer.allocate(64 * 1024);
+        byte[] out = new byte[8 * 1024];
+        Inflater inflater = new Inflater(true);
+        for (byte[] chunk : wire) {
+            if (!compressed) {
+                plain.put(chunk);
+            } else {
+                if (freshPerBatch) {
+                    inflater.end();
+                    inflater = new Inflater(true);
+                }
+                inflater.setInput(chunk);
+                int n;
+                while ((n = inflater.inflate(out)) > 0) plain.put(out, 0, n);
+            }
+            plain.flip();
+            if (binary) {
+                int limit = plain.limit();
+                int total;
+                while ((total = codec.frameLength(plain)) >= 0 && total <= limit - plain.position()) {
+                    int next = plain.position() + total;
+                    plain.limit(next);
+                    codec.openFrame(plain);
+                    decoder.decode(plain, listener);
+                    plain.limit(limit).position(next);
+                }
+            } else {
+                int start = plain.position();
+                for (int i = start; i < plain.limit(); i++) {
+                    if (plain.get(i) != '\n') continue;
+                    String[] fields = SimpleEncryptor.decrypt(new String(plain.array(), start, i - start, StandardCharsets.US_ASCII)).split(",");
+                    tally.sales++;
+                    tally.amount += Long.parseLong(fields[2]) * Long.parseLong(fields[3]);
+                    start = i + 1;
+                }
+                plain.position(start);
+            }
+            plain.compact();
+        }
+        inflater.end();
+        return tally;
+    }
+}
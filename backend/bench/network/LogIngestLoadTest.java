@@ -0,0 +1,219 @@
+// network/LogIngestLoadTest.java
+package network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * LogIngestServer 부하 테스트 (main으로 실행)
+ * - 자판기 N대가 동시에 연결한 상태에서 각자 줄을 보내고, 줄 중간에서 잘라 여러 번에 나눠 씀 (조각난 줄 처리 확인)
+ * - 줄마다 "자판기,순번,길이,내용" 형식이라 서버 쪽에서 연결별 순서/길이를 검사
+ * - 받은 줄 수 == 보낸 줄 수, 손상/순서 오류 0건, 동시 연결 수 == N, 클라이언트 종료 후 연결 0개여야 함
+ * - 최대 연결 수를 넘는 연결은 거부되는지도 확인 (아니면 종료 코드 1)
+ * 실행: javac -d out -sourcepath src:bench bench/network/LogIngestLoadTest.java && java -cp out network.LogIngestLoadTest [연결 수] [연결당 줄 수]
+ */
+public class LogIngestLoadTest {
+
+    private static final int CLIENT_THREADS = 8;   // 연결들을 나눠 맡는 클라이언트 스레드 수
+    private static final int MAX_LINE_BYTES = 8192;
+    private static final int MAX_PAYLOAD = 200;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int linesPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+        LongAdder received = new LongAdder();
+        LongAdder corrupt = new LongAdder();
+        LongAdder opened = new LongAdder();
+        LongAdder closed = new LongAdder();
+        int port = freePort();
+        LogIngestServer server = new LogIngestServer(port, workers, MAX_LINE_BYTES, new LogIngestServer.Handler() {
+            @Override
+            public void onOpen(LogIngestServer.Session session) {
+                opened.increment();
+            }
+
+            @Override
+            public void onLine(LogIngestServer.Session session, ByteBuffer line) {
+                if (!checkLine(session, line)) corrupt.increment();
+                received.increment();
+            }
+
+            @Override
+            public void onClose(LogIngestServer.Session session) {
+                closed.increment();
+            }
+        });
+        server.setMaxConnections(clients);
+        server.setIdleTimeoutMs(0);
+        server.start();
+
+        // 모든 연결을 먼저 열어 동시 연결 상태를 만든 뒤 전송
+        List<List<SocketChannel>> groups = new ArrayList<>();
+        for (int t = 0; t < CLIENT_THREADS; t++) groups.add(new ArrayList<>());
+        long t0 = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            SocketChannel ch = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+            groups.get(i % CLIENT_THREADS).add(ch);
+        }
+        boolean allOpen = waitFor(() -> server.getConnectionCount() == clients && opened.sum() == clients, 10_000);
+        long connectMs = (System.nanoTime() - t0) / 1_000_000;
+        int peak = server.getConnectionCount();
+
+        CountDownLatch start = new CountDownLatch(1);
+        LongAdder bytesSent = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            List<SocketChannel> group = groups.get(t);
+            int firstId = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    send(group, firstId, linesPerClient, bytesSent);
+                } catch (IOException | InterruptedException e) {
+                    System.out.println("전송 실패: " + e);
+                }
+            }, "client-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+
+        long sendStart = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        long expected = (long) clients * linesPerClient;
+        boolean allReceived = waitFor(() -> received.sum() == expected, 30_000);
+        long elapsed = System.nanoTime() - sendStart;
+
+        for (List<SocketChannel> group : groups) {
+            for (SocketChannel ch : group) ch.close();
+        }
+        boolean allClosed = waitFor(() -> server.getConnectionCount() == 0 && closed.sum() == clients, 10_000);
+        long bytesRead = server.getBytesRead();
+        server.close();
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("연결 %d개 (작업 스레드 %d개), 연결당 %d줄: 연결 %dms, 전송~수신 완료 %.0fms%n",
+                clients, workers, linesPerClient, connectMs, elapsed / 1e6);
+        System.out.printf("수신 %d/%d줄, 손상 %d줄, 최대 동시 연결 %d, %.0f줄/s, %.1f MB/s (보냄 %d B, 받음 %d B)%n",
+                received.sum(), expected, corrupt.sum(), peak, received.sum() / seconds,
+                bytesRead / seconds / (1024 * 1024), bytesSent.sum(), bytesRead);
+
+        boolean ok = allOpen && allReceived && allClosed && corrupt.sum() == 0 && bytesRead == bytesSent.sum();
+        if (!allOpen) System.out.println("동시 연결 " + peak + "개만 열림");
+        if (!allClosed) System.out.println("종료 후 남은 연결 " + server.getConnectionCount() + "개");
+        ok &= checkRejection();
+
+        if (!ok) {
+            System.out.println("실패");
+            System.exit(1);
+        }
+        System.out.println("통과");
+    }
+
+    // 연결마다 줄을 만들어 무작위 위치에서 잘라 여러 번에 나눠 보냄
+    private static void send(List<SocketChannel> group, int firstId, int linesPerClient, LongAdder bytesSent) throws IOException {
+        Random rnd = new Random(firstId);
+        int chunksPerClient = 5;
+        int linesPerChunk = (linesPerClient + chunksPerClient - 1) / chunksPerClient;
+        for (int from = 0; from < linesPerClient; from += linesPerChunk) {
+            for (int i = 0; i < group.size(); i++) {
+                int clientId = firstId + i * CLIENT_THREADS;
+                StringBuilder sb = new StringBuilder();
+                for (int seq = from; seq < Math.min(linesPerClient, from + linesPerChunk); seq++) {
+                    int length = rnd.nextInt(MAX_PAYLOAD);
+                    sb.append(clientId).append(',').append(seq).append(',').append(length).append(',');
+                    for (int k = 0; k < length; k++) sb.append((char) ('a' + (seq + k) % 26));
+                    sb.append(seq % 7 == 0 ? "\r\n" : "\n");
+                }
+                byte[] data = sb.toString().getBytes(StandardCharsets.US_ASCII);
+                ByteBuffer buf = ByteBuffer.wrap(data);
+                SocketChannel ch = group.get(i);
+                while (buf.hasRemaining()) {
+                    // 줄 경계와 관계없는 위치에서 잘라 씀
+                    buf.limit(Math.min(data.length, buf.position() + 1 + rnd.nextInt(512)));
+                    while (buf.hasRemaining()) ch.write(buf);
+                    buf.limit(data.length);
+                }
+                bytesSent.add(data.length);
+            }
+        }
+    }
+
+    // "자판기,순번,길이,내용" 검사 - 연결마다 자판기 번호가 같고 순번이 0부터 하나씩 증가해야 함
+    private static boolean checkLine(LogIngestServer.Session session, ByteBuffer line) {
+        int p = line.position();
+        long[] fields = new long[3];
+        for (int f = 0; f < 3; f++) {
+            long value = 0;
+            int digits = 0;
+            while (p < line.limit() && line.get(p) != ',') {
+                byte b = line.get(p++);
+                if (b < '0' || b > '9') return false;
+                value = value * 10 + (b - '0');
+                digits++;
+            }
+            if (digits == 0 || p >= line.limit()) return false;
+            p++; // ','
+            fields[f] = value;
+        }
+        if (line.limit() - p != fields[2]) return false;
+        for (int k = 0; k < fields[2]; k++) {
+            if (line.get(p + k) != (byte) ('a' + (fields[1] + k) % 26)) return false;
+        }
+
+        long[] state = (long[]) session.getAttachment(); // {자판기 번호, 다음 순번}
+        if (state == null) {
+            state = new long[]{fields[0], 0};
+            session.setAttachment(state);
+        }
+        if (state[0] != fields[0] || state[1] != fields[1]) return false;
+        state[1]++;
+        return true;
+    }
+
+    // 최대 연결 수를 넘는 연결은 바로 끊겨야 함
+    private static boolean checkRejection() throws IOException, InterruptedException {
+        int limit = 10;
+        int attempts = 20;
+        int port = freePort();
+        LogIngestServer server = new LogIngestServer(port, 1, MAX_LINE_BYTES, (session, line) -> { });
+        server.setMaxConnections(limit);
+        server.start();
+        List<SocketChannel> channels = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) channels.add(SocketChannel.open(new InetSocketAddress("127.0.0.1", port)));
+        boolean ok = waitFor(() -> server.getRejectedCount() == attempts - limit && server.getConnectionCount() == limit, 5_000);
+        System.out.printf("최대 연결 %d개 서버에 %d개 연결: 수락 %d, 거부 %d%n",
+                limit, attempts, server.getConnectionCount(), server.getRejectedCount());
+        for (SocketChannel ch : channels) ch.close();
+        server.close();
+        return ok;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static boolean waitFor(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,198 @@
+// service/ChangeMakerCheck.java
+package service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * ChangeMaker 속성 검사 + 벤치마크 (main으로 실행)
+ * - 무작위 화폐 단위/보유 개수 조합마다 모든 조합을 직접 나열한 결과(완전 탐색)와 비교
+ *   · canMakeChange가 완전 탐색의 가능 여부와 같을 것
+ *   · plan의 합이 금액과 같고, 보유 개수를 넘지 않으며, 화폐 개수가 최소일 것
+ * - MoneyManager: 거스름돈이 부족하면 보유 화폐/잔액이 그대로이고, 가능 여부 확인은 아무것도 바꾸지 않을 것
+ * - 실패하면 반례를 출력하고 종료 코드 1
+ * 실행: javac -d out -sourcepath src:bench bench/service/ChangeMakerCheck.java && java -cp out service.ChangeMakerCheck [조합 수] [seed]
+ */
+public class ChangeMakerCheck {
+
+    private static final int[] CANDIDATES = {10, 20, 30, 50, 70, 100, 120, 500, 1000};
+    private static final int MAX_AMOUNT = 5000;
+    private static final int MAX_COUNT = 6; // 완전 탐색이 (MAX_COUNT+1)^단위수 이므로 작게 유지
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 2024;
+        Random rnd = new Random(seed);
+
+        for (int c = 0; c < cases; c++) {
+            int[] denominations = randomDenominations(rnd);
+            int[] counts = new int[denominations.length];
+            for (int i = 0; i < counts.length; i++) counts[i] = rnd.nextInt(MAX_COUNT + 1);
+
+            ChangeMaker maker = new ChangeMaker(denominations, MAX_AMOUNT);
+            maker.rebuild(counts);
+            int[] best = bruteForce(denominations, counts);
+            String failure = compare(maker, denominations, counts, best);
+            if (failure != null) {
+                System.out.println("실패 (seed " + seed + ", " + c + "번째): 단위 " + Arrays.toString(denominations)
+                        + ", 보유 " + Arrays.toString(counts) + " - " + failure);
+                System.exit(1);
+            }
+        }
+        System.out.println("속성 검사 통과: " + cases + "개 조합 × 0~" + MAX_AMOUNT + "원");
+
+        if (!checkMoneyManager(rnd)) System.exit(1);
+        benchmark();
+    }
+
+    // 모든 금액에 대해 ChangeMaker 결과를 완전 탐색 결과와 비교 (다르면 설명 문자열)
+    private static String compare(ChangeMaker maker, int[] denominations, int[] counts, int[] best) {
+        for (int amount = 0; amount <= MAX_AMOUNT; amount++) {
+            boolean feasible = best[amount] >= 0;
+            if (maker.canMakeChange(amount) != feasible) {
+                return amount + "원 가능 여부 " + maker.canMakeChange(amount) + ", 기대 " + feasible;
+            }
+            int[] plan = maker.plan(amount);
+            if (!feasible) {
+                if (plan != null) return amount + "원은 불가능한데 조합을 반환함";
+                continue;
+            }
+            if (plan == null) return amount + "원 조합 없음";
+            int sum = 0;
+            int coins = 0;
+            for (int i = 0; i < plan.length; i++) {
+                if (plan[i] < 0 || plan[i] > counts[i]) return amount + "원 조합이 보유 개수를 넘음: " + Arrays.toString(plan);
+                sum += plan[i] * denominations[i];
+                coins += plan[i];
+            }
+            if (sum != amount) return amount + "원 조합의 합이 " + sum;
+            if (coins != best[amount]) return amount + "원 화폐 " + coins + "개, 최소 " + best[amount] + "개";
+        }
+        return null;
+    }
+
+    // 모든 사용 개수 조합을 나열하여 금액별 최소 화폐 개수 계산 (불가능하면 -1)
+    private static int[] bruteForce(int[] denominations, int[] counts) {
+        int[] best = new int[MAX_AMOUNT + 1];
+        Arrays.fill(best, -1);
+        int[] use = new int[denominations.length];
+        while (true) {
+            int sum = 0;
+            int coins = 0;
+            for (int i = 0; i < use.length; i++) {
+                sum += use[i] * denominations[i];
+                coins += use[i];
+            }
+            if (sum <= MAX_AMOUNT && (best[sum] < 0 || coins < best[sum])) best[sum] = coins;
+
+            int i = 0;
+            while (i < use.length && use[i] == counts[i]) use[i++] = 0;
+            if (i == use.length) return best;
+            use[i]++;
+        }
+    }
+
+    private static int[] randomDenominations(Random rnd) {
+        int[] pool = CANDIDATES.clone();
+        for (int i = pool.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = pool[i];
+            pool[i] = pool[j];
+            pool[j] = t;
+        }
+        int[] picked = Arrays.copyOf(pool, 2 + rnd.nextInt(4));
+        Arrays.sort(picked);
+        for (int i = 0; i < picked.length / 2; i++) { // MoneyManager처럼 큰 단위부터
+            int t = picked[i];
+            picked[i] = picked[picked.length - 1 - i];
+            picked[picked.length - 1 - i] = t;
+        }
+        return picked;
+    }
+
+    // 거스름돈 부족/가능 여부 확인이 보유 화폐와 잔액을 바꾸지 않는지 확인
+    private static boolean checkMoneyManager(Random rnd) {
+        int shortages = 0;
+        for (int round = 0; round < 200; round++) {
+            MoneyManager money = new MoneyManager();
+            money.collectCoins(rnd.nextInt(3)); // 보유 화폐를 0~2개로 줄여 부족한 경우를 만듦
+            int[] coins = {10, 50, 100, 500, 1000};
+            for (int k = 0; k < 1 + rnd.nextInt(12); k++) money.insertMoney(coins[rnd.nextInt(coins.length)]);
+            money.spendMoney(rnd.nextInt(money.getBalance() + 1) / 10 * 10);
+
+            Map<Integer, Integer> stockBefore = money.getCoinStock();
+            int balance = money.getBalance();
+            boolean available = money.isChangeAvailable();
+            if (!money.getCoinStock().equals(stockBefore) || money.getBalance() != balance) {
+                System.out.println("실패: isChangeAvailable이 상태를 바꿈");
+                return false;
+            }
+
+            int[] change = money.returnChange();
+            if ((change != null) != available) {
+                System.out.println("실패: 가능 여부(" + available + ")와 반환 결과가 다름");
+                return false;
+            }
+            if (change == null) {
+                if (!money.getCoinStock().equals(stockBefore) || money.getBalance() != balance) {
+                    System.out.println("실패: 거스름돈 부족인데 보유 화폐/잔액이 바뀜");
+                    return false;
+                }
+                shortages++;
+                continue;
+            }
+            int paid = 0;
+            for (int i = 0; i < change.length; i++) {
+                paid += change[i] * money.denominationAt(i);
+                int expected = stockBefore.get(money.denominationAt(i)) - change[i];
+                if (money.getCoinStock().get(money.denominationAt(i)) != expected) {
+                    System.out.println("실패: 반환한 만큼 보유 화폐가 줄지 않음");
+                    return false;
+                }
+            }
+            if (paid != balance || money.getBalance() != 0) {
+                System.out.println("실패: 반환액 " + paid + ", 잔액 " + balance);
+                return false;
+            }
+        }
+        System.out.println("MoneyManager 검사 통과: 200회 중 거스름돈 부족 " + shortages + "회, 부족 시 보유 화폐/잔액 변화 없음");
+        return true;
+    }
+
+    // 표 재계산 / 가능 여부 확인 / 조합 계산 시간
+    private static void benchmark() {
+        int[] denominations = {1000, 500, 100, 50, 10};
+        int[] counts = {10, 10, 10, 10, 10};
+        ChangeMaker maker = new ChangeMaker(denominations, 7000);
+        int rounds = 20_000;
+
+        for (int i = 0; i < rounds; i++) { // 예열
+            counts[i % 5] = 5 + i % 20;
+            maker.rebuild(counts);
+        }
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            counts[i % 5] = 5 + i % 20;
+            maker.rebuild(counts);
+        }
+        double rebuildUs = (System.nanoTime() - t0) / 1000.0 / rounds;
+
+        int queries = 10_000_000;
+        long hits = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            if (maker.canMakeChange((i % 701) * 10)) hits++;
+        }
+        double checkNs = (System.nanoTime() - t0) / (double) queries;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < queries / 10; i++) {
+            int[] plan = maker.plan((i % 701) * 10);
+            if (plan != null) hits += plan[0];
+        }
+        double planNs = (System.nanoTime() - t0) / (double) (queries / 10);
+
+        System.out.printf("rebuild %.1f us, canMakeChange %.1f ns, plan %.1f ns (hits=%d)%n", rebuildUs, checkNs, planNs, hits);
+    }
+}
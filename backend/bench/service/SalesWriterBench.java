@@ -0,0 +1,267 @@
+// service/SalesWriterBench.java
+package service;
+
+import util.DBManager;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * SalesWriter 벤치마크 (main으로 실행)
+ * - DB 왕복마다 지연(rttMs)을 흉내 내는 가짜 JDBC 드라이버로, 판매 N건을 두 방식으로 저장
+ *   · 이전 방식: 판매마다 호출 스레드에서 커넥션을 빌려 한 행 INSERT (자동 커밋)
+ *   · SalesWriter: 저널에 추가 후 바로 반환, 저장 스레드가 여러 행 INSERT + 집계 + 반영 위치를 한 트랜잭션으로
+ * - 호출 스레드가 기다린 시간(p50/p99/최대), 전체 저장 완료까지의 처리량, DB 왕복 횟수 비교
+ * - 두 방식 모두 sales_log에 N행이 들어가야 하며, SalesWriter는 실패 0건/반영 대기 0건이어야 함 (아니면 종료 코드 1)
+ * 실행: javac -d out -sourcepath src:bench bench/service/SalesWriterBench.java && java -cp out service.SalesWriterBench [판매 수] [rttMs]
+ */
+public class SalesWriterBench {
+
+    private static final String URL = "jdbc:salesbench:";
+    private static final String[] DRINKS = {"콜라", "사이다", "커피", "물", "이온음료"};
+
+    private static long rttMs = 1;
+    private static final AtomicLong roundTrips = new AtomicLong(); // 서버까지 간 요청 수
+    private static final AtomicLong salesRows = new AtomicLong();  // sales_log에 들어간 행 수
+
+    public static void main(String[] args) throws Exception {
+        int sales = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        rttMs = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        // DBManager가 처음 쓰이기 전에 가짜 드라이버로 연결하도록 설정
+        System.setProperty("vending.db.url", URL);
+        System.setProperty("vending.db.driver", FakeDriver.class.getName());
+
+        System.out.printf("판매 %d건, DB 왕복 %dms%n", sales, rttMs);
+        System.out.printf("%-12s %10s %10s %10s %12s %12s %10s%n", "", "p50", "p99", "max", "total", "sales/s", "roundTrips");
+
+        boolean ok = runLegacy(sales);
+        ok &= runWriter(sales);
+        DBManager.shutdown();
+
+        if (!ok) {
+            System.out.println("실패");
+            System.exit(1);
+        }
+        System.out.println("통과");
+    }
+
+    // 이전 방식: 판매마다 호출 스레드에서 한 행 INSERT
+    private static boolean runLegacy(int sales) {
+        String sql = "INSERT INTO sales_log (client_id, sale_date, drink_name, price, quantity, encrypted_data) VALUES (?, ?, ?, ?, ?, ?)";
+        long[] waits = new long[sales];
+        roundTrips.set(0);
+        salesRows.set(0);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < sales; i++) {
+            long s = System.nanoTime();
+            try (Connection conn = DBManager.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, "bench");
+                pstmt.setDate(2, java.sql.Date.valueOf(LocalDate.now()));
+                pstmt.setString(3, DRINKS[i % DRINKS.length]);
+                pstmt.setInt(4, 1000);
+                pstmt.setInt(5, 1);
+                pstmt.setString(6, "x");
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                System.out.println("이전 방식 저장 실패: " + e.getMessage());
+                return false;
+            }
+            waits[i] = System.nanoTime() - s;
+        }
+        long total = System.nanoTime() - t0;
+        print("per-sale", waits, total, sales);
+        return check("per-sale", salesRows.get() == sales, "sales_log " + salesRows.get() + "행");
+    }
+
+    // SalesWriter: 저널 추가 후 반환, 저장 스레드가 배치 저장
+    private static boolean runWriter(int sales) throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("sales-writer-bench");
+        try {
+            SalesJournal journal = new SalesJournal(dir, 1 << 20, SalesJournal.FsyncPolicy.INTERVAL, 200);
+            SalesWriter writer = new SalesWriter(journal, new SalesCube(), new ReportCache(64, 30_000),
+                    "bench", 10_000, 100, 200, 50);
+            Thread.sleep(200); // 저장 스레드가 반영 위치 확인/집계 테이블 준비를 마치도록
+            roundTrips.set(0);
+            salesRows.set(0);
+
+            long[] waits = new long[sales];
+            long t0 = System.nanoTime();
+            for (int i = 0; i < sales; i++) {
+                long s = System.nanoTime();
+                writer.submit(new SalesWriter.SaleRecord("bench", LocalDate.now(), 12, DRINKS[i % DRINKS.length], 1000, 1, "x"));
+                waits[i] = System.nanoTime() - s;
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (writer.getWrittenCount() < sales && System.nanoTime() < deadline) Thread.sleep(1);
+            long total = System.nanoTime() - t0;
+            writer.shutdown(5_000);
+
+            print("SalesWriter", waits, total, sales);
+            System.out.printf("(SalesWriter: 배치 %d번, 평균 %.1f행, 제출 대기 %d번)%n", writer.getBatchCount(),
+                    writer.getWrittenCount() / (double) Math.max(1, writer.getBatchCount()), writer.getThrottledCount());
+            return check("SalesWriter", writer.getWrittenCount() == sales && salesRows.get() == sales
+                            && writer.getFailedCount() == 0 && writer.getPendingCount() == 0,
+                    "저장 " + writer.getWrittenCount() + "건, sales_log " + salesRows.get() + "행, 실패 "
+                            + writer.getFailedCount() + "건, 대기 " + writer.getPendingCount() + "건");
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void print(String name, long[] waits, long totalNanos, int sales) {
+        Arrays.sort(waits);
+        System.out.printf("%-12s %10s %10s %10s %12s %12.0f %10d%n", name,
+                micros(waits[waits.length / 2]), micros(waits[(int) (waits.length * 0.99)]), micros(waits[waits.length - 1]),
+                String.format("%.0fms", totalNanos / 1_000_000.0), sales / (totalNanos / 1e9), roundTrips.get());
+    }
+
+    private static boolean check(String name, boolean ok, String detail) {
+        if (!ok) System.out.println(name + " 불일치: " + detail);
+        return ok;
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.0fus", nanos / 1000.0);
+    }
+
+    // 서버 왕복 한 번 (지연 흉내)
+    private static void roundTrip() {
+        roundTrips.incrementAndGet();
+        try {
+            Thread.sleep(rttMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 가짜 JDBC 드라이버 (연결/문장/결과를 동적 프록시로 흉내, 결과 집합은 항상 비어 있음)
+     * - 실행/커밋/롤백/연결마다 roundTrip() 한 번, sales_log INSERT는 VALUES의 행 수만큼 salesRows 증가
+     */
+    public static final class FakeDriver implements Driver {
+        static {
+            try {
+                DriverManager.registerDriver(new FakeDriver());
+            } catch (SQLException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) return null;
+            roundTrip();
+            boolean[] autoCommit = {true};
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement", "createStatement" -> args == null
+                                ? fake(java.sql.Statement.class, null)
+                                : fake(PreparedStatement.class, (String) args[0]);
+                        case "getMetaData" -> fake(java.sql.DatabaseMetaData.class, null);
+                        case "getAutoCommit" -> autoCommit[0];
+                        case "setAutoCommit" -> {
+                            if (!autoCommit[0] && (Boolean) args[0]) roundTrip(); // 켜면 진행 중인 트랜잭션 커밋
+                            autoCommit[0] = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "commit", "rollback" -> {
+                            roundTrip();
+                            yield null;
+                        }
+                        case "isValid" -> !closed[0];
+                        case "isClosed" -> closed[0];
+                        case "close" -> {
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "unwrap" -> null;
+                        default -> defaultValue(method.getReturnType());
+                    });
+        }
+
+
+        // 실행 메서드만 왕복으로 세고 나머지는 기본값 반환
+        private static Object fake(Class<?> type, String preparedSql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("execute")) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    roundTrip();
+                    if (sql != null && sql.startsWith("INSERT INTO sales_log ")) salesRows.addAndGet(countRows(sql));
+                    if (name.equals("executeQuery")) return fake(java.sql.ResultSet.class, null);
+                    return method.getReturnType() == int.class ? 1 : defaultValue(method.getReturnType()); // 변경 행 수 1
+                }
+                if (name.equals("getColumns") || name.equals("getTables")) return fake(java.sql.ResultSet.class, null);
+                return defaultValue(method.getReturnType());
+            });
+        }
+
+        private static int countRows(String sql) {
+            int rows = 0;
+            for (int i = sql.indexOf("(?"); i >= 0; i = sql.indexOf("(?", i + 2)) rows++;
+            return rows;
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            if (type == short.class) return (short) 0;
+            if (type == byte.class) return (byte) 0;
+            if (type == double.class) return 0.0;
+            if (type == float.class) return 0.0f;
+            return null;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
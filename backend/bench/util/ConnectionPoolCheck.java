@@ -0,0 +1,247 @@
+// util/ConnectionPoolCheck.java
+package util;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * ConnectionPool 동작 확인 (main으로 실행)
+ * - vending.db.* 프로퍼티로 DBManager가 가짜 JDBC 드라이버에 연결하는 작은 풀(최대 2개, 대기 100ms, 유휴 200ms, statement 4개)을 만들게 함
+ * - 대기 시간 초과: 커넥션 2개를 빌린 상태에서 하나 더 빌리면 약 100ms 뒤 SQLException, 시간 초과 1건
+ * - 유휴 정리: 반납한 커넥션은 유휴 시간이 지나면 백그라운드에서 닫힘 (실제 연결 0개)
+ * - 연결 오류: SQLState 08xxx 예외가 난 커넥션은 반납 시 폐기되고 다음 대여는 새 연결 (캐시/비캐시 statement 모두)
+ * - statement 캐시: 같은 SQL을 다시 준비하면 적중으로 세고 실제 prepareStatement는 한 번만 호출
+ * - 하나라도 어긋나면 종료 코드 1
+ * 실행: javac -d out -sourcepath src:bench bench/util/ConnectionPoolCheck.java && java -cp out util.ConnectionPoolCheck
+ */
+public class ConnectionPoolCheck {
+
+    private static final String URL = "jdbc:poolcheck:";
+    private static final String LINK_FAILURE_SQL = "SELECT link_failure"; // 실행하면 SQLState 08S01
+
+    private static final AtomicInteger opened = new AtomicInteger();   // 만든 실제 연결 수
+    private static final AtomicInteger open = new AtomicInteger();     // 열려 있는 실제 연결 수
+    private static final AtomicInteger prepared = new AtomicInteger(); // 실제 prepareStatement 호출 수
+
+    private static boolean ok = true;
+
+    public static void main(String[] args) throws Exception {
+        // DBManager가 처음 쓰이기 전에 가짜 드라이버와 작은 풀로 설정
+        System.setProperty("vending.db.url", URL);
+        System.setProperty("vending.db.driver", FakeDriver.class.getName());
+        System.setProperty("vending.db.pool.max", "2");
+        System.setProperty("vending.db.pool.timeoutMs", "100");
+        System.setProperty("vending.db.pool.idleMs", "200");
+        System.setProperty("vending.db.pool.statements", "4");
+
+        ConnectionPool pool = DBManager.getPool();
+        System.out.printf("%-34s %14s %14s%n", "", "expected", "actual");
+
+        checkTimeout(pool);
+        checkStatementCache(pool);
+        checkLinkFailure(pool, true);
+        checkLinkFailure(pool, false);
+        checkIdleEviction(pool);
+        System.out.println(pool);
+        DBManager.shutdown();
+
+        if (!ok) {
+            System.out.println("실패");
+            System.exit(1);
+        }
+        System.out.println("통과");
+    }
+
+    // 풀이 가득 찬 상태에서 대기 시간이 지나면 SQLException
+    private static void checkTimeout(ConnectionPool pool) throws SQLException {
+        long timeouts = pool.getTimeoutCount();
+        long waitedMs = -1;
+        try (Connection a = DBManager.getConnection(); Connection b = DBManager.getConnection()) {
+            long start = System.nanoTime();
+            try (Connection c = DBManager.getConnection()) {
+                c.isValid(1);
+            } catch (SQLException e) {
+                waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+        }
+        report("timeout thrown after (ms)", ">= 100", waitedMs, waitedMs >= 100 && waitedMs < 1000);
+        report("timeout count", "+1", pool.getTimeoutCount() - timeouts, pool.getTimeoutCount() - timeouts == 1);
+        report("active after release", "0", pool.getActiveCount(), pool.getActiveCount() == 0);
+    }
+
+    // 같은 SQL은 캐시에서 재사용
+    private static void checkStatementCache(ConnectionPool pool) throws SQLException {
+        long hits = pool.getStatementCacheHits();
+        int before = prepared.get();
+        for (int i = 0; i < 5; i++) {
+            try (Connection conn = DBManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT price FROM drinks WHERE name = ?")) {
+                stmt.setString(1, "콜라");
+                stmt.executeQuery().close();
+            }
+        }
+        // 커넥션 2개 중 어느 것을 빌려도 최근 반납한 것부터 꺼내므로 실제 준비는 한 번
+        report("statement cache hits", "+4", pool.getStatementCacheHits() - hits, pool.getStatementCacheHits() - hits == 4);
+        report("physical prepareStatement", "+1", prepared.get() - before, prepared.get() - before == 1);
+    }
+
+    // SQLState 08 오류가 난 커넥션은 반납 시 폐기
+    private static void checkLinkFailure(ConnectionPool pool, boolean cached) throws SQLException {
+        long destroyed = pool.getDestroyedCount();
+        int openedBefore = opened.get();
+        String state = null;
+        try (Connection conn = DBManager.getConnection()) {
+            try (Statement stmt = cached ? conn.prepareStatement(LINK_FAILURE_SQL) : conn.createStatement()) {
+                if (cached) ((PreparedStatement) stmt).executeQuery();
+                else stmt.executeQuery(LINK_FAILURE_SQL);
+            } catch (SQLException e) {
+                state = e.getSQLState();
+            }
+        }
+        // 남은 유휴 커넥션을 모두 빌려 폐기된 연결이 돌아오지 않는지 확인
+        try (Connection a = DBManager.getConnection(); Connection b = DBManager.getConnection()) {
+            a.isValid(1);
+            b.isValid(1);
+        }
+        String name = cached ? "cached" : "uncached";
+        report("08 error state (" + name + ")", "08S01", state, "08S01".equals(state));
+        report("08 error retired (" + name + ")", "+1", pool.getDestroyedCount() - destroyed,
+                pool.getDestroyedCount() - destroyed == 1);
+        report("reconnects after 08 (" + name + ")", "+1", opened.get() - openedBefore, opened.get() - openedBefore == 1);
+    }
+
+    // 유휴 시간이 지난 커넥션은 백그라운드에서 닫힘 (정리 주기는 최소 1초)
+    private static void checkIdleEviction(ConnectionPool pool) throws InterruptedException {
+        int idleBefore = pool.getIdleCount();
+        long start = System.nanoTime();
+        boolean evicted = waitFor(() -> pool.getIdleCount() == 0 && open.get() == 0, 5_000);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        report("idle before eviction", "2", idleBefore, idleBefore == 2);
+        report("idle evicted within (ms)", "< 5000", evicted ? ms : -1, evicted);
+        report("open physical after eviction", "0", open.get(), open.get() == 0);
+    }
+
+    private static void report(String name, String expected, Object actual, boolean pass) {
+        System.out.printf("%-34s %14s %14s%s%n", name, expected, actual, pass ? "" : "  <- 불일치");
+        ok &= pass;
+    }
+
+    private static boolean waitFor(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * 가짜 JDBC 드라이버 (연결/문장/결과를 동적 프록시로 흉내, 결과 집합은 항상 비어 있음)
+     * - 실제 연결 수와 prepareStatement 호출 수를 셈, LINK_FAILURE_SQL 실행은 SQLState 08S01 예외
+     */
+    public static final class FakeDriver implements Driver {
+        static {
+            try {
+                DriverManager.registerDriver(new FakeDriver());
+            } catch (SQLException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) return null;
+            opened.incrementAndGet();
+            open.incrementAndGet();
+            boolean[] autoCommit = {true};
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> {
+                            prepared.incrementAndGet();
+                            yield fake(PreparedStatement.class, (String) args[0]);
+                        }
+                        case "createStatement" -> fake(Statement.class, null);
+                        case "getAutoCommit" -> autoCommit[0];
+                        case "setAutoCommit" -> {
+                            autoCommit[0] = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "isValid" -> !closed[0];
+                        case "isClosed" -> closed[0];
+                        case "close" -> {
+                            if (!closed[0]) open.decrementAndGet();
+                            closed[0] = true;
+                            yield null;
+                        }
+                        default -> defaultValue(method.getReturnType());
+                    });
+        }
+
+        // 실행 메서드는 빈 결과 또는 연결 오류, 나머지는 기본값 반환
+        private static Object fake(Class<?> type, String preparedSql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("execute")) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    if (LINK_FAILURE_SQL.equals(sql)) throw new SQLException("Communications link failure", "08S01");
+                    if (name.equals("executeQuery")) return fake(java.sql.ResultSet.class, null);
+                    return defaultValue(method.getReturnType());
+                }
+                return defaultValue(method.getReturnType());
+            });
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            if (type == short.class) return (short) 0;
+            if (type == byte.class) return (byte) 0;
+            if (type == double.class) return 0.0;
+            if (type == float.class) return 0.0f;
+            return null;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
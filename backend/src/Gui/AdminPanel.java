@@ -48,6 +48,9 @@ public class AdminPanel extends Stage {
         Button editMenuBtn = new Button("이름/가격 변경");
         editMenuBtn.setOnAction(e -> openEditDrinkInfoDialog());
 
+        Button searchBtn = new Button("음료 검색");
+        searchBtn.setOnAction(e -> openSearchDialog());
+
         Button viewSalesBtn = new Button("총 매출 보기");
         viewSalesBtn.setOnAction(e -> openSalesReport());
 
@@ -65,17 +68,21 @@ public class AdminPanel extends Stage {
 
         Button sendToServerBtn = new Button("서버로 로그 전송");
         sendToServerBtn.setOnAction(e -> {
-            // DB 기반 로그 전송 (Socket 활용)
-            SocketClient.sendLogToServerFromDB();
-            showAlert("서버 전송", "서버로 DB 로그 전송 완료!");
+            // DB 기반 로그 전송 (지난 전송 이후의 새 매출만)
+            SocketClient.SyncResult result = SocketClient.sendLogToServerFromDB();
+            if (result != null) {
+                showAlert("서버 전송", "서버로 DB 로그 전송 완료!\n" + result);
+            } else {
+                showAlert("서버 전송", "서버로 DB 로그 전송 실패 (다음 전송 때 이어서 보냅니다)");
+            }
         });
 
         // 버튼들을 HBox에 추가
-        HBox buttonBox = new HBox(10, pwChangeBtn, restockMenuBtn, editMenuBtn, viewSalesBtn, dailySalesBtn,
+        HBox buttonBox = new HBox(10, pwChangeBtn, restockMenuBtn, editMenuBtn, searchBtn, viewSalesBtn, dailySalesBtn,
                 monthlySalesBtn, viewCoinsBtn, collectBtn, sendToServerBtn);
         root.getChildren().add(buttonBox);
 
-        Scene scene = new Scene(root, 1100, 160);
+        Scene scene = new Scene(root, 1200, 160);
         setScene(scene);
     }
 
@@ -84,7 +91,7 @@ public class AdminPanel extends Stage {
         VBox root = new VBox(10);
         root.setStyle("-fx-padding: 20;");
 
-        for (int i = 0; i < inventory.getDrinks().size(); i++) {
+        for (int i = 0; i < inventory.size(); i++) {
             int index = i;
             Drink drink = inventory.getDrink(index);
 
@@ -99,12 +106,12 @@ public class AdminPanel extends Stage {
                     if (amount <= 0) throw new NumberFormatException();
 
                     // 재고 증가
-                    drink.restock(amount);
+                    inventory.restock(index, amount);
                     drinkButtons[index].setText(getButtonText(drink));
                     drinkButtons[index].setDisable(false);
 
                     // DB 저장 및 WebSocket으로 클라이언트 동기화
-                    DrinkInventoryDAO.saveInventoryToDB(inventory);
+                    DrinkInventoryDAO.scheduleSave(inventory);
                     AdminWebSocketClient.sendEditMessage(index, drink.getName(), drink.getPrice(), drink.getStock());
 
                     showAlert("보충 완료", drink.getName() + " 재고가 " + amount + "개 추가되었습니다.");
@@ -128,7 +135,7 @@ public class AdminPanel extends Stage {
         VBox root = new VBox(15);
         root.setStyle("-fx-padding: 20;");
 
-        for (int i = 0; i < inventory.getDrinks().size(); i++) {
+        for (int i = 0; i < inventory.size(); i++) {
             int index = i;
             Drink drink = inventory.getDrink(index);
 
@@ -142,12 +149,11 @@ public class AdminPanel extends Stage {
                     int newPrice = Integer.parseInt(priceField.getText());
 
                     // 음료 정보 업데이트
-                    drink.setName(newName);
-                    drink.setPrice(newPrice);
+                    inventory.editDrink(index, newName, newPrice);
 
                     // DB 및 버튼 동기화
                     drinkButtons[index].setText(getButtonText(drink));
-                    DrinkInventoryDAO.saveInventoryToDB(inventory);
+                    DrinkInventoryDAO.scheduleSave(inventory);
                     AdminWebSocketClient.sendEditMessage(index, newName, newPrice, drink.getStock());
 
                     showAlert("수정 완료", "음료 정보가 수정되었습니다.");
@@ -167,6 +173,33 @@ public class AdminPanel extends Stage {
         dialog.show();
     }
 
+    /** 음료 검색 다이얼로그 (입력할 때마다 접두사/오타 허용 검색) */
+    private void openSearchDialog() {
+        VBox root = new VBox(10);
+        root.setStyle("-fx-padding: 20;");
+
+        TextField queryField = new TextField();
+        queryField.setPromptText("음료 이름 입력");
+        TextArea resultArea = new TextArea();
+        resultArea.setEditable(false);
+
+        queryField.textProperty().addListener((obs, oldText, newText) -> {
+            StringBuilder sb = new StringBuilder();
+            for (Drink d : inventory.search(newText, 20)) {
+                sb.append(d.getId() + 1).append("번: ").append(d.getName())
+                        .append(" (").append(d.getPrice()).append("원, 재고 ").append(d.getStock()).append(")\n");
+            }
+            resultArea.setText(sb.toString());
+        });
+
+        root.getChildren().addAll(queryField, resultArea);
+
+        Stage dialog = new Stage();
+        dialog.setTitle("음료 검색");
+        dialog.setScene(new Scene(root, 400, 300));
+        dialog.show();
+    }
+
     /** 음료 버튼 텍스트 구성 */
     private String getButtonText(Drink drink) {
         return drink.getName() + "\n(" + drink.getPrice() + "원)\n재고: " + drink.getStock();
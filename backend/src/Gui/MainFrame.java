@@ -17,13 +17,15 @@ import model.DrinkInventory;
 import model.PurchaseHistory;
 import network.AdminWebSocketClient;
 import network.AdminWebSocketServer;
+import network.SalesLogShipper;
 import service.AdminManager;
 import service.MoneyManager;
 import service.SalesLogger;
+import util.DBManager;
 
 import java.io.*;
-import java.net.Socket;
 import java.net.URI;
+import java.util.BitSet;
 
 public class MainFrame extends Application {
 
@@ -33,15 +35,20 @@ public class MainFrame extends Application {
     // 주요 구성 요소 선언
     private MoneyManager moneyManager = new MoneyManager();
     private Label balanceLabel;
+    private Label serverStatusLabel; // 로그 서버 연결 상태
     private DrinkInventory inventory;
     private Button[] drinkButtons = new Button[8];
-    private PurchaseHistory purchaseHistory = new PurchaseHistory();
+    private final BitSet affordableSlots = new BitSet(); // 현재 구매 가능(초록색)으로 표시된 버튼
+    private final BitSet changedSlots = new BitSet();    // 구매 가능 여부 갱신 계산용 (재사용)
+    private PurchaseHistory purchaseHistory;
     private AdminManager adminManager = new AdminManager();
 
-    // 서버와의 TCP 연결을 위한 소켓 및 스트림
-    private Socket logSocket;
-    private BufferedWriter logWriter;
-    private BufferedReader logReader; // 서버 경고 수신용 reader
+    // 서버로 매출 로그 전송 (연결/재연결/재전송은 전송기가 처리, 경고도 수신)
+    // 서버 주소와 대기 버퍼 크기는 시스템 프로퍼티로 변경 가능
+    private static final String LOG_SERVER_HOST = System.getProperty("vending.server.host", "localhost");
+    private static final int LOG_SERVER_PORT = Integer.getInteger("vending.server.port", 12345);
+    private static final int LOG_BUFFER_BYTES = Integer.getInteger("vending.log.bufferBytes", 1024 * 1024);
+    private SalesLogShipper logShipper;
 
     // 음료 이미지 파일 경로
     private final String[] imageFiles = {
@@ -70,6 +77,14 @@ public class MainFrame extends Application {
 
         // DB에서 음료 재고 로드
         inventory = DrinkInventoryDAO.loadInventoryFromDB();
+        purchaseHistory = new PurchaseHistory(inventory);
+
+        // 매출 저널 열기 (DB에 반영되지 못한 이전 매출은 자동 재전송)
+        try {
+            SalesLogger.start(clientId);
+        } catch (IOException e) {
+            System.err.println("매출 저널 열기 실패: " + e.getMessage());
+        }
 
         // Client1일 경우 WebSocket 서버 실행
         if ("Client1".equals(clientId)) {
@@ -83,30 +98,14 @@ public class MainFrame extends Application {
             }).start();
         }
 
-        // 서버와 TCP 연결 시도 (로그 전송 및 경고 수신)
-        try {
-            logSocket = new Socket("localhost", 12345);
-            logWriter = new BufferedWriter(new OutputStreamWriter(logSocket.getOutputStream()));
-            logReader = new BufferedReader(new InputStreamReader(logSocket.getInputStream()));
-
-            // 경고 메시지 수신 스레드
-            new Thread(() -> {
-                String line;
-                try {
-                    while ((line = logReader.readLine()) != null) {
-                        String msg = line.trim();
-                        if (!msg.isEmpty()) {
-                            Platform.runLater(() -> showAlert("서버 경고", msg));
-                        }
-                    }
-                } catch (IOException e) {
-                    System.err.println("서버 경고 수신 실패: " + e.getMessage());
-                }
-            }).start();
-
-        } catch (IOException e) {
-            System.err.println("TCP 연결 실패: " + e.getMessage());
-        }
+        // 서버로 로그 전송 시작 (연결은 전송 스레드에서 시도, 서버가 꺼져 있으면 대기 버퍼에 보관 후 재연결 시 전송)
+        // 이진 프로토콜 우선, 서버가 지원하지 않으면 텍스트 줄 방식
+        serverStatusLabel = new Label("서버: 연결 대기");
+        boolean preferBinary = !"text".equalsIgnoreCase(System.getProperty("vending.log.protocol"));
+        logShipper = new SalesLogShipper(LOG_SERVER_HOST, LOG_SERVER_PORT, clientId, preferBinary, LOG_BUFFER_BYTES, 4,
+                msg -> Platform.runLater(() -> showAlert("서버 경고", msg)), // 경고 메시지 수신
+                (state, detail) -> Platform.runLater(() -> updateServerStatus(state, detail)));
+        SalesLogger.setLogShipper(logShipper);
 
         // GUI 구성 시작
         primaryStage.setTitle("자판기 관리 프로그램 - " + clientId);
@@ -151,7 +150,7 @@ public class MainFrame extends Application {
             coinBtn.setOnAction(e -> {
                 insertMoney(coin);
                 moneyManager.addCoinToStock(coin);
-                updateDrinkButtons();
+                updateAffordability();
             });
             moneyBox.getChildren().add(coinBtn);
         }
@@ -160,7 +159,7 @@ public class MainFrame extends Application {
         Button returnBtn = new Button("잔액 반환");
         returnBtn.setOnAction(e -> {
             returnMoney();
-            updateDrinkButtons();
+            updateAffordability();
         });
 
         Button adminBtn = new Button("관리자 메뉴");
@@ -180,7 +179,7 @@ public class MainFrame extends Application {
         // 하단 잔액 표시
         balanceLabel = new Label("현재 금액: 0원");
         balanceLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
-        HBox bottomBox = new HBox(balanceLabel);
+        HBox bottomBox = new HBox(20, serverStatusLabel, balanceLabel);
         bottomBox.setAlignment(Pos.BOTTOM_RIGHT);
         bottomBox.setPadding(new Insets(10));
 
@@ -192,18 +191,20 @@ public class MainFrame extends Application {
         primaryStage.setScene(scene);
         primaryStage.setOnCloseRequest(event -> {
             DrinkInventoryDAO.saveInventoryToDB(inventory);
-            try {
-                if (logReader != null) logReader.close();
-                if (logWriter != null) logWriter.close();
-                if (logSocket != null) logSocket.close();
-            } catch (IOException e) {
-                System.err.println("로그 종료 실패: " + e.getMessage());
-            }
+            SalesLogger.shutdown();
+            DBManager.shutdown();
+            if (logShipper != null) logShipper.close();
         });
         primaryStage.show();
 
         updateDrinkButtons();
 
+        // 관리자 수정(관리자 메뉴, WebSocket) 후 해당 버튼과 구매 가능 표시 갱신 (수정한 스레드와 관계없이 UI 스레드에서 처리)
+        inventory.setChangeListener(id -> Platform.runLater(() -> {
+            if (id < drinkButtons.length) refreshDrinkButton(id);
+            updateAffordability();
+        }));
+
         // WebSocket 클라이언트 연결 시도
         try {
             URI uri = new URI("ws://localhost:3001");
@@ -229,12 +230,15 @@ public class MainFrame extends Application {
 
     // 잔액 반환 처리
     private void returnMoney() {
-        var change = moneyManager.returnChange();
-        if (change != null && !change.isEmpty()) {
-            StringBuilder sb = new StringBuilder("반환된 거스름돈:\n");
-            for (var entry : change.entrySet()) {
-                sb.append(entry.getKey()).append("원 x ").append(entry.getValue()).append("\n");
-            }
+        int[] change = moneyManager.returnChange(); // 슬롯별 개수
+        StringBuilder sb = new StringBuilder("반환된 거스름돈:\n");
+        boolean returned = false;
+        for (int i = 0; change != null && i < change.length; i++) {
+            if (change[i] == 0) continue;
+            sb.append(moneyManager.denominationAt(i)).append("원 x ").append(change[i]).append("\n");
+            returned = true;
+        }
+        if (returned) {
             showAlert("잔액 반환", sb.toString());
         } else {
             showAlert("반환 없음", "반환할 잔액이 없습니다.");
@@ -246,18 +250,20 @@ public class MainFrame extends Application {
     private void handlePurchase(int index) {
         Drink drink = inventory.getDrink(index);
 
-        if (drink.isSoldOut()) {
+        // 재고 예약 (동시에 보충/판매가 일어나도 초과 판매되지 않음)
+        if (!inventory.reserve(index, 1)) {
             showAlert("품절", "해당 음료는 품절입니다.");
             return;
         }
 
         int price = drink.getPrice();
         if (moneyManager.getBalance() < price) {
+            inventory.release(index, 1); // 예약 취소
             showAlert("잔액 부족", "금액이 부족합니다.");
         } else {
             moneyManager.spendMoney(price);
-            drink.reduceStock();
-            purchaseHistory.add(drink.getName());
+            inventory.commit(index, 1); // 판매 확정
+            purchaseHistory.add(drink.getId());
 
             try {
                 SalesLogger.logSale(clientId, drink.getName(), price, 1);
@@ -267,7 +273,8 @@ public class MainFrame extends Application {
 
             Platform.runLater(() -> {
                 updateBalanceLabel();
-                updateDrinkButtons();
+                refreshDrinkButton(index);
+                updateAffordability();
             });
 
             showAlert("구매 완료", drink.getName() + " 구매 완료!");
@@ -279,19 +286,67 @@ public class MainFrame extends Application {
         balanceLabel.setText("현재 금액: " + moneyManager.getBalance() + "원");
     }
 
-    // 버튼 상태 및 색상 업데이트
+    // 로그 서버 연결 상태 표시 (끊긴 동안에는 보관 중인 매출 건수도 표시)
+    private void updateServerStatus(SalesLogShipper.State state, String detail) {
+        switch (state) {
+            case CONNECTING:
+                serverStatusLabel.setText("서버: 연결 중 " + detail);
+                serverStatusLabel.setStyle("-fx-text-fill: #996600;");
+                break;
+            case CONNECTED:
+                serverStatusLabel.setText("서버: 연결됨 " + detail);
+                serverStatusLabel.setStyle("-fx-text-fill: green;");
+                break;
+            case DISCONNECTED:
+                serverStatusLabel.setText("서버: 끊김 - " + detail + " (대기 " + logShipper.getPendingCount() + "건)");
+                serverStatusLabel.setStyle("-fx-text-fill: red;");
+                break;
+            default:
+                serverStatusLabel.setText("서버: 종료됨");
+                serverStatusLabel.setStyle("");
+        }
+    }
+
+    // 버튼 상태 및 색상 전체 업데이트 (초기 표시용)
     private void updateDrinkButtons() {
+        affordableSlots.clear();
+        inventory.forEachAffordable(moneyManager.getBalance(), id -> {
+            if (id < drinkButtons.length) affordableSlots.set(id);
+        });
         for (int i = 0; i < drinkButtons.length; i++) {
-            Drink drink = inventory.getDrink(i);
-            Button btn = drinkButtons[i];
-            btn.setText(getButtonText(drink));
-            boolean canBuy = !drink.isSoldOut() && drink.getPrice() <= moneyManager.getBalance();
-            btn.setDisable(drink.isSoldOut());
-            btn.setStyle(canBuy ? "-fx-background-color: lightgreen; -fx-font-weight: bold;"
-                    : "-fx-background-color: lightcoral; -fx-font-weight: bold;");
+            refreshDrinkButton(i);
+            paintAffordability(i, affordableSlots.get(i));
+        }
+    }
+
+    // 잔액/재고 변화 후 구매 가능 여부가 바뀐 버튼만 색상 갱신
+    private void updateAffordability() {
+        changedSlots.clear();
+        inventory.forEachAffordable(moneyManager.getBalance(), id -> {
+            if (id < drinkButtons.length) changedSlots.set(id);
+        });
+        changedSlots.xor(affordableSlots); // 이전 표시 상태와 달라진 슬롯만 남김
+        for (int i = changedSlots.nextSetBit(0); i >= 0; i = changedSlots.nextSetBit(i + 1)) {
+            boolean canBuy = !affordableSlots.get(i);
+            affordableSlots.set(i, canBuy);
+            paintAffordability(i, canBuy);
         }
     }
 
+    // 버튼 텍스트 및 품절 여부 갱신
+    private void refreshDrinkButton(int index) {
+        Drink drink = inventory.getDrink(index);
+        Button btn = drinkButtons[index];
+        btn.setText(getButtonText(drink));
+        btn.setDisable(drink.isSoldOut());
+    }
+
+    // 구매 가능 여부에 따른 버튼 색상 적용
+    private void paintAffordability(int index, boolean canBuy) {
+        drinkButtons[index].setStyle(canBuy ? "-fx-background-color: lightgreen; -fx-font-weight: bold;"
+                : "-fx-background-color: lightcoral; -fx-font-weight: bold;");
+    }
+
     // 팝업 알림 표시
     private void showAlert(String title, String msg) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -0,0 +1,215 @@
+// Gui/ServerLogView.java
+package Gui;
+
+import javafx.animation.AnimationTimer;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 서버 로그 화면 (여러 연결에서 초당 수만 줄이 들어와도 FX 스레드가 밀리지 않도록)
+ * - append()는 어느 스레드에서나 호출 가능, 고정 크기 링 버퍼에 넣고 바로 반환 (가득 차면 가장 오래된 줄을 버림)
+ * - AnimationTimer가 화면 갱신(pulse)마다 링 버퍼를 한 번에 비워 ListView에 일괄 추가
+ * - 최근 MAX_LINES줄만 보관/표시 (ListView는 보이는 줄만 그리므로 줄 수가 많아도 가벼움)
+ * - 클라이언트/수준 필터를 바꾸면 보관 중인 줄에서 다시 골라 표시
+ * - 클라이언트 필터 목록에는 보관 중인 줄에 남아 있는 클라이언트만 둠 (줄이 모두 밀려나면 목록에서도 제거)
+ */
+public class ServerLogView extends VBox {
+
+    /**
+     * 로그 수준
+     */
+    public enum Level { INFO, WARN, ERROR }
+
+    private static final int RING_CAPACITY = 1 << 16; // 화면 반영 전 대기 최대 줄 수
+    private static final int MAX_LINES = 5000;        // 보관/표시 최대 줄 수
+    private static final String ALL = "전체";
+    private static final String SERVER = "서버";       // 특정 클라이언트와 무관한 로그
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    // 로그 한 줄
+    private static final class Entry {
+        final LocalTime time;
+        final Level level;
+        final String client;
+        final String message;
+        String text; // 표시 문자열 (FX 스레드에서 처음 표시할 때 생성)
+
+        Entry(Level level, String client, String message) {
+            this.time = LocalTime.now();
+            this.level = level;
+            this.client = client;
+            this.message = message;
+        }
+
+        String text() {
+            if (text == null) text = TIME.format(time) + " [" + client + "] " + message;
+            return text;
+        }
+    }
+
+    // 링 버퍼 (ring으로 보호, 여러 스레드가 쓰고 FX 스레드만 비움)
+    private final Entry[] ring = new Entry[RING_CAPACITY];
+    private int head = 0;
+    private int count = 0;
+    private long dropped = 0;
+
+    // FX 스레드 전용
+    private final List<Entry> batch = new ArrayList<>();
+    private final List<String> visibleBatch = new ArrayList<>();
+    private final ArrayDeque<Entry> history = new ArrayDeque<>(MAX_LINES); // 보관 중인 줄 (필터 변경 시 다시 표시)
+    private final Map<String, Integer> clientLines = new HashMap<>(); // 클라이언트별 보관 중인 줄 수 (필터 목록)
+    private final ListView<String> listView = new ListView<>();
+    private final ComboBox<String> clientFilter = new ComboBox<>();
+    private final ComboBox<String> levelFilter = new ComboBox<>();
+    private final CheckBox autoScroll = new CheckBox("자동 스크롤");
+    private final Label droppedLabel = new Label();
+    private long shownDropped = 0;
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+
+    public ServerLogView() {
+        clientFilter.getItems().add(ALL);
+        clientFilter.getItems().add(SERVER);
+        clientFilter.setValue(ALL);
+        clientFilter.setOnAction(e -> refilter());
+
+        levelFilter.getItems().add(ALL);
+        levelFilter.getItems().add(Level.WARN.name());
+        levelFilter.getItems().add(Level.ERROR.name());
+        levelFilter.setValue(ALL);
+        levelFilter.setOnAction(e -> refilter());
+
+        autoScroll.setSelected(true);
+
+        HBox filterBar = new HBox(10, new Label("클라이언트"), clientFilter, new Label("수준"), levelFilter,
+                autoScroll, droppedLabel);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        filterBar.setPadding(new Insets(5));
+
+        getChildren().add(filterBar);
+        getChildren().add(listView);
+        VBox.setVgrow(listView, Priority.ALWAYS);
+        pulse.start();
+    }
+
+    /**
+     * 로그 한 줄 추가 (어느 스레드에서나 호출 가능, 화면에는 다음 pulse에 반영)
+     * @param client 클라이언트 (null이면 서버 자체 로그)
+     */
+    public void append(Level level, String client, String message) {
+        Entry entry = new Entry(level, client == null ? SERVER : client, message);
+        synchronized (ring) {
+            if (count == RING_CAPACITY) {
+                // 화면 반영이 밀림 - 가장 오래된 줄을 버림
+                ring[head] = null;
+                head = (head + 1) & (RING_CAPACITY - 1);
+                count--;
+                dropped++;
+            }
+            ring[(head + count) & (RING_CAPACITY - 1)] = entry;
+            count++;
+        }
+    }
+
+    /**
+     * 화면 갱신 중지 (창을 닫을 때)
+     */
+    public void stop() {
+        pulse.stop();
+    }
+
+    // 링 버퍼를 비워 화면에 일괄 반영 (pulse마다 FX 스레드에서 한 번)
+    private void drain() {
+        long droppedNow;
+        synchronized (ring) {
+            for (int i = 0; i < count; i++) {
+                int index = (head + i) & (RING_CAPACITY - 1);
+                batch.add(ring[index]);
+                ring[index] = null;
+            }
+            head = 0;
+            count = 0;
+            droppedNow = dropped;
+        }
+
+        if (!batch.isEmpty()) {
+            // 한 번에 MAX_LINES줄보다 많이 들어오면 앞부분은 어차피 밀려나므로 건너뜀
+            for (int i = Math.max(0, batch.size() - MAX_LINES); i < batch.size(); i++) {
+                Entry entry = batch.get(i);
+                if (history.size() == MAX_LINES) forget(history.pollFirst());
+                history.addLast(entry);
+                if (clientLines.merge(entry.client, 1, Integer::sum) == 1 && !SERVER.equals(entry.client)
+                        && !clientFilter.getItems().contains(entry.client)) {
+                    clientFilter.getItems().add(entry.client);
+                }
+                if (matches(entry)) visibleBatch.add(entry.text());
+            }
+            batch.clear();
+            show(visibleBatch);
+            visibleBatch.clear();
+        }
+
+        if (droppedNow != shownDropped) {
+            shownDropped = droppedNow;
+            droppedLabel.setText("버린 줄: " + droppedNow);
+        }
+    }
+
+    // 보관에서 밀려난 줄의 클라이언트 줄 수를 줄이고, 남은 줄이 없으면 필터 목록에서 제거 (선택 중인 항목은 유지)
+    private void forget(Entry entry) {
+        Integer left = clientLines.merge(entry.client, -1, Integer::sum);
+        if (left != null && left > 0) return;
+        clientLines.remove(entry.client);
+        if (!SERVER.equals(entry.client) && !entry.client.equals(clientFilter.getValue())) {
+            clientFilter.getItems().remove(entry.client);
+        }
+    }
+
+    // 표시 목록 끝에 추가하고 MAX_LINES를 넘는 앞부분 제거
+    private void show(List<String> lines) {
+        if (lines.isEmpty()) return;
+        ObservableList<String> items = listView.getItems();
+        items.addAll(lines);
+        int excess = items.size() - MAX_LINES;
+        if (excess > 0) items.remove(0, excess);
+        if (autoScroll.isSelected()) listView.scrollTo(items.size() - 1);
+    }
+
+    // 필터가 바뀌면 보관 중인 줄에서 다시 골라 표시
+    private void refilter() {
+        List<String> lines = new ArrayList<>(history.size());
+        for (Entry entry : history) {
+            if (matches(entry)) lines.add(entry.text());
+        }
+        listView.getItems().setAll(lines);
+        if (autoScroll.isSelected() && !lines.isEmpty()) listView.scrollTo(lines.size() - 1);
+    }
+
+    private boolean matches(Entry entry) {
+        String client = clientFilter.getValue();
+        if (client != null && !ALL.equals(client) && !client.equals(entry.client)) return false;
+        String level = levelFilter.getValue();
+        return level == null || ALL.equals(level) || entry.level.compareTo(Level.valueOf(level)) >= 0;
+    }
+}
@@ -4,149 +4,551 @@ package Gui;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Scene;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import network.FrameCodec;
+import network.LogCompression;
+import network.LogIngestServer;
+import network.SalesProtocol;
+import service.StockTracker;
 
 import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 /**
  * 자판기 매출 수신 및 경고 전송을 위한 GUI 기반 TCP 서버 클래스
+ * - thread 모드: 연결마다 스레드 하나 (JDK 21 이상이면 가상 스레드, 아니면 데몬 플랫폼 스레드)
+ * - nio 모드: LogIngestServer(Selector)로 적은 스레드에서 모든 연결 처리
+ * - 최대 연결 수, 유휴 연결 종료 시간, 종료 대기 시간은 시스템 프로퍼티로 설정
+ * - 첫 줄이 "#VMB/버전"이면 이진 프레임(SalesProtocol), 아니면 기존 Base64 텍스트 줄로 처리
+ * - 이진 v2 연결은 자판기별 시퀀스로 재전송 중복을 버리고 BATCH마다 누적 ACK 응답
+ * - 자판기가 협상 줄에 압축(deflate)을 제안하면 수락하고 이후 수신 데이터를 풀어서 처리 (LogCompression)
+ * - 로그는 ServerLogView 링 버퍼에 넣고 화면 갱신(pulse)마다 일괄 표시 (클라이언트/수준 필터)
  */
 public class SocketServerGUI extends Application {
 
-    private TextArea logArea; // 로그 출력용 텍스트 영역
-    private final int PORT = 12345; // 수신 포트 번호
-    private final Map<String, Integer> stockMap = new HashMap<>(); // 음료별 재고 관리용 Map
+    // 서버 설정 (시스템 프로퍼티로 변경 가능)
+    private static final int PORT = Integer.getInteger("vending.server.port", 12345);              // 수신 포트 번호
+    private static final String MODE = System.getProperty("vending.server.mode", "thread");        // thread | nio
+    private static final int MAX_CONNECTIONS = Integer.getInteger("vending.server.maxConnections", 1000);
+    private static final int IDLE_TIMEOUT_MS = Integer.getInteger("vending.server.idleTimeoutMs", 300_000);
+    private static final long SHUTDOWN_TIMEOUT_MS = Long.getLong("vending.server.shutdownTimeoutMs", 3000);
+    private static final int MAX_LINE_BYTES = 8192;
+
+    private ServerLogView logView; // 로그 출력 (pulse마다 일괄 반영, 클라이언트/수준 필터)
+    private Label statusLabel;   // 연결 현황 표시
+
+    private final StockTracker stockTracker = new StockTracker(10, 3); // 음료별 재고 관리 (초기 10개, 3개 이하 경고)
+
+    // 자판기별 마지막으로 받은 시퀀스 (재연결해도 유지, 중복 제거용)
+    private final ConcurrentHashMap<String, AtomicLong> lastSeqs = new ConcurrentHashMap<>();
+    private final LongAdder duplicateRecords = new LongAdder();
+    private final LongAdder compressedConnections = new LongAdder();
+
+    // thread 모드 상태
+    private ServerSocket serverSocket;
+    private ExecutorService clientExecutor;
+    private volatile boolean virtualThreads = false; // newConnectionExecutor가 가상 스레드 실행기를 만들었는지
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder totalConnections = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final LongAdder idleClosedConnections = new LongAdder();
+
+    // nio 모드 상태
+    private LogIngestServer nioServer;
+
+    private ScheduledExecutorService statusUpdater;
+    private volatile boolean running = false;
 
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("📡 자판기 서버 GUI");
 
         // 로그 출력창 구성
-        logArea = new TextArea();
-        logArea.setEditable(false);
-        logArea.setPrefHeight(500);
+        logView = new ServerLogView();
+        logView.setPrefHeight(500);
 
-        VBox root = new VBox(logArea);
+        statusLabel = new Label("연결 현황: -");
+
+        VBox root = new VBox(statusLabel, logView);
+        VBox.setVgrow(logView, Priority.ALWAYS);
         Scene scene = new Scene(root, 600, 500);
         primaryStage.setScene(scene);
+        primaryStage.setOnCloseRequest(e -> stopServer());
         primaryStage.show();
 
         // 서버 시작 스레드 실행
-        new Thread(this::startServer).start();
+        running = true;
+        if ("nio".equalsIgnoreCase(MODE)) {
+            startNioServer();
+        } else {
+            Thread acceptor = new Thread(this::startServer, "socket-server-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        // 연결 현황은 1초마다 한 번만 화면에 반영
+        statusUpdater = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "socket-server-status");
+            t.setDaemon(true);
+            return t;
+        });
+        statusUpdater.scheduleAtFixedRate(() -> {
+            String status = getStatusText();
+            Platform.runLater(() -> statusLabel.setText(status));
+        }, 0, 1, TimeUnit.SECONDS);
     }
 
     /**
-     * TCP 서버 소켓 실행 및 클라이언트 수신 루프
+     * TCP 서버 소켓 실행 및 클라이언트 수신 루프 (thread 모드)
      */
     private void startServer() {
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
-            log("📡 서버 시작됨! 포트: " + PORT);
+        clientExecutor = newConnectionExecutor();
+        try (ServerSocket server = new ServerSocket(PORT)) {
+            serverSocket = server;
+            log("📡 서버 시작됨! 포트: " + PORT + " (" + describeExecutor() + ")");
+
+            while (running) {
+                Socket clientSocket = server.accept();
 
-            while (true) {
-                Socket clientSocket = serverSocket.accept();
-                log("🔗 클라이언트 연결됨: " + clientSocket.getInetAddress());
+                // 최대 연결 수 초과 시 바로 종료
+                if (activeConnections.incrementAndGet() > MAX_CONNECTIONS) {
+                    activeConnections.decrementAndGet();
+                    rejectedConnections.increment();
+                    clientSocket.close();
+                    log(ServerLogView.Level.WARN, describe(clientSocket), "⛔ 최대 연결 수 초과로 거부됨: " + clientSocket.getInetAddress());
+                    continue;
+                }
+                totalConnections.increment();
+                log(ServerLogView.Level.INFO, describe(clientSocket), "🔗 클라이언트 연결됨: " + clientSocket.getInetAddress());
 
-                // 클라이언트별 독립 처리 스레드 생성
-                new Thread(() -> handleClient(clientSocket)).start();
+                // 클라이언트별 독립 처리
+                clientExecutor.execute(() -> handleClient(clientSocket));
             }
 
         } catch (Exception e) {
-            log("❌ 서버 오류 발생: " + e.getMessage());
+            if (running) log(ServerLogView.Level.ERROR, null, "❌ 서버 오류 발생: " + e.getMessage());
+        }
+    }
+
+    // JDK 21 이상이면 연결마다 가상 스레드, 그 외에는 데몬 플랫폼 스레드
+    private ExecutorService newConnectionExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            virtualThreads = false;
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "socket-client");
+                t.setDaemon(true);
+                return t;
+            });
         }
     }
 
+    // 로그에 표시할 연결 이름 (자판기 ID를 알기 전까지는 원격 호스트, 연결마다 바뀌는 포트는 빼서 필터 목록이 늘지 않게 함)
+    private static String describe(Socket socket) {
+        return socket.getInetAddress().getHostAddress();
+    }
+
+    private String describeExecutor() {
+        return virtualThreads ? "가상 스레드" : "플랫폼 스레드";
+    }
+
     /**
-     * 클라이언트 연결 처리 로직
+     * 클라이언트 연결 처리 로직 (thread 모드)
      */
     private void handleClient(Socket clientSocket) {
-        BufferedReader in = null;
-        BufferedWriter out = null;
+        clients.add(clientSocket);
+        String client = describe(clientSocket);
 
         try {
-            in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            out = new BufferedWriter(new OutputStreamWriter(clientSocket.getOutputStream()));
+            clientSocket.setSoTimeout(IDLE_TIMEOUT_MS); // 유휴 연결 종료
+            InputStream in = clientSocket.getInputStream();
+            OutputStream out = clientSocket.getOutputStream();
 
-            while (true) {
-                String line;
+            // 첫 줄로 프로토콜 결정 (버전 협상 줄이면 이진, 아니면 텍스트 로그 한 줄)
+            String first = SalesProtocol.readLine(in, MAX_LINE_BYTES);
+            if (first == null) {
+                log(ServerLogView.Level.INFO, client, "🚪 클라이언트 연결 종료 감지됨");
+            } else if (SalesProtocol.parseHello(first) > 0) {
+                int version = Math.min(SalesProtocol.parseHello(first), SalesProtocol.VERSION);
+                BinarySession binary = new BinarySession(first, client, frame -> {
+                    out.write(frame.array(), 0, frame.position());
+                    out.flush();
+                });
+                out.write((binary.helloReply(version) + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                client = binary.client;
+                log(ServerLogView.Level.INFO, client, "🔀 이진 프로토콜 v" + version + binary.describeCompression() + ": " + clientSocket.getInetAddress());
+
+                Inflater inflater = binary.newInflater();
                 try {
-                    line = in.readLine();
-                    if (line == null) {
-                        log("🚪 클라이언트 연결 종료 감지됨");
-                        break;
-                    }
-
-                    // Base64 디코딩 처리
-                    String decoded;
-                    try {
-                        decoded = new String(Base64.getDecoder().decode(line));
-                    } catch (IllegalArgumentException decodeEx) {
-                        log("❌ Base64 디코딩 실패: " + decodeEx.getMessage());
-                        continue;
-                    }
-
-                    log("📥 수신된 매출 로그: " + decoded);
-
-                    // 로그 포맷: 날짜,음료명,가격,수량
-                    String[] parts = decoded.split(",");
-                    if (parts.length == 4) {
-                        String drinkName = parts[1];
-                        int qty = Integer.parseInt(parts[3]);
-
-                        // 재고 감소 처리
-                        int newStock = stockMap.getOrDefault(drinkName, 10) - qty;
-                        stockMap.put(drinkName, newStock);
-
-                        // 재고 부족 시 경고 메시지 전송
-                        if (newStock <= 3) {
-                            String msg = "⚠️ " + drinkName + " 재고 부족!";
-                            try {
-                                out.write(msg);
-                                out.newLine();
-                                out.flush();
-                                log("📤 경고 전송됨: " + msg);
-                            } catch (IOException sendEx) {
-                                log("❌ 경고 전송 실패: " + sendEx.getMessage());
-                                break; // 전송 실패 시 루프 종료
-                            }
-                        }
-                    }
-
-                } catch (IOException readEx) {
-                    log("❌ 수신 중 오류: " + readEx.getMessage());
-                    break;
+                    readBinary(inflater == null ? in : new InflaterInputStream(in, inflater, 8192), binary);
+                } finally {
+                    if (inflater != null) inflater.end();
                 }
+            } else {
+                readText(client, first, new BufferedReader(new InputStreamReader(in)),
+                        new BufferedWriter(new OutputStreamWriter(out)));
             }
 
+        } catch (SocketTimeoutException idleEx) {
+            idleClosedConnections.increment();
+            log(ServerLogView.Level.WARN, client, "⏱ 유휴 연결 종료: " + clientSocket.getInetAddress());
+        } catch (EOFException eof) {
+            log(ServerLogView.Level.INFO, client, "🚪 클라이언트 연결 종료 감지됨"); // 압축 스트림 중간에 끊김
         } catch (IOException e) {
-            log("❌ 클라이언트 처리 중 오류: " + e.getMessage());
+            if (running) log(ServerLogView.Level.ERROR, client, "❌ 클라이언트 처리 중 오류: " + e.getMessage());
 
         } finally {
             // 자원 정리 및 연결 종료 로그 출력
+            clients.remove(clientSocket);
+            activeConnections.decrementAndGet();
             try {
-                if (in != null) in.close();
-                if (out != null) out.close();
-                if (clientSocket != null && !clientSocket.isClosed()) {
+                if (!clientSocket.isClosed()) {
                     clientSocket.close();
                 }
-                log("🚪 클라이언트 연결 정상 종료됨");
+                log(ServerLogView.Level.INFO, client, "🚪 클라이언트 연결 정상 종료됨");
             } catch (IOException ex) {
-                log("❌ 소켓 종료 오류: " + ex.getMessage());
+                log(ServerLogView.Level.ERROR, client, "❌ 소켓 종료 오류: " + ex.getMessage());
+            }
+        }
+    }
+
+    // 텍스트 줄 수신 루프 (Base64 로그 한 줄씩, 경고는 한 줄로 응답)
+    private void readText(String client, String line, BufferedReader in, BufferedWriter out) throws IOException {
+        while (running && line != null) {
+            String warning = handleLogLine(client, line);
+
+            // 재고 부족 시 경고 메시지 전송
+            if (warning != null) {
+                out.write(warning);
+                out.newLine();
+                out.flush();
+                log(ServerLogView.Level.WARN, client, "📤 경고 전송됨: " + warning);
+            }
+            line = in.readLine();
+        }
+        if (line == null) log(ServerLogView.Level.INFO, client, "🚪 클라이언트 연결 종료 감지됨");
+    }
+
+    // 이진 프레임 수신 루프 (연결마다 재사용 버퍼 하나씩)
+    private void readBinary(InputStream in, BinarySession binary) throws IOException {
+        FrameCodec codec = new FrameCodec(SalesProtocol.MAX_FRAME_BYTES);
+        ByteBuffer inBuffer = ByteBuffer.allocate(codec.getMaxFrameBytes());
+
+        while (running) {
+            if (!codec.readFrames(in, inBuffer, body -> binary.decoder.decode(body, binary))) {
+                log(ServerLogView.Level.INFO, binary.client, "🚪 클라이언트 연결 종료 감지됨");
+                return;
+            }
+            if (binary.sendError != null) {
+                log(ServerLogView.Level.ERROR, binary.client, "❌ 응답 전송 실패: " + binary.sendError.getMessage());
+                return; // 전송 실패 시 루프 종료
+            }
+        }
+    }
+
+    /**
+     * LogIngestServer 기반 서버 시작 (nio 모드)
+     */
+    private void startNioServer() {
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        nioServer = new LogIngestServer(PORT, workers, MAX_LINE_BYTES, new LogIngestServer.Handler() {
+            @Override
+            public void onOpen(LogIngestServer.Session session) {
+                log(ServerLogView.Level.INFO, describe(session), "🔗 클라이언트 연결됨: " + session.getRemoteAddress());
+            }
+
+            @Override
+            public void onLine(LogIngestServer.Session session, ByteBuffer line) {
+                // 첫 줄이 버전 협상 줄이면 이후는 이진 프레임
+                String hello = session.getAttachment() == null ? SalesProtocol.helloLine(line) : null;
+                if (hello != null) {
+                    int version = Math.min(SalesProtocol.parseHello(hello), SalesProtocol.VERSION);
+                    BinarySession binary = new BinarySession(hello, describe(session),
+                            frame -> session.send(Arrays.copyOf(frame.array(), frame.position())));
+                    session.send((binary.helloReply(version) + "\n").getBytes(StandardCharsets.UTF_8));
+                    session.setAttachment(binary);
+                    session.switchToFrames(binary.newInflater());
+                    log(ServerLogView.Level.INFO, binary.client, "🔀 이진 프로토콜 v" + version + binary.describeCompression() + ": " + session.getRemoteAddress());
+                    return;
+                }
+                session.setAttachment(Boolean.TRUE); // 텍스트 연결
+
+                byte[] bytes = new byte[line.remaining()];
+                line.get(bytes);
+                String warning = handleLogLine(describe(session), new String(bytes, StandardCharsets.US_ASCII));
+                if (warning != null) {
+                    session.send((warning + "\n").getBytes(StandardCharsets.UTF_8));
+                    log(ServerLogView.Level.WARN, describe(session), "📤 경고 전송됨: " + warning);
+                }
+            }
+
+            @Override
+            public void onFrame(LogIngestServer.Session session, ByteBuffer body) {
+                BinarySession binary = (BinarySession) session.getAttachment();
+                try {
+                    binary.decoder.decode(body, binary);
+                } catch (ProtocolException e) {
+                    log(ServerLogView.Level.ERROR, binary.client, "❌ 잘못된 메시지, 연결 종료: " + e.getMessage());
+                    session.close();
+                }
+            }
+
+            @Override
+            public void onClose(LogIngestServer.Session session) {
+                Object attachment = session.getAttachment();
+                String client = attachment instanceof BinarySession ? ((BinarySession) attachment).client : describe(session);
+                log(ServerLogView.Level.INFO, client, "🚪 클라이언트 연결 종료됨: " + session.getRemoteAddress());
+            }
+        });
+        nioServer.setMaxConnections(MAX_CONNECTIONS);
+        nioServer.setIdleTimeoutMs(IDLE_TIMEOUT_MS);
+        try {
+            nioServer.start();
+            log("📡 서버 시작됨! 포트: " + PORT + " (NIO)");
+        } catch (IOException e) {
+            log(ServerLogView.Level.ERROR, null, "❌ 서버 오류 발생: " + e.getMessage());
+        }
+    }
+
+    private static String describe(LogIngestServer.Session session) {
+        SocketAddress remote = session.getRemoteAddress();
+        if (remote instanceof InetSocketAddress) return ((InetSocketAddress) remote).getAddress().getHostAddress();
+        return String.valueOf(remote);
+    }
+
+    // 응답 프레임 전송 (frame의 0~position이 프레임)
+    private interface FrameSender {
+        void send(ByteBuffer frame) throws IOException;
+    }
+
+    // 이진 연결 하나의 상태 (음료 id 표, 자판기 시퀀스, 응답 버퍼, 압축 여부) - thread/nio 모드 공용
+    private final class BinarySession implements SalesProtocol.Listener {
+        final SalesProtocol.Decoder decoder = new SalesProtocol.Decoder();
+        final SalesProtocol.Encoder encoder = new SalesProtocol.Encoder();
+        final ByteBuffer reply = ByteBuffer.allocate(SalesProtocol.MAX_FRAME_BYTES + FrameCodec.MAX_HEADER_BYTES + FrameCodec.CRC_BYTES);
+        final AtomicLong lastSeq;   // 이 자판기에서 받은 마지막 시퀀스
+        final String compression;   // 수락한 압축 옵션 (압축하지 않으면 null)
+        final String client;        // 로그 표시용 이름 (자판기 ID, 없으면 원격 호스트)
+        final FrameSender sender;
+        IOException sendError;
+
+        BinarySession(String hello, String remote, FrameSender sender) {
+            String clientId = SalesProtocol.helloArgument(hello);
+            this.lastSeq = lastSeqs.computeIfAbsent(clientId, k -> new AtomicLong());
+            this.client = clientId.isEmpty() ? remote : clientId;
+            this.compression = LogCompression.accept(SalesProtocol.helloOptions(hello));
+            this.sender = sender;
+            if (compression != null) compressedConnections.increment();
+        }
+
+        // 협상 응답 (v2부터 마지막 수신 시퀀스를 알려 자판기가 그 다음부터 보내게 함, 압축 수락 시 옵션을 돌려줌)
+        String helloReply(int version) {
+            return SalesProtocol.hello(version,
+                    version >= SalesProtocol.MIN_ACK_VERSION ? String.valueOf(lastSeq.get()) : null, compression);
+        }
+
+        // 수신 데이터 해제기 (압축하지 않으면 null, 다 쓰면 end() 호출)
+        Inflater newInflater() {
+            if (compression == null) return null;
+            return LogCompression.newInflater(compression.contains(LogCompression.DICTIONARY_OPTION));
+        }
+
+        String describeCompression() {
+            return compression == null ? "" : " (" + compression + ")";
+        }
+
+        @Override
+        public void onSale(int epochDay, String drinkName, int price, int quantity) {
+            String warning = handleSale(client, epochDay, drinkName, price, quantity);
+            if (warning != null) {
+                reply.clear();
+                encoder.warning(reply, warning);
+                send();
+                log(ServerLogView.Level.WARN, client, "📤 경고 전송됨: " + warning);
+            }
+        }
+
+        @Override
+        public void onSale(long seq, int epochDay, String drinkName, int price, int quantity) {
+            // 이미 받은 시퀀스는 재전송 중복이므로 버림 (같은 자판기의 연결이 겹쳐도 한 번만 처리)
+            long prev;
+            do {
+                prev = lastSeq.get();
+                if (seq <= prev) {
+                    duplicateRecords.increment();
+                    return;
+                }
+            } while (!lastSeq.compareAndSet(prev, seq));
+            onSale(epochDay, drinkName, price, quantity);
+        }
+
+        @Override
+        public void onBatchEnd(long seq) {
+            reply.clear();
+            encoder.ack(reply, lastSeq.get()); // 누적 확인
+            send();
+        }
+
+        private void send() {
+            if (sendError != null) return;
+            try {
+                sender.send(reply);
+            } catch (IOException e) {
+                sendError = e;
+            }
+        }
+    }
+
+    /**
+     * 수신된 로그 한 줄 처리 (Base64 → "날짜,음료명,가격,수량")
+     * @return 보낼 경고 메시지 (없으면 null)
+     */
+    private String handleLogLine(String client, String line) {
+        // Base64 디코딩 처리
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(line), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException decodeEx) {
+            log(ServerLogView.Level.ERROR, client, "❌ Base64 디코딩 실패: " + decodeEx.getMessage());
+            return null;
+        }
+
+        log(ServerLogView.Level.INFO, client, "📥 수신된 매출 로그: " + decoded);
+
+        // 로그 포맷: 날짜,음료명,가격,수량
+        String[] parts = decoded.split(",");
+        if (parts.length != 4) return null;
+
+        String drinkName = parts[1];
+        int qty;
+        try {
+            qty = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            log(ServerLogView.Level.ERROR, client, "❌ 수량 형식 오류: " + parts[3]);
+            return null;
+        }
+        return recordSale(drinkName, qty);
+    }
+
+    /**
+     * 이진 프레임으로 받은 매출 한 건 처리
+     * @return 보낼 경고 메시지 (없으면 null)
+     */
+    private String handleSale(String client, int epochDay, String drinkName, int price, int quantity) {
+        log(ServerLogView.Level.INFO, client, "📥 수신된 매출 로그: " + LocalDate.ofEpochDay(epochDay) + "," + drinkName + "," + price + "," + quantity);
+        return recordSale(drinkName, quantity);
+    }
+
+    // 재고 감소 처리 (여러 연결에서 동시에 호출됨)
+    private String recordSale(String drinkName, int qty) {
+        long newStock = stockTracker.recordSale(drinkName, qty);
+        return stockTracker.isLow(newStock) ? "⚠️ " + drinkName + " 재고 부족!" : null;
+    }
+
+    /**
+     * 연결 현황 문자열
+     */
+    public String getStatusText() {
+        if (nioServer != null) {
+            return String.format("연결 현황 [NIO] 현재: %d / 최대: %d | 누적: %d | 거부: %d | 유휴 종료: %d | 중복: %d | 압축: %d",
+                    nioServer.getConnectionCount(), MAX_CONNECTIONS, nioServer.getAcceptedCount(),
+                    nioServer.getRejectedCount(), nioServer.getIdleClosedCount(), duplicateRecords.sum(),
+                    compressedConnections.sum());
+        }
+        return String.format("연결 현황 [스레드] 현재: %d / 최대: %d | 누적: %d | 거부: %d | 유휴 종료: %d | 중복: %d | 압축: %d",
+                getActiveConnectionCount(), MAX_CONNECTIONS, totalConnections.sum(),
+                rejectedConnections.sum(), idleClosedConnections.sum(), duplicateRecords.sum(),
+                compressedConnections.sum());
+    }
+
+    /**
+     * 현재 연결 수
+     */
+    public int getActiveConnectionCount() {
+        return nioServer != null ? nioServer.getConnectionCount() : Math.max(0, activeConnections.get());
+    }
+
+    /**
+     * 서버 종료 - 새 연결 수락 중단, 모든 연결 종료 후 처리 스레드가 끝날 때까지 대기
+     */
+    private void stopServer() {
+        if (!running) return;
+        running = false;
+        if (statusUpdater != null) statusUpdater.shutdownNow();
+        logView.stop();
+
+        if (nioServer != null) {
+            nioServer.close();
+            return;
+        }
+
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("서버 소켓 종료 실패: " + e.getMessage());
+        }
+        for (Socket s : clients) {
+            try {
+                s.close(); // 읽기 중인 처리 스레드를 깨움
+            } catch (IOException ignored) {
+                // 이미 닫힌 연결
+            }
+        }
+        if (clientExecutor != null) {
+            clientExecutor.shutdown();
+            try {
+                if (!clientExecutor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    clientExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                clientExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
         }
     }
 
     /**
-     * 로그 메시지 출력 (GUI 스레드에서 실행)
+     * 서버 로그 출력 (특정 클라이언트와 무관한 정보)
      */
     private void log(String message) {
-        Platform.runLater(() -> logArea.appendText(message + "\n"));
+        log(ServerLogView.Level.INFO, null, message);
+    }
+
+    /**
+     * 로그 메시지 출력 (어느 스레드에서나 호출 가능, 화면에는 다음 pulse에 일괄 반영)
+     * @param client 클라이언트 (null이면 서버 로그)
+     */
+    private void log(ServerLogView.Level level, String client, String message) {
+        logView.append(level, client, message);
     }
 
     public static void main(String[] args) {
@@ -1,41 +1,69 @@
-// Structure/DrinkBST.java
 package Structure;
 
 import model.Drink;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
 /**
- * 이진 탐색 트리(Binary Search Tree)를 이용한 음료 검색 구조
+ * AVL 트리(자가 균형 이진 탐색 트리)를 이용한 음료 검색 구조
  * - 음료 이름 기준 정렬 및 탐색
+ * - 삽입/검색/삭제 모두 반복문으로 처리하여 O(log n), 재귀 없음 (스택 오버플로 없음)
+ * - 부모 포인터를 이용해 추가 메모리 없이 중위 순회 (이름순 순회)
+ * - 이름 접두사/범위 검색 지원
+ * 음료 이름을 변경할 때는 delete 후 다시 insert 해야 정렬 순서가 유지된다.
  */
-public class DrinkBST {
+public class DrinkBST implements Iterable<Drink> {
 
     // 내부 노드 클래스
-    private class Node {
+    private static class Node {
         Drink drink;
-        Node left, right;
+        Node left, right, parent;
+        int height = 1;
 
-        Node(Drink drink) {
+        Node(Drink drink, Node parent) {
             this.drink = drink;
+            this.parent = parent;
         }
     }
 
     private Node root;  // 트리의 루트 노드
+    private int size;   // 저장된 음료 개수
 
     /**
-     * 음료 삽입 (이름 기준 이진탐색 삽입)
+     * 저장된 음료 개수 반환
      */
-    public void insert(Drink drink) {
-        root = insertRec(root, drink);
+    public int size() {
+        return size;
     }
 
-    // 재귀적으로 삽입 처리
-    private Node insertRec(Node root, Drink drink) {
-        if (root == null) return new Node(drink);
-        if (drink.getName().compareTo(root.drink.getName()) < 0)
-            root.left = insertRec(root.left, drink);
-        else
-            root.right = insertRec(root.right, drink);
-        return root;
+    /**
+     * 음료 삽입 (이름 기준 이진탐색 삽입 후 균형 복구)
+     */
+    public void insert(Drink drink) {
+        if (root == null) {
+            root = new Node(drink, null);
+            size++;
+            return;
+        }
+
+        Node cur = root, parent = null;
+        int cmp = 0;
+        while (cur != null) {
+            parent = cur;
+            cmp = drink.getName().compareTo(cur.drink.getName());
+            cur = cmp < 0 ? cur.left : cur.right; // 같은 이름은 오른쪽에 배치
+        }
+
+        Node node = new Node(drink, parent);
+        if (cmp < 0) parent.left = node;
+        else parent.right = node;
+        size++;
+
+        rebalanceFrom(parent);
     }
 
     /**
@@ -44,29 +72,206 @@ public class DrinkBST {
      * @return Drink 객체 반환 (없으면 null)
      */
     public Drink search(String name) {
-        return searchRec(root, name);
+        Node node = findNode(name);
+        return node == null ? null : node.drink;
+    }
+
+    /**
+     * 음료 이름으로 삭제
+     * @param name 삭제할 음료 이름
+     * @return 삭제된 Drink 객체 (없으면 null)
+     */
+    public Drink delete(String name) {
+        Node node = findNode(name);
+        if (node == null) return null;
+        Drink removed = node.drink;
+
+        // 자식이 둘이면 후속 노드의 음료를 옮겨오고 후속 노드를 삭제
+        if (node.left != null && node.right != null) {
+            Node successor = leftmost(node.right);
+            node.drink = successor.drink;
+            node = successor;
+        }
+
+        // 이 시점의 node는 자식이 최대 하나
+        Node child = node.left != null ? node.left : node.right;
+        if (child != null) child.parent = node.parent;
+        replaceChild(node.parent, node, child);
+        size--;
+
+        rebalanceFrom(node.parent);
+        return removed;
+    }
+
+    /**
+     * 이름이 prefix로 시작하는 음료를 이름순으로 순회
+     * @param prefix 검색할 이름 접두사
+     * @param action 각 음료에 수행할 동작
+     */
+    public void forEachWithPrefix(String prefix, Consumer<Drink> action) {
+        for (Node n = lowerBound(prefix); n != null && n.drink.getName().startsWith(prefix); n = successor(n)) {
+            action.accept(n.drink);
+        }
+    }
+
+    /**
+     * 이름이 prefix로 시작하는 음료 목록 반환 (이름순)
+     */
+    public List<Drink> searchByPrefix(String prefix) {
+        List<Drink> result = new ArrayList<>();
+        forEachWithPrefix(prefix, result::add);
+        return result;
+    }
+
+    /**
+     * 이름이 from 이상, to 미만인 음료를 이름순으로 순회
+     */
+    public void forEachInRange(String from, String to, Consumer<Drink> action) {
+        for (Node n = lowerBound(from); n != null && n.drink.getName().compareTo(to) < 0; n = successor(n)) {
+            action.accept(n.drink);
+        }
     }
 
-    // 재귀적으로 검색
-    private Drink searchRec(Node root, String name) {
-        if (root == null) return null;
-        int cmp = name.compareTo(root.drink.getName());
-        if (cmp == 0) return root.drink;
-        return cmp < 0 ? searchRec(root.left, name) : searchRec(root.right, name);
+    /**
+     * 중위 순회 (이름순), 추가 객체 생성 없이 부모 포인터로 이동
+     */
+    public void forEachInOrder(Consumer<Drink> action) {
+        for (Node n = leftmost(root); n != null; n = successor(n)) {
+            action.accept(n.drink);
+        }
+    }
+
+    /**
+     * 이름순 반복자 반환
+     */
+    @Override
+    public Iterator<Drink> iterator() {
+        return new Iterator<>() {
+            private Node next = leftmost(root);
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Drink next() {
+                if (next == null) throw new NoSuchElementException();
+                Drink drink = next.drink;
+                next = successor(next);
+                return drink;
+            }
+        };
     }
 
     /**
      * 중위 순회로 음료 이름/가격 출력 (이름순 정렬된 출력)
      */
     public void printInOrder() {
-        inOrderRec(root);
+        forEachInOrder(d -> System.out.println(d.getName() + ": " + d.getPrice() + "원"));
+    }
+
+    // 이름이 일치하는 노드 검색 (반복문)
+    private Node findNode(String name) {
+        Node cur = root;
+        while (cur != null) {
+            int cmp = name.compareTo(cur.drink.getName());
+            if (cmp == 0) return cur;
+            cur = cmp < 0 ? cur.left : cur.right;
+        }
+        return null;
+    }
+
+    // 이름이 key 이상인 첫 번째 노드
+    private Node lowerBound(String key) {
+        Node cur = root, best = null;
+        while (cur != null) {
+            if (cur.drink.getName().compareTo(key) >= 0) {
+                best = cur;
+                cur = cur.left;
+            } else {
+                cur = cur.right;
+            }
+        }
+        return best;
+    }
+
+    // 서브트리에서 가장 왼쪽 노드
+    private static Node leftmost(Node node) {
+        if (node == null) return null;
+        while (node.left != null) node = node.left;
+        return node;
+    }
+
+    // 중위 순회 기준 다음 노드
+    private static Node successor(Node node) {
+        if (node.right != null) return leftmost(node.right);
+        Node parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
     }
 
-    private void inOrderRec(Node node) {
-        if (node != null) {
-            inOrderRec(node.left);
-            System.out.println(node.drink.getName() + ": " + node.drink.getPrice() + "원");
-            inOrderRec(node.right);
+    // node부터 루트까지 올라가며 높이 갱신 및 회전
+    private void rebalanceFrom(Node node) {
+        while (node != null) {
+            updateHeight(node);
+            int balance = balanceOf(node);
+            if (balance > 1) {
+                if (balanceOf(node.left) < 0) rotateLeft(node.left);
+                node = rotateRight(node);
+            } else if (balance < -1) {
+                if (balanceOf(node.right) > 0) rotateRight(node.right);
+                node = rotateLeft(node);
+            }
+            node = node.parent;
         }
     }
+
+    private Node rotateLeft(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        if (y.left != null) y.left.parent = x;
+        y.parent = x.parent;
+        replaceChild(x.parent, x, y);
+        y.left = x;
+        x.parent = y;
+        updateHeight(x);
+        updateHeight(y);
+        return y;
+    }
+
+    private Node rotateRight(Node x) {
+        Node y = x.left;
+        x.left = y.right;
+        if (y.right != null) y.right.parent = x;
+        y.parent = x.parent;
+        replaceChild(x.parent, x, y);
+        y.right = x;
+        x.parent = y;
+        updateHeight(x);
+        updateHeight(y);
+        return y;
+    }
+
+    // parent의 자식 oldChild를 newChild로 교체 (parent가 없으면 루트 교체)
+    private void replaceChild(Node parent, Node oldChild, Node newChild) {
+        if (parent == null) root = newChild;
+        else if (parent.left == oldChild) parent.left = newChild;
+        else parent.right = newChild;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void updateHeight(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private static int balanceOf(Node node) {
+        return height(node.left) - height(node.right);
+    }
 }
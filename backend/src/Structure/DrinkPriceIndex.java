@@ -0,0 +1,74 @@
+package Structure;
+
+import model.Drink;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * 가격순으로 정렬된 구매 가능 음료 인덱스
+ * - 재고가 있는 음료만 (가격, 슬롯 ID) 순서로 보관
+ * - "잔액으로 살 수 있는 음료" 조회를 O(log n + k)로 처리
+ * - 가격 변경/품절/재입고 시 해당 음료만 update 하여 증분 갱신
+ */
+public class DrinkPriceIndex {
+
+    // 인덱스 항목 (인덱스에 들어간 시점의 가격을 보관하여 정렬 키가 바뀌지 않도록 함)
+    private static final class Entry {
+        final int id;
+        int price;
+        boolean indexed;
+
+        Entry(int id, int price) {
+            this.id = id;
+            this.price = price;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int cmp = Integer.compare(a.price, b.price);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    };
+
+    private final TreeSet<Entry> byPrice = new TreeSet<>(ORDER); // 재고 있는 음료 (가격순)
+    private final List<Entry> entries = new ArrayList<>();       // 슬롯 ID → 항목
+
+    /**
+     * 음료의 현재 가격/재고 상태를 인덱스에 반영
+     * @param drink 상태가 바뀐 음료 (슬롯 ID가 부여된 상태여야 함)
+     */
+    public synchronized void update(Drink drink) {
+        int id = drink.getId();
+        while (entries.size() <= id) {
+            entries.add(new Entry(entries.size(), 0));
+        }
+
+        Entry entry = entries.get(id);
+        int price = drink.getPrice();
+        boolean inStock = !drink.isSoldOut();
+
+        if (entry.indexed && (!inStock || entry.price != price)) {
+            byPrice.remove(entry);
+            entry.indexed = false;
+        }
+        entry.price = price;
+        if (inStock && !entry.indexed) {
+            byPrice.add(entry);
+            entry.indexed = true;
+        }
+    }
+
+    /**
+     * 가격이 balance 이하이고 재고가 있는 음료의 슬롯 ID를 가격순으로 전달
+     * @param balance 현재 잔액
+     * @param action 각 슬롯 ID에 수행할 동작
+     */
+    public synchronized void forEachAffordable(int balance, IntConsumer action) {
+        for (Entry entry : byPrice.headSet(new Entry(Integer.MAX_VALUE, balance), true)) {
+            action.accept(entry.id);
+        }
+    }
+}
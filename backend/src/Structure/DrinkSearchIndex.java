@@ -0,0 +1,245 @@
+package Structure;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 음료 이름 검색 인덱스 (접두사 + 오타 허용 검색)
+ * - 한글 음절은 자모 단위로 분해하여 색인 (입력 중인 "믹ㅅ" 같은 접두사, 자모 하나 오타도 검색)
+ * - 접두사 검색: 정규화된 이름을 정렬 보관한 TreeSet 범위 조회, O(log n + k)
+ * - 오타 허용 검색: 2-gram 역색인으로 후보를 모은 뒤 제한된 편집 거리로 검증
+ * - 결과 순위: 완전 일치 → 접두사 → 부분 문자열 → 편집 거리 순 (같으면 짧은 이름, 슬롯 ID 순)
+ * - 이름 변경 시 update로 해당 음료만 다시 색인
+ */
+public class DrinkSearchIndex {
+
+    private static final int EXACT = 0, PREFIX = 1, CONTAINS = 2, FUZZY = 3; // 순위 (낮을수록 우선)
+
+    // 정렬 인덱스 항목
+    private static final class Entry {
+        final int id;
+        final String key;
+
+        Entry(int id, String key) {
+            this.id = id;
+            this.key = key;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int cmp = a.key.compareTo(b.key);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    };
+
+    // 2-gram 포스팅 리스트 (슬롯 ID 목록)
+    private static final class IntList {
+        int[] data = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (data[i] == value) {
+                    data[i] = data[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final TreeSet<Entry> sorted = new TreeSet<>(ORDER);      // 정규화 이름순 항목
+    private final Map<Integer, IntList> grams = new HashMap<>();      // 2-gram → 슬롯 ID 목록
+    private Entry[] byId = new Entry[16];                            // 슬롯 ID → 현재 항목
+
+    // 검색 시 재사용하는 버퍼 (synchronized 안에서만 사용)
+    private int[] gramHits = new int[16];
+    private int[] touched = new int[16];
+    private int[] rankBuf = new int[16];
+    private int[] distRow = new int[32], prevRow = new int[32];
+
+    /**
+     * 음료 이름을 색인 (이미 색인된 슬롯이면 기존 이름을 지우고 다시 색인)
+     * @param id 슬롯 ID
+     * @param name 음료 이름
+     */
+    public synchronized void update(int id, String name) {
+        ensureCapacity(id + 1);
+        String key = normalize(name);
+        Entry old = byId[id];
+        if (old != null) {
+            if (old.key.equals(key)) return;
+            sorted.remove(old);
+            forEachGram(old.key, gram -> grams.get(gram).remove(id));
+        }
+
+        Entry entry = new Entry(id, key);
+        byId[id] = entry;
+        sorted.add(entry);
+        forEachGram(key, gram -> grams.computeIfAbsent(gram, g -> new IntList()).add(id));
+    }
+
+    /**
+     * 이름 검색 (접두사 + 오타 허용), 순위가 높은 순서로 슬롯 ID를 out에 채움
+     * @param query 검색어
+     * @param out 결과 슬롯 ID를 담을 배열 (길이가 최대 결과 수)
+     * @return 채워진 결과 수
+     */
+    public synchronized int search(String query, int[] out) {
+        String q = normalize(query);
+        int limit = out.length;
+        if (q.isEmpty() || limit == 0) return 0;
+
+        int count = 0;
+        int[] outRank = ensureRankBuf(limit);
+
+        // 1) 접두사 일치 (정렬 인덱스 범위 조회)
+        for (Entry e : sorted.subSet(new Entry(Integer.MIN_VALUE, q), true, new Entry(Integer.MIN_VALUE, q + '\uffff'), false)) {
+            int rank = e.key.length() == q.length() ? EXACT : PREFIX;
+            count = offer(out, outRank, count, e.id, rank, e.key.length());
+        }
+
+        // 2) 2-gram 후보 수집 후 부분 문자열 / 편집 거리 검증
+        int gramCount = q.length() - 1;
+        if (gramCount <= 0) return count;
+
+        int touchedCount = 0;
+        for (int i = 0; i < gramCount; i++) {
+            IntList list = grams.get(gramOf(q, i));
+            if (list == null) continue;
+            for (int j = 0; j < list.size; j++) {
+                int id = list.data[j];
+                if (gramHits[id]++ == 0) touched[touchedCount++] = id;
+            }
+        }
+
+        int maxDist = Math.max(1, q.length() / 4); // 자모 4개당 오타 1개 허용
+        for (int t = 0; t < touchedCount; t++) {
+            int id = touched[t];
+            int hits = gramHits[id];
+            gramHits[id] = 0;
+
+            Entry e = byId[id];
+            if (e.key.startsWith(q)) continue; // 접두사 단계에서 이미 처리
+            int rank;
+            if (e.key.contains(q)) {
+                rank = CONTAINS;
+            } else {
+                // 편집 거리 d 이내라면 최소 (gramCount - 2d)개의 2-gram이 일치해야 함
+                if (hits < gramCount - 2 * maxDist) continue;
+                int dist = boundedDistance(q, e.key, maxDist);
+                if (dist > maxDist) continue;
+                rank = FUZZY + dist;
+            }
+            count = offer(out, outRank, count, id, rank, e.key.length());
+        }
+        return count;
+    }
+
+    // 순위를 유지하며 결과 삽입 (rank, 이름 길이, ID 순), 최대 out.length개
+    private int offer(int[] out, int[] outRank, int count, int id, int rank, int length) {
+        int score = rank * 4096 + Math.min(length, 4095);
+        int pos = count;
+        while (pos > 0 && (outRank[pos - 1] > score || (outRank[pos - 1] == score && out[pos - 1] > id))) pos--;
+        if (pos >= out.length) return count;
+
+        int end = Math.min(count, out.length - 1);
+        System.arraycopy(out, pos, out, pos + 1, end - pos);
+        System.arraycopy(outRank, pos, outRank, pos + 1, end - pos);
+        out[pos] = id;
+        outRank[pos] = score;
+        return Math.min(count + 1, out.length);
+    }
+
+    // 편집 거리(Levenshtein) 계산, max를 넘으면 조기 종료하고 max + 1 반환
+    private int boundedDistance(String a, String b, int max) {
+        int n = a.length(), m = b.length();
+        if (Math.abs(n - m) > max) return max + 1;
+        if (prevRow.length <= m) {
+            prevRow = new int[m + 1];
+            distRow = new int[m + 1];
+        }
+        for (int j = 0; j <= m; j++) prevRow[j] = j;
+        for (int i = 1; i <= n; i++) {
+            distRow[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int v = Math.min(Math.min(distRow[j - 1] + 1, prevRow[j] + 1), prevRow[j - 1] + cost);
+                distRow[j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prevRow;
+            prevRow = distRow;
+            distRow = tmp;
+        }
+        return prevRow[m];
+    }
+
+    private int[] ensureRankBuf(int limit) {
+        if (rankBuf.length < limit) rankBuf = new int[limit];
+        return rankBuf;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (byId.length >= capacity) return;
+        int newCap = Math.max(capacity, byId.length * 2);
+        byId = Arrays.copyOf(byId, newCap);
+        gramHits = Arrays.copyOf(gramHits, newCap);
+        touched = Arrays.copyOf(touched, newCap);
+    }
+
+    private interface GramAction {
+        void accept(int gram);
+    }
+
+    private static void forEachGram(String key, GramAction action) {
+        for (int i = 0; i + 1 < key.length(); i++) action.accept(gramOf(key, i));
+    }
+
+    // 두 글자를 하나의 int로 묶은 2-gram
+    private static int gramOf(String key, int i) {
+        return (key.charAt(i) << 16) | key.charAt(i + 1);
+    }
+
+    // 호환 자모(ㄱ~ㅎ) → 초성 인덱스 (겹받침 등 초성에 없는 자모는 -1)
+    private static final int[] COMPAT_TO_CHOSEONG = {
+            0, 1, -1, 2, -1, -1, 3, 4, 5, -1, -1, -1, -1, -1, -1, -1,
+            6, 7, 8, -1, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18
+    };
+
+    /**
+     * 검색용 정규화: 공백 제거, 소문자 변환, 한글 음절/호환 자모를 조합형 자모로 분해
+     */
+    static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length() * 3);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) continue;
+            if (c >= 0xAC00 && c <= 0xD7A3) {            // 한글 음절
+                int code = c - 0xAC00;
+                sb.append((char) (0x1100 + code / 588));        // 초성
+                sb.append((char) (0x1161 + (code % 588) / 28)); // 중성
+                int jong = code % 28;
+                if (jong != 0) sb.append((char) (0x11A7 + jong)); // 종성
+            } else if (c >= 0x3131 && c <= 0x314E) {     // 호환 자음 (입력 중인 글자)
+                int cho = COMPAT_TO_CHOSEONG[c - 0x3131];
+                sb.append(cho >= 0 ? (char) (0x1100 + cho) : c);
+            } else if (c >= 0x314F && c <= 0x3163) {     // 호환 모음
+                sb.append((char) (0x1161 + (c - 0x314F)));
+            } else {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -5,32 +5,65 @@ import model.DrinkInventory;
 import util.DBManager;
 
 import java.sql.*;
-import java.util.LinkedList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DrinkInventoryDAO {
 
-    // 재고 정보를 DB에 저장하는 메서드
-    public static void saveInventoryToDB(DrinkInventory inventory) {
-        // 기존에 있으면 UPDATE, 없으면 INSERT (MySQL REPLACE INTO 구문)
-        String sql = "REPLACE INTO drink_inventory (id, name, price, stock) VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = DBManager.getConnection();             // DB 연결
-             PreparedStatement pstmt = conn.prepareStatement(sql)) { // 쿼리 준비
-
-            LinkedList<Drink> drinks = inventory.getDrinks(); // 현재 메모리 상의 음료 리스트 가져오기
+    // 연속된 수정을 한 번의 저장으로 묶기 위한 대기 시간
+    private static final long SAVE_DELAY_MS = 500;
+
+    // 지연 저장용 스레드 (데몬)
+    private static final ScheduledExecutorService saveScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "inventory-saver");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final AtomicBoolean savePending = new AtomicBoolean(false);
+
+    // 변경된 재고만 일정 시간 뒤 한 번에 저장 (그 사이의 수정은 모두 합쳐짐)
+    public static void scheduleSave(DrinkInventory inventory) {
+        if (savePending.compareAndSet(false, true)) {
+            saveScheduler.schedule(() -> {
+                savePending.set(false);
+                saveInventoryToDB(inventory);
+            }, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
 
-            for (int i = 0; i < drinks.size(); i++) {
-                Drink d = drinks.get(i);
+    // 재고 정보를 DB에 저장하는 메서드 (마지막 저장 이후 변경된 음료만, 하나의 트랜잭션으로 배치 실행)
+    public static synchronized void saveInventoryToDB(DrinkInventory inventory) {
+        int[] dirtyIds = inventory.drainDirty(); // 변경된 슬롯 목록 가져오기
+        if (dirtyIds.length == 0) return;
 
-                pstmt.setInt(1, i + 1);            // id (1부터 시작)
-                pstmt.setString(2, d.getName());   // name
-                pstmt.setInt(3, d.getPrice());     // price
-                pstmt.setInt(4, d.getStock());     // stock
+        // 기존에 있으면 UPDATE, 없으면 INSERT (MySQL REPLACE INTO 구문)
+        String sql = "REPLACE INTO drink_inventory (id, name, price, stock) VALUES (?, ?, ?, ?)";
 
-                pstmt.executeUpdate();             // 쿼리 실행
+        try (Connection conn = DBManager.getConnection()) {             // DB 연결
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) { // 쿼리 준비
+                for (int id : dirtyIds) {
+                    Drink d = inventory.getDrinkById(id);
+
+                    pstmt.setInt(1, id + 1);           // id (슬롯 번호 + 1, 1부터 시작)
+                    pstmt.setString(2, d.getName());   // name
+                    pstmt.setInt(3, d.getPrice());     // price
+                    pstmt.setInt(4, d.getStock());     // stock
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();                  // 배치 실행
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
 
         } catch (SQLException e) {
+            for (int id : dirtyIds) inventory.markDirty(id); // 다음 저장 때 다시 시도
             e.printStackTrace(); // 저장 실패 시 콘솔에 예외 출력
         }
     }
@@ -50,13 +83,14 @@ public class DrinkInventoryDAO {
                 int price = rs.getInt("price");           // 가격
                 int stock = rs.getInt("stock");           // 재고
 
-                inventory.getDrinks().add(new Drink(name, price, stock)); // 리스트에 추가
+                inventory.addDrink(new Drink(name, price, stock)); // 리스트에 추가
             }
 
         } catch (SQLException e) {
             e.printStackTrace(); // 불러오기 실패 시 콘솔에 예외 출력
         }
 
-        return inventory; // 불러온 재고 객체 반환
+        inventory.markAllClean(); // DB와 같은 상태이므로 저장할 변경 없음
+        return inventory;
     }
 }
@@ -1,17 +1,22 @@
 // Drink.java
 package model;
 
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Drink 클래스는 하나의 음료 정보를 나타냅니다.
- * 이름, 가격, 재고(LinkedList 사용) 정보를 포함하며,
+ * 이름, 가격, 재고(원자적 정수 카운터 사용) 정보를 포함하며,
  * 재고 관리 기능을 제공합니다.
+ * - 재고 조회/감소/보충은 모두 O(1)이며 추가 객체를 생성하지 않음
+ * - 구매 시 예약(reserve) → 확정(commit) / 취소(release) 순서로 처리 가능
+ * - 판매 가능 수량과 예약 수량을 long 하나에 묶어 CAS로 함께 갱신
+ *   (관리자 재고 설정이 진행 중인 예약과 어긋나지 않도록)
  */
 public class Drink {
-    private String name; // 음료 이름
-    private int price;   // 음료 가격
-    private LinkedList<Object> stockList; // 음료 재고를 관리하는 리스트
+    private int id = -1;          // 인벤토리 슬롯 번호 (DrinkInventory에 등록될 때 부여)
+    private volatile String name; // 음료 이름 (여러 스레드에서 읽으므로 volatile)
+    private volatile int price;   // 음료 가격
+    private final AtomicLong state = new AtomicLong(); // 상위 32비트: 예약되어 확정 대기 중인 수량, 하위 32비트: 판매 가능한 재고 수량
 
     /**
      * Drink 생성자: 음료명, 가격, 초기 재고 개수를 받아 초기화
@@ -19,38 +24,89 @@ public class Drink {
     public Drink(String name, int price, int stockCount) {
         this.name = name;
         this.price = price;
-        stockList = new LinkedList<>();
-        for (int i = 0; i < stockCount; i++) {
-            stockList.add(new Object()); // 단순 재고 개수 표현용 객체 추가
-        }
+        this.state.set(pack(Math.max(0, stockCount), 0));
+    }
+
+    private static long pack(int available, int reserved) {
+        return ((long) reserved << 32) | (available & 0xFFFFFFFFL);
+    }
+
+    private static int available(long state) {
+        return (int) state;
+    }
+
+    private static int reserved(long state) {
+        return (int) (state >>> 32);
     }
 
     // Getter & Setter
+    public int getId() { return id; }
+    void setId(int id) { this.id = id; } // 슬롯 번호는 DrinkInventory만 부여
     public String getName() { return name; }
     public int getPrice() { return price; }
     public void setName(String name) { this.name = name; }
     public void setPrice(int price) { this.price = price; }
 
     /**
-     * 현재 재고 개수 반환
+     * 현재 재고 개수 반환 (예약된 수량은 제외)
      */
     public int getStock() {
-        return stockList.size();
+        return Math.max(0, available(state.get()));
+    }
+
+    /**
+     * 예약되어 확정 대기 중인 수량 반환
+     */
+    public int getReserved() {
+        return reserved(state.get());
     }
 
     /**
      * 재고가 모두 소진되었는지 확인
      */
     public boolean isSoldOut() {
-        return stockList.isEmpty();
+        return available(state.get()) <= 0;
+    }
+
+    /**
+     * 재고를 지정 수량만큼 예약 (CAS 기반, 재고보다 많이 예약되지 않음)
+     * @param amount 예약할 수량
+     * @return 예약 성공 여부
+     */
+    public boolean reserve(int amount) {
+        if (amount <= 0) return false;
+        while (true) {
+            long current = state.get();
+            int available = available(current);
+            if (available < amount) return false;
+            if (state.compareAndSet(current, pack(available - amount, reserved(current) + amount))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 예약한 수량을 판매로 확정
+     * @param amount 확정할 수량 (reserve 시 사용한 값)
+     */
+    public void commit(int amount) {
+        update(0, -amount);
+    }
+
+    /**
+     * 예약한 수량을 취소하고 재고로 되돌림
+     * @param amount 취소할 수량 (reserve 시 사용한 값)
+     */
+    public void release(int amount) {
+        update(amount, -amount);
     }
 
     /**
      * 음료 하나 판매 시 재고 감소
      */
     public void reduceStock() {
-        if (!stockList.isEmpty()) {
-            stockList.removeFirst();
+        if (reserve(1)) {
+            commit(1);
         }
     }
 
@@ -58,8 +114,32 @@ public class Drink {
      * 지정한 수량만큼 재고 보충
      */
     public void restock(int amount) {
-        for (int i = 0; i < amount; i++) {
-            stockList.add(new Object());
+        if (amount > 0) {
+            update(amount, 0);
+        }
+    }
+
+    /**
+     * 재고 수량을 지정 값으로 설정 (관리자 동기화용)
+     * - stockCount는 진행 중인 예약 수량까지 포함한 실제 수량으로 보고, 판매 가능 수량은 stockCount - 예약 수량
+     *   → 예약이 취소되면 stockCount로, 확정되면 stockCount - 판매 수량이 됨 (취소로 설정값을 넘지 않음)
+     * - 예약 수량보다 작게 설정하면 판매 가능 수량은 음수로 남았다가 취소/보충으로 채워짐 (조회 시에는 0)
+     */
+    public void setStock(int stockCount) {
+        int target = Math.max(0, stockCount);
+        while (true) {
+            long current = state.get();
+            int reserved = reserved(current);
+            if (state.compareAndSet(current, pack(target - reserved, reserved))) return;
+        }
+    }
+
+    // 판매 가능 수량/예약 수량을 함께 변경
+    private void update(int availableDelta, int reservedDelta) {
+        while (true) {
+            long current = state.get();
+            long next = pack(available(current) + availableDelta, reserved(current) + reservedDelta);
+            if (state.compareAndSet(current, next)) return;
         }
     }
 }
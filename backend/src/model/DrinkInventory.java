@@ -1,30 +1,118 @@
 // DrinkInventory.java
 package model;
 
-import dao.DrinkInventoryDAO;
-import java.util.LinkedList;
+import Structure.DrinkPriceIndex;
+import Structure.DrinkSearchIndex;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
 
 /**
  * DrinkInventory 클래스는 자판기에 등록된 모든 음료의 목록을 관리한다.
- * 내부적으로 LinkedList<Drink> 자료구조를 사용하여 음료 정보를 보관하며,
- * 음료 조회 및 리스트 반환 기능을 제공한다.
+ * 내부적으로 배열 기반 CopyOnWriteArrayList<Drink>에 음료를 슬롯 순서대로 보관하고,
+ * 이름 → 음료 해시 인덱스를 함께 유지하여 위치/ID/이름 조회를 모두 O(1)로 처리한다.
+ * 음료 조회, 구매(예약 → 확정/취소), 재고 보충, 정보 수정 기능을 제공한다.
+ * - 음료의 ID는 등록 시 부여되는 슬롯 번호이며 이후 변하지 않음
+ * - JavaFX 스레드(구매)와 WebSocket 스레드(보충/수정)에서 동시에 호출해도 안전함
+ * - 재고 변경은 음료(슬롯)별 CAS로 처리되어 판매와 보충이 서로 유실되지 않음
+ * - 가격/재고가 바뀔 때마다 가격순 인덱스(DrinkPriceIndex)를 증분 갱신
+ * - 이름이 바뀔 때마다 검색 인덱스(DrinkSearchIndex)를 증분 갱신
+ * - 마지막 저장 이후 바뀐 슬롯을 기록하여 DB에는 변경된 음료만 저장
+ * - 관리자 수정(보충/재고 설정/이름·가격 변경) 후 변경 리스너에 슬롯 ID 전달 (화면 갱신용)
  */
 public class DrinkInventory {
 
-    private LinkedList<Drink> drinks; // 음료 객체 리스트
+    public static final int MAX_SEARCH_RESULTS = 100; // 검색 한 번에 돌려줄 최대 결과 수 (관리자 요청 상한)
+
+    private final CopyOnWriteArrayList<Drink> drinks; // 음료 객체 리스트 (읽기는 잠금 없음)
+    private final Map<String, Drink> nameIndex = new ConcurrentHashMap<>(); // 이름 → 음료 인덱스
+    private final DrinkPriceIndex priceIndex = new DrinkPriceIndex();        // 가격순 구매 가능 인덱스
+    private final DrinkSearchIndex searchIndex = new DrinkSearchIndex();     // 이름 접두사/오타 허용 검색 인덱스
+    private final BitSet dirtySlots = new BitSet();                          // 저장 후 변경된 슬롯 (dirtySlots로 동기화)
+    private volatile IntConsumer changeListener;                             // 관리자 수정 후 호출 (슬롯 ID)
 
     /**
      * 생성자: 빈 음료 리스트로 초기화
      */
     public DrinkInventory() {
-        this.drinks = new LinkedList<>();
+        this.drinks = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * 전체 음료 리스트 반환 (읽기 전용, 추가는 addDrink 사용)
+     */
+    public List<Drink> getDrinks() {
+        return Collections.unmodifiableList(drinks);
+    }
+
+    /**
+     * 음료 추가
+     * @param drink 추가할 음료
+     */
+    public synchronized void addDrink(Drink drink) {
+        drink.setId(drinks.size());
+        drinks.add(drink);
+        nameIndex.putIfAbsent(drink.getName(), drink);
+        priceIndex.update(drink);
+        searchIndex.update(drink.getId(), drink.getName());
+        markDirty(drink.getId());
     }
 
     /**
-     * 전체 음료 리스트 반환
+     * 관리자 수정 리스너 등록 (수정한 스레드에서 호출되므로 UI 갱신은 리스너에서 UI 스레드로 넘길 것)
+     * @param listener 변경된 슬롯 ID를 받을 함수 (null이면 해제)
      */
-    public LinkedList<Drink> getDrinks() {
-        return drinks;
+    public void setChangeListener(IntConsumer listener) {
+        this.changeListener = listener;
+    }
+
+    // 관리자 수정 알림
+    private void fireChanged(int id) {
+        IntConsumer listener = changeListener;
+        if (listener != null) listener.accept(id);
+    }
+
+    /**
+     * 저장 이후 변경된 슬롯 ID를 꺼내고 변경 기록을 비움
+     * @return 변경된 슬롯 ID 목록 (오름차순)
+     */
+    public int[] drainDirty() {
+        synchronized (dirtySlots) {
+            int[] ids = dirtySlots.stream().toArray();
+            dirtySlots.clear();
+            return ids;
+        }
+    }
+
+    /**
+     * 슬롯을 변경됨으로 표시 (저장 실패 시 다시 표시하는 데에도 사용)
+     */
+    public void markDirty(int id) {
+        synchronized (dirtySlots) {
+            dirtySlots.set(id);
+        }
+    }
+
+    /**
+     * 변경 기록 초기화 (DB에서 막 불러온 상태)
+     */
+    public void markAllClean() {
+        synchronized (dirtySlots) {
+            dirtySlots.clear();
+        }
+    }
+
+    /**
+     * 등록된 음료 개수 반환
+     */
+    public int size() {
+        return drinks.size();
     }
 
     /**
@@ -35,4 +123,145 @@ public class DrinkInventory {
     public Drink getDrink(int index) {
         return drinks.get(index);
     }
+
+    /**
+     * 슬롯 ID로 음료 조회
+     * @param id 음료 ID
+     * @return Drink 객체 (없으면 null)
+     */
+    public Drink getDrinkById(int id) {
+        return (id >= 0 && id < drinks.size()) ? drinks.get(id) : null;
+    }
+
+    /**
+     * 이름으로 음료 조회
+     * @param name 음료 이름
+     * @return Drink 객체 (없으면 null, 같은 이름의 음료가 여럿이면 그중 하나)
+     */
+    public Drink getDrinkByName(String name) {
+        return name == null ? null : nameIndex.get(name);
+    }
+
+    /**
+     * 잔액으로 구매 가능한(재고 있고 가격 ≤ 잔액) 음료의 슬롯 ID를 가격순으로 전달
+     * @param balance 현재 잔액
+     * @param action 각 슬롯 ID에 수행할 동작
+     */
+    public void forEachAffordable(int balance, IntConsumer action) {
+        priceIndex.forEachAffordable(balance, action);
+    }
+
+    /**
+     * 이름 검색 (접두사 + 오타 허용), 순위순 결과 반환
+     * @param query 검색어
+     * @param limit 최대 결과 수 (음료 수를 넘으면 음료 수까지만)
+     * @return 검색된 음료 목록
+     */
+    public List<Drink> search(String query, int limit) {
+        int[] ids = new int[Math.max(0, Math.min(limit, drinks.size()))]; // 음료 수보다 많이 잡지 않음
+        int count = searchIndex.search(query, ids);
+        List<Drink> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(drinks.get(ids[i]));
+        }
+        return result;
+    }
+
+    /**
+     * 구매를 위해 재고를 예약 (재고가 부족하면 실패, 초과 판매 없음)
+     * @param index 음료 인덱스
+     * @param quantity 예약 수량
+     * @return 예약 성공 여부
+     */
+    public boolean reserve(int index, int quantity) {
+        Drink drink = drinks.get(index);
+        if (!drink.reserve(quantity)) return false;
+        if (drink.isSoldOut()) priceIndex.update(drink); // 마지막 재고를 예약한 경우
+        markDirty(index);
+        return true;
+    }
+
+    /**
+     * 예약한 재고를 판매로 확정
+     */
+    public void commit(int index, int quantity) {
+        drinks.get(index).commit(quantity);
+    }
+
+    /**
+     * 예약한 재고를 취소 (결제 실패 등)
+     */
+    public void release(int index, int quantity) {
+        Drink drink = drinks.get(index);
+        drink.release(quantity);
+        priceIndex.update(drink);
+        markDirty(index);
+    }
+
+    /**
+     * 재고 보충
+     * @param index 음료 인덱스
+     * @param amount 보충 수량
+     * @return 보충된 음료
+     */
+    public Drink restock(int index, int amount) {
+        Drink drink = drinks.get(index);
+        drink.restock(amount);
+        priceIndex.update(drink);
+        markDirty(index);
+        fireChanged(index);
+        return drink;
+    }
+
+    /**
+     * 재고 수량을 지정 값으로 설정 (관리자 동기화용)
+     * @param index 음료 인덱스
+     * @param stock 설정할 재고 수량 (진행 중인 예약 수량 포함, Drink.setStock 참고)
+     * @return 수정된 음료
+     */
+    public Drink setStock(int index, int stock) {
+        Drink drink = drinks.get(index);
+        drink.setStock(stock);
+        priceIndex.update(drink);
+        markDirty(index);
+        fireChanged(index);
+        return drink;
+    }
+
+    /**
+     * 음료 이름/가격 수정 (이름과 가격이 한 번에 바뀌도록 음료 단위로 잠금)
+     * @param index 음료 인덱스
+     * @param name 새 이름
+     * @param price 새 가격
+     * @return 수정된 음료
+     */
+    public Drink editDrink(int index, String name, int price) {
+        Drink drink = drinks.get(index);
+        synchronized (drink) {
+            String oldName = drink.getName();
+            drink.setName(name);
+            drink.setPrice(price);
+            if (!oldName.equals(name)) {
+                if (nameIndex.remove(oldName, drink)) {
+                    reindexName(oldName); // 같은 이름의 다른 음료가 있으면 그 음료로 다시 연결
+                }
+                nameIndex.putIfAbsent(name, drink);
+                searchIndex.update(index, name);
+            }
+        }
+        priceIndex.update(drink);
+        markDirty(index);
+        fireChanged(index);
+        return drink;
+    }
+
+    // 이름 인덱스에서 빠진 이름을 같은 이름의 남은 음료(가장 앞 슬롯)로 다시 연결
+    private void reindexName(String name) {
+        for (Drink other : drinks) {
+            if (other.getName().equals(name)) {
+                nameIndex.putIfAbsent(name, other);
+                return;
+            }
+        }
+    }
 }
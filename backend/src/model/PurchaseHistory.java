@@ -1,24 +1,80 @@
 // PurchaseHistory.java
 package model;
 
-import java.util.Stack;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 
 /**
- * PurchaseHistory 클래스는 구매한 음료 기록을 스택 구조로 관리합니다.
- * - 최근 구매 조회
- * - 전체 구매 이력 출력
+ * PurchaseHistory 클래스는 구매한 음료 기록을 고정 크기 원형 버퍼로 관리합니다.
+ * - 음료 이름 대신 슬롯 ID(int)를 저장하여 메모리 사용량이 항상 일정
+ * - 버퍼가 가득 차면 가장 오래된 기록부터 덮어씀
+ * - 최근 구매 조회 (O(1))
+ * - 페이지 단위 구매 이력 출력
  * 등의 기능을 제공합니다.
  */
 public class PurchaseHistory {
 
-    private Stack<String> history = new Stack<>(); // 구매 이력 저장용 스택
+    public static final int DEFAULT_CAPACITY = 1000; // 기본 보관 개수
+    public static final int PAGE_SIZE = 20;          // 화면 출력 시 한 페이지 크기
+
+    private final DrinkInventory inventory; // 슬롯 ID → 음료 이름 변환용
+    private final int[] history;            // 구매 이력 저장용 원형 버퍼 (음료 슬롯 ID)
+    private int head = 0;                   // 다음에 기록할 위치
+    private int size = 0;                   // 현재 보관 중인 기록 수
+    private long totalCount = 0;            // 누적 구매 횟수 (덮어쓴 기록 포함)
+
+    /**
+     * 기본 크기로 생성
+     * @param inventory 음료 이름 조회에 사용할 인벤토리
+     */
+    public PurchaseHistory(DrinkInventory inventory) {
+        this(inventory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 지정 크기로 생성
+     * @param inventory 음료 이름 조회에 사용할 인벤토리
+     * @param capacity 보관할 최대 기록 수
+     */
+    public PurchaseHistory(DrinkInventory inventory, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("보관 개수는 1 이상이어야 합니다: " + capacity);
+        this.inventory = inventory;
+        this.history = new int[capacity];
+    }
 
     /**
      * 구매 이력에 새로운 음료 추가
-     * @param drinkName 구매한 음료 이름
+     * @param drinkId 구매한 음료 슬롯 ID
+     */
+    public synchronized void add(int drinkId) {
+        history[head] = drinkId;
+        head = (head + 1) % history.length;
+        if (size < history.length) size++;
+        totalCount++;
+    }
+
+    /**
+     * 현재 보관 중인 기록 수
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 누적 구매 횟수 (버퍼에서 밀려난 기록 포함)
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 가장 최근에서 n번째 구매한 음료 슬롯 ID 조회
+     * @param n 최근 n번째 항목 (1 = 가장 최근)
+     * @return 음료 슬롯 ID 또는 -1 (기록 없음)
      */
-    public void add(String drinkName) {
-        history.push(drinkName);
+    public synchronized int getRecentId(int n) {
+        if (n <= 0 || n > size) return -1;
+        return history[Math.floorMod(head - n, history.length)];
     }
 
     /**
@@ -27,8 +83,7 @@ public class PurchaseHistory {
      * @return 음료 이름 또는 '기록 없음'
      */
     public String getRecent(int n) {
-        if (history.size() < n) return "기록 없음";
-        return history.get(history.size() - n);
+        return nameOf(getRecentId(n));
     }
 
     /**
@@ -36,8 +91,56 @@ public class PurchaseHistory {
      * @return 음료 이름 또는 '기록 없음'
      */
     public String getLatest() {
-        if (history.isEmpty()) return "기록 없음";
-        return history.peek();
+        return getRecent(1);
+    }
+
+    /**
+     * 최신순 페이지 반복자 반환 (page 0 = 가장 최근 pageSize개)
+     * @param page 페이지 번호 (0부터)
+     * @param pageSize 페이지 크기
+     * @return 음료 슬롯 ID 반복자
+     * @throws IllegalArgumentException page가 음수이거나 pageSize가 0 이하인 경우
+     */
+    public synchronized PrimitiveIterator.OfInt page(int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("잘못된 페이지 요청: page=" + page + ", pageSize=" + pageSize);
+        }
+        int from = (int) Math.min(size, (long) page * pageSize);
+        int to = (int) Math.min(size, (long) from + pageSize);
+        int[] snapshot = new int[to - from]; // 최대 pageSize 크기의 복사본
+        for (int i = from; i < to; i++) {
+            snapshot[i - from] = history[Math.floorMod(head - 1 - i, history.length)];
+        }
+
+        return new PrimitiveIterator.OfInt() {
+            private int pos = 0;
+
+            @Override
+            public boolean hasNext() {
+                return pos < snapshot.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (pos >= snapshot.length) throw new NoSuchElementException();
+                return snapshot[pos++];
+            }
+        };
+    }
+
+    /**
+     * 지정 페이지의 구매 이력을 최신순으로 출력
+     * @param page 페이지 번호 (0부터)
+     * @return 포맷된 이력 문자열
+     * @throws IllegalArgumentException page가 음수인 경우
+     */
+    public String getPage(int page) {
+        StringBuilder sb = new StringBuilder("📦 최근 구매 기록:\n");
+        int order = page * PAGE_SIZE + 1;
+        for (PrimitiveIterator.OfInt it = page(page, PAGE_SIZE); it.hasNext(); ) {
+            sb.append(order++).append(". ").append(nameOf(it.nextInt())).append("\n");
+        }
+        return sb.toString();
     }
 
     /**
@@ -47,17 +150,24 @@ public class PurchaseHistory {
     public String getAll() {
         StringBuilder sb = new StringBuilder("📦 최근 구매 기록:\n");
         int order = 1;
-        for (int i = history.size() - 1; i >= 0; i--) {
-            sb.append(order++).append(". ").append(history.get(i)).append("\n");
+        for (PrimitiveIterator.OfInt it = page(0, Integer.MAX_VALUE); it.hasNext(); ) {
+            sb.append(order++).append(". ").append(nameOf(it.nextInt())).append("\n");
         }
         return sb.toString();
     }
 
+    // 슬롯 ID를 현재 음료 이름으로 변환
+    private String nameOf(int drinkId) {
+        if (drinkId < 0) return "기록 없음";
+        Drink drink = inventory.getDrinkById(drinkId);
+        return drink == null ? "알 수 없는 음료" : drink.getName();
+    }
+
     /**
-     * toString 오버라이드: getAll() 결과 반환
+     * toString 오버라이드: 가장 최근 페이지 결과 반환
      */
     @Override
     public String toString() {
-        return getAll();  // 이 부분이 핵심!
+        return getPage(0);
     }
 }
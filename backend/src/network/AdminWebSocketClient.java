@@ -73,19 +73,16 @@ public class AdminWebSocketClient extends WebSocketClient {
                     int price = json.getInt("price");
                     int stock = json.getInt("stock");
 
-                    if (id >= 0 && id < inventory.getDrinks().size()) {
-                        Drink drink = inventory.getDrink(id);
-                        drink.setName(name);
-                        drink.setPrice(price);
-                        drink.restock(stock - drink.getStock());
+                    if (id >= 0 && id < inventory.size()) {
+                        inventory.editDrink(id, name, price);
+                        inventory.setStock(id, stock);
                     }
 
                 } else if (type.equals("restock")) {
                     int id = json.getInt("id");
                     int amount = json.getInt("amount");
-                    if (id >= 0 && id < inventory.getDrinks().size()) {
-                        Drink drink = inventory.getDrink(id);
-                        drink.restock(amount);
+                    if (id >= 0 && id < inventory.size()) {
+                        inventory.restock(id, amount);
                     }
                 }
 
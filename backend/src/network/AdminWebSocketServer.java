@@ -9,10 +9,15 @@ import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import service.ReportCache;
+import service.SalesCube;
+import service.SalesExporter;
 import service.SalesLogger;
 
 import java.net.InetSocketAddress;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -53,9 +58,8 @@ public class AdminWebSocketServer extends WebSocketServer {
                     int restockId = json.getInt("id");
                     int amount = json.getInt("amount");
                     logger.info("재고 보충 요청 - ID: " + restockId + ", 수량: " + amount);
-                    Drink restockDrink = inventory.getDrink(restockId);
-                    restockDrink.restock(amount);
-                    DrinkInventoryDAO.saveInventoryToDB(inventory);
+                    Drink restockDrink = inventory.restock(restockId, amount);
+                    DrinkInventoryDAO.scheduleSave(inventory);
                     broadcast(new JSONObject()
                             .put("type", "edit")
                             .put("id", restockId)
@@ -71,10 +75,8 @@ public class AdminWebSocketServer extends WebSocketServer {
                     String name = json.getString("name");
                     int price = json.getInt("price");
                     logger.info("음료 수정 요청 - ID: " + editId + ", 이름: " + name + ", 가격: " + price);
-                    Drink editDrink = inventory.getDrink(editId);
-                    editDrink.setName(name);
-                    editDrink.setPrice(price);
-                    DrinkInventoryDAO.saveInventoryToDB(inventory);
+                    Drink editDrink = inventory.editDrink(editId, name, price);
+                    DrinkInventoryDAO.scheduleSave(inventory);
                     broadcast(new JSONObject()
                             .put("type", "edit")
                             .put("id", editId)
@@ -125,7 +127,7 @@ public class AdminWebSocketServer extends WebSocketServer {
                             }
                         }
                         case "total" -> {
-                            int sum = SalesLogger.getDailySales().values().stream().mapToInt(Integer::intValue).sum();
+                            long sum = SalesLogger.getTotalSales();
                             JSONObject item = new JSONObject();
                             item.put("total", sum);
                             salesArr.put(item);
@@ -140,6 +142,74 @@ public class AdminWebSocketServer extends WebSocketServer {
                     conn.send(salesResponse.toString());
                 }
 
+                case "salesCube" -> {
+                    // 조건: client, drink, from, to(YYYY-MM-DD), hourFrom, hourTo / 묶을 차원: groupBy ["client","drink","day","hour"]
+                    int groupBy = 0;
+                    JSONArray dims = json.optJSONArray("groupBy");
+                    for (int i = 0; dims != null && i < dims.length(); i++) {
+                        switch (dims.getString(i)) {
+                            case "client" -> groupBy |= SalesCube.CLIENT;
+                            case "drink" -> groupBy |= SalesCube.DRINK;
+                            case "day" -> groupBy |= SalesCube.DAY;
+                            case "hour" -> groupBy |= SalesCube.HOUR;
+                            default -> throw new IllegalArgumentException("지원하지 않는 차원입니다: " + dims.getString(i));
+                        }
+                    }
+                    String from = json.optString("from", null);
+                    String to = json.optString("to", null);
+
+                    long started = System.nanoTime();
+                    SalesCube cube = SalesLogger.getSalesCube();
+                    List<SalesCube.Row> rows = cube.query(
+                            json.optString("client", null),
+                            json.optString("drink", null),
+                            from == null ? null : LocalDate.parse(from),
+                            to == null ? null : LocalDate.parse(to),
+                            json.optInt("hourFrom", 0),
+                            json.optInt("hourTo", SalesCube.HOUR_UNKNOWN),
+                            groupBy);
+                    long elapsedMicros = (System.nanoTime() - started) / 1000;
+
+                    JSONArray arr = new JSONArray();
+                    for (SalesCube.Row row : rows) {
+                        JSONObject item = new JSONObject();
+                        if (row.clientId != null) item.put("client", row.clientId);
+                        if (row.drinkName != null) item.put("drink", row.drinkName);
+                        if (row.day != null) item.put("day", row.day.toString());
+                        if (row.hour >= 0) item.put("hour", row.hour == SalesCube.HOUR_UNKNOWN ? JSONObject.NULL : row.hour);
+                        item.put("total", row.amount);
+                        item.put("quantity", row.quantity);
+                        arr.put(item);
+                    }
+                    JSONObject res = new JSONObject();
+                    res.put("type", "cubeResult");
+                    res.put("data", arr);
+                    res.put("elapsedMicros", elapsedMicros);
+                    res.put("degraded", cube.isDegraded()); // true면 일부 매출이 빠진 결과
+                    conn.send(res.toString());
+                }
+
+                case "reportCacheStats" -> {
+                    ReportCache cache = SalesLogger.getReportCache();
+                    JSONObject res = new JSONObject();
+                    res.put("type", "reportCacheStats");
+                    res.put("size", cache.size());
+                    res.put("hits", cache.getHitCount());
+                    res.put("misses", cache.getMissCount());
+                    res.put("coalesced", cache.getCoalescedCount());
+                    res.put("evictions", cache.getEvictionCount());
+                    res.put("expirations", cache.getExpirationCount());
+                    res.put("invalidations", cache.getInvalidationCount());
+                    res.put("hitRatio", cache.getHitRatio());
+                    conn.send(res.toString());
+                }
+
+                case "rebuildSales" -> {
+                    logger.info("매출 집계 재계산 요청");
+                    boolean ok = SalesLogger.rebuildSalesRollups();
+                    conn.send(ok ? "매출 집계 재계산 완료" : "매출 집계 재계산 실패");
+                }
+
                 case "sendLog" -> {
                     logger.info("로그 전송 요청 수신");
                     conn.send("로그 전송 완료");
@@ -147,7 +217,7 @@ public class AdminWebSocketServer extends WebSocketServer {
 
                 case "getInventory" -> {
                     JSONArray arr = new JSONArray();
-                    for (int i = 0; i < inventory.getDrinks().size(); i++) {
+                    for (int i = 0; i < inventory.size(); i++) {
                         Drink d = inventory.getDrink(i);
                         JSONObject obj = new JSONObject();
                         obj.put("id", i);
@@ -162,6 +232,27 @@ public class AdminWebSocketServer extends WebSocketServer {
                     conn.send(res.toString());
                 }
 
+                case "exportSales" -> exportSales(conn, json);
+
+                case "search" -> {
+                    String query = json.getString("query");
+                    int limit = Math.max(1, Math.min(json.optInt("limit", 20), DrinkInventory.MAX_SEARCH_RESULTS));
+                    JSONArray arr = new JSONArray();
+                    for (Drink d : inventory.search(query, limit)) {
+                        JSONObject obj = new JSONObject();
+                        obj.put("id", d.getId());
+                        obj.put("name", d.getName());
+                        obj.put("price", d.getPrice());
+                        obj.put("stock", d.getStock());
+                        arr.put(obj);
+                    }
+                    JSONObject res = new JSONObject();
+                    res.put("type", "searchResult");
+                    res.put("query", query);
+                    res.put("data", arr);
+                    conn.send(res.toString());
+                }
+
                 default -> {
                     logger.warning("알 수 없는 명령: " + type);
                     conn.send("지원하지 않는 명령입니다: " + type);
@@ -173,6 +264,63 @@ public class AdminWebSocketServer extends WebSocketServer {
         }
     }
 
+    /**
+     * sales_log 원본을 청크 단위로 내보내기 (클라이언트가 당겨 가는 방식)
+     * - 요청: {type:"exportSales", from?, to?, chunkSize?, credits?} 또는 {type:"exportSales", token, chunkSize?, credits?}
+     * - 응답: 청크마다 {type:"exportChunk", data, token, done}, 최대 credits개까지만 보내고 다음 요청을 기다림
+     * - 클라이언트는 청크를 처리한 뒤 마지막 token으로 다시 요청하므로, 소비 속도보다 빠르게 쌓이지 않음
+     */
+    private void exportSales(WebSocket conn, JSONObject json) throws SQLException {
+        int chunkSize = Math.max(1, Math.min(json.optInt("chunkSize", 200), SalesExporter.MAX_CHUNK_ROWS));
+        int credits = Math.max(1, Math.min(json.optInt("credits", 1), SalesExporter.MAX_CREDITS));
+
+        SalesExporter.Cursor cursor;
+        String token = json.optString("token", null);
+        if (token != null) {
+            cursor = SalesExporter.Cursor.decode(token);
+        } else {
+            String from = json.optString("from", null);
+            String to = json.optString("to", null);
+            cursor = new SalesExporter.Cursor(0,
+                    from == null ? null : LocalDate.parse(from),
+                    to == null ? null : LocalDate.parse(to));
+        }
+
+        int limit = chunkSize * credits;
+        JSONArray[] chunk = { new JSONArray() };
+        long[] lastId = { cursor.afterId };
+
+        int count = SalesExporter.export(cursor, limit, chunkSize, (id, clientId, saleDate, drinkName, price, quantity) -> {
+            JSONObject row = new JSONObject();
+            row.put("id", id);
+            row.put("client", clientId);
+            row.put("date", saleDate.toString());
+            row.put("drink", drinkName);
+            row.put("price", price);
+            row.put("quantity", quantity);
+            chunk[0].put(row);
+            lastId[0] = id;
+            if (chunk[0].length() == chunkSize) {
+                sendExportChunk(conn, chunk[0], cursor.advance(id), false);
+                chunk[0] = new JSONArray(); // 보낸 청크는 바로 버림
+            }
+        });
+
+        if (count < limit) {
+            // 끝까지 읽음 - 남은 행(없으면 빈 청크)과 함께 완료 표시
+            sendExportChunk(conn, chunk[0], cursor.advance(lastId[0]), true);
+        }
+    }
+
+    private void sendExportChunk(WebSocket conn, JSONArray data, SalesExporter.Cursor next, boolean done) {
+        JSONObject res = new JSONObject();
+        res.put("type", "exportChunk");
+        res.put("data", data);
+        res.put("token", next.encode());
+        res.put("done", done);
+        conn.send(res.toString());
+    }
+
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         logger.info("연결 종료: " + conn.getRemoteSocketAddress() + " (사유: " + reason + ")");
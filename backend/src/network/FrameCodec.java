@@ -0,0 +1,224 @@
+// network/FrameCodec.java
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * 길이 + CRC 프레임 인코더/디코더
+ * - 프레임 형식: [본문 길이 varint][본문][본문 CRC32C 4바이트]
+ * - varint: 부호 없는 정수를 7비트씩 나눠 낮은 자리부터 기록 (127 이하는 1바이트)
+ * - 호출자가 넘긴 ByteBuffer에 직접 쓰고 읽음 (중간 byte[]/String 생성 없음)
+ * - CRC 계산기를 인스턴스마다 재사용하므로 스레드 간에 공유하지 말 것
+ */
+public final class FrameCodec {
+
+    public static final int MAX_HEADER_BYTES = 5; // int varint 최대 길이
+    public static final int CRC_BYTES = 4;
+
+    /**
+     * 완성된 프레임 하나를 받는 함수 (body의 position~limit이 본문, 콜백 안에서만 유효)
+     */
+    public interface FrameHandler {
+        void onFrame(ByteBuffer body) throws IOException;
+    }
+
+    private final CRC32C crc = new CRC32C();
+    private final int maxBodyBytes;
+    private int pendingLength = -1; // beginFrame에서 선언한 본문 길이
+
+    /**
+     * @param maxBodyBytes 본문 최대 길이 (넘는 프레임은 잘못된 스트림으로 처리)
+     */
+    public FrameCodec(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * 프레임 전체 최대 길이 (머리 + 본문 + CRC)
+     */
+    public int getMaxFrameBytes() {
+        return MAX_HEADER_BYTES + maxBodyBytes + CRC_BYTES;
+    }
+
+    // ===== varint =====
+
+    /**
+     * varint로 기록했을 때의 바이트 수 (음수는 5바이트)
+     */
+    public static int varintSize(int value) {
+        if ((value & ~0x7F) == 0) return 1;
+        if ((value & ~0x3FFF) == 0) return 2;
+        if ((value & ~0x1FFFFF) == 0) return 3;
+        if ((value & ~0xFFFFFFF) == 0) return 4;
+        return 5;
+    }
+
+    public static void putVarint(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    /**
+     * varint 읽기
+     * @throws ProtocolException 5바이트 안에 끝나지 않는 값
+     */
+    public static int getVarint(ByteBuffer buf) throws ProtocolException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new ProtocolException("잘못된 varint");
+    }
+
+    /**
+     * long varint로 기록했을 때의 바이트 수
+     */
+    public static int varlongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    public static void putVarlong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    /**
+     * long varint 읽기
+     * @throws ProtocolException 10바이트 안에 끝나지 않는 값
+     */
+    public static long getVarlong(ByteBuffer buf) throws ProtocolException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new ProtocolException("잘못된 varint");
+    }
+
+    // ===== 쓰기 =====
+
+    /**
+     * 프레임 머리 기록
+     * @param bodyLength 이어서 기록할 본문 길이
+     * @return 본문 시작 위치 (endFrame에 넘김)
+     */
+    public int beginFrame(ByteBuffer out, int bodyLength) {
+        if (bodyLength > maxBodyBytes) {
+            throw new IllegalArgumentException("프레임 본문이 너무 깁니다: " + bodyLength);
+        }
+        putVarint(out, bodyLength);
+        pendingLength = bodyLength;
+        return out.position();
+    }
+
+    /**
+     * 본문 기록 후 CRC 기록
+     * @param bodyStart beginFrame이 반환한 위치
+     */
+    public void endFrame(ByteBuffer out, int bodyStart) {
+        int end = out.position();
+        if (end - bodyStart != pendingLength) {
+            throw new IllegalStateException("선언한 본문 길이와 다릅니다: " + pendingLength + " != " + (end - bodyStart));
+        }
+        int limit = out.limit();
+        out.limit(end).position(bodyStart);
+        crc.reset();
+        crc.update(out); // position이 end로 이동
+        out.limit(limit);
+        out.putInt((int) crc.getValue());
+        pendingLength = -1;
+    }
+
+    // ===== 읽기 =====
+
+    /**
+     * buf의 position에서 시작하는 프레임의 전체 길이 (position은 그대로)
+     * @return 머리 + 본문 + CRC 길이, 머리가 아직 다 도착하지 않았으면 -1
+     * @throws ProtocolException 잘못된 머리 또는 본문 최대 길이 초과
+     */
+    public int frameLength(ByteBuffer buf) throws ProtocolException {
+        int pos = buf.position();
+        int value = 0;
+        for (int i = 0; i < MAX_HEADER_BYTES; i++) {
+            if (pos + i >= buf.limit()) return -1;
+            byte b = buf.get(pos + i);
+            value |= (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                if (value < 0 || value > maxBodyBytes) {
+                    throw new ProtocolException("프레임 길이 초과: " + Integer.toUnsignedString(value));
+                }
+                return i + 1 + value + CRC_BYTES;
+            }
+        }
+        throw new ProtocolException("잘못된 프레임 머리");
+    }
+
+    /**
+     * 완성된 프레임 하나(position~limit)의 CRC를 검사하고 본문 구간으로 맞춤
+     * - 반환 후 position~limit이 본문
+     * @throws ProtocolException 길이 불일치 또는 CRC 불일치
+     */
+    public void openFrame(ByteBuffer frame) throws ProtocolException {
+        int end = frame.limit();
+        int length = getVarint(frame);
+        int bodyStart = frame.position();
+        if (bodyStart + length + CRC_BYTES != end) {
+            throw new ProtocolException("프레임 길이 불일치");
+        }
+        int stored = frame.getInt(bodyStart + length);
+        frame.limit(bodyStart + length);
+        crc.reset();
+        crc.update(frame);
+        if ((int) crc.getValue() != stored) {
+            throw new ProtocolException("프레임 CRC 불일치");
+        }
+        frame.position(bodyStart);
+    }
+
+    /**
+     * 블로킹 스트림에서 한 번 읽어 buf 뒤에 이어 붙이고, 완성된 프레임마다 handler 호출
+     * - buf는 배열 기반(heap)이고 쓰기 상태여야 하며, 용량은 getMaxFrameBytes() 이상
+     * - 완성되지 않은 프레임은 buf 앞쪽에 남겨 둠
+     * @return 스트림 끝이면 false
+     */
+    public boolean readFrames(InputStream in, ByteBuffer buf, FrameHandler handler) throws IOException {
+        int n = in.read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+        if (n < 0) return false;
+        buf.position(buf.position() + n);
+        buf.flip();
+        int limit = buf.limit();
+        while (true) {
+            int total = frameLength(buf);
+            if (total < 0 || total > limit - buf.position()) break;
+            int next = buf.position() + total;
+            buf.limit(next);
+            openFrame(buf);
+            handler.onFrame(buf);
+            buf.limit(limit).position(next);
+        }
+        buf.compact();
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+// network/LogCompression.java
+package network;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 매출 로그 연결 압축 설정 (deflate, 자판기 → 서버 방향만)
+ * - 이진 프로토콜 협상 줄에 "deflate"(+ "dict=사전id")를 붙여 제안, 서버가 같은 옵션으로 답하면 사용
+ * - 연결마다 Deflater/Inflater 하나 (헤더 없는 raw deflate), 배치 경계(flush)마다 SYNC_FLUSH
+ *   → 서버는 받은 바이트까지 바로 풀어 프레임을 처리할 수 있음
+ * - vending.log.compress: 자판기가 압축을 제안할지 (기본 true, 서버는 항상 수락)
+ * - vending.log.deflateLevel: 압축 수준 0~9 (기본 6)
+ * - vending.log.deflateDictionary: 미리 정한 사전 파일 경로 (양쪽 사전의 Adler32가 같을 때만 사용)
+ */
+public final class LogCompression {
+
+    public static final String OPTION = "deflate";
+    public static final String DICTIONARY_OPTION = "dict=";
+
+    private static final boolean OFFERED = Boolean.parseBoolean(System.getProperty("vending.log.compress", "true"));
+    private static final int LEVEL = Integer.getInteger("vending.log.deflateLevel", 6);
+    private static final byte[] DICTIONARY = loadDictionary(System.getProperty("vending.log.deflateDictionary"));
+    private static final String DICTIONARY_ID = DICTIONARY == null ? null : dictionaryId(DICTIONARY);
+
+    private LogCompression() {}
+
+    private static byte[] loadDictionary(String path) {
+        if (path == null || path.isEmpty()) return null;
+        try {
+            byte[] dictionary = Files.readAllBytes(Paths.get(path));
+            return dictionary.length == 0 ? null : dictionary;
+        } catch (IOException e) {
+            System.err.println("압축 사전 읽기 실패 (사전 없이 압축): " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String dictionaryId(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return Long.toHexString(adler.getValue());
+    }
+
+    /**
+     * 자판기가 협상 줄에 붙일 옵션 (압축을 제안하지 않으면 null)
+     */
+    public static String offer() {
+        if (!OFFERED) return null;
+        return DICTIONARY_ID == null ? OPTION : OPTION + " " + DICTIONARY_OPTION + DICTIONARY_ID;
+    }
+
+    /**
+     * 서버가 자판기 제안에 답할 옵션 (압축 제안이 없으면 null)
+     * - 사전은 자판기가 보낸 사전 id가 서버 사전과 같을 때만 사용
+     */
+    public static String accept(List<String> offered) {
+        if (!offered.contains(OPTION)) return null;
+        return usesDictionary(offered) ? OPTION + " " + DICTIONARY_OPTION + DICTIONARY_ID : OPTION;
+    }
+
+    /**
+     * 옵션 목록이 압축 사용을 뜻하는지
+     */
+    public static boolean isEnabled(List<String> options) {
+        return options.contains(OPTION);
+    }
+
+    /**
+     * 옵션 목록의 사전 id가 이쪽 사전과 같은지
+     */
+    public static boolean usesDictionary(List<String> options) {
+        return DICTIONARY_ID != null && options.contains(DICTIONARY_OPTION + DICTIONARY_ID);
+    }
+
+    /**
+     * 연결용 압축기 (다 쓰면 end() 호출)
+     */
+    public static Deflater newDeflater(boolean withDictionary) {
+        Deflater deflater = new Deflater(LEVEL, true);
+        if (withDictionary) deflater.setDictionary(DICTIONARY);
+        return deflater;
+    }
+
+    /**
+     * 연결용 해제기 (다 쓰면 end() 호출)
+     */
+    public static Inflater newInflater(boolean withDictionary) {
+        Inflater inflater = new Inflater(true);
+        if (withDictionary) inflater.setDictionary(DICTIONARY);
+        return inflater;
+    }
+}
@@ -0,0 +1,607 @@
+// network/LogIngestServer.java
+package network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * NIO Selector 기반 매출 로그 수신 서버
+ * - 수락 스레드 1개 + Selector 작업 스레드 몇 개로 수천 대의 자판기 연결을 동시에 처리
+ * - 작업 스레드마다 직접 버퍼(direct buffer) 하나를 재사용하여 읽음
+ * - 줄 단위('\n')로 잘라 Handler에 ByteBuffer로 넘김 (String 생성 없음, 콜백 안에서만 유효)
+ * - 여러 번에 나뉘어 도착한 줄만 연결별 byte[]에 이어 붙임 (maxLineBytes 초과 시 연결 종료)
+ * - Session.send()는 어느 스레드에서나 호출 가능, 쓰기는 해당 작업 스레드가 처리
+ * - 최대 연결 수를 넘는 연결은 바로 끊고, idleTimeoutMs 동안 수신이 없는 연결은 종료
+ * - 수락이 계속 실패하면(파일 디스크립터 부족 등) 점점 간격을 늘려 다시 수락
+ * - Session.switchToFrames() 이후에는 줄 대신 FrameCodec 프레임 단위로 잘라 onFrame으로 넘김
+ *   (본문 최대 길이는 maxLineBytes, CRC가 맞지 않으면 연결 종료)
+ * - switchToFrames(Inflater)로 바꾼 연결은 수신 데이터를 작업 스레드의 해제 버퍼에 풀어서 프레임으로 자름
+ */
+public class LogIngestServer implements Closeable {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_OUTBOUND_BYTES = 256 * 1024; // 연결별 전송 대기 상한 (넘으면 느린 연결로 보고 종료)
+    private static final long IDLE_CHECK_MS = 1000;           // 유휴 연결 검사 주기
+    private static final long MIN_ACCEPT_BACKOFF_MS = 10;     // 수락 실패(파일 디스크립터 부족 등) 후 첫 대기 시간
+    private static final long MAX_ACCEPT_BACKOFF_MS = 1000;   // 수락 실패 대기 시간 상한
+
+    /**
+     * 수신 이벤트 처리기 (모두 작업 스레드에서 호출됨)
+     */
+    public interface Handler {
+        default void onOpen(Session session) {}
+
+        /**
+         * 한 줄 수신 (줄바꿈 제외, position~limit 구간이 한 줄)
+         * - line은 콜백이 끝나면 재사용되므로 보관하려면 복사해야 함
+         */
+        void onLine(Session session, ByteBuffer line);
+
+        /**
+         * 프레임 하나 수신 (switchToFrames 이후, CRC 검사를 마친 본문이 position~limit)
+         * - body는 콜백이 끝나면 재사용되므로 보관하려면 복사해야 함
+         */
+        default void onFrame(Session session, ByteBuffer body) {}
+
+        default void onClose(Session session) {}
+    }
+
+    /**
+     * 클라이언트 연결 하나
+     */
+    public static final class Session {
+        private final long id;
+        private final SocketChannel channel;
+        private final Worker worker;
+        private final SocketAddress remoteAddress;
+        private SelectionKey key;
+
+        // 줄(또는 프레임)이 끝나지 않은 채 남은 바이트 (작업 스레드 전용)
+        private byte[] partial = new byte[0];
+        private int partialLength = 0;
+
+        // 전송 대기
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger outboundBytes = new AtomicInteger();
+        private volatile boolean closed = false;
+        private volatile Object attachment;
+        private long lastActivity = System.nanoTime(); // 마지막 수신 시각 (작업 스레드 전용)
+        private boolean framed = false;                // 프레임 모드 여부 (작업 스레드 전용)
+        private Inflater inflater;                     // 압축 연결의 해제기 (작업 스레드 전용)
+
+        Session(long id, SocketChannel channel, Worker worker) throws IOException {
+            this.id = id;
+            this.channel = channel;
+            this.worker = worker;
+            this.remoteAddress = channel.getRemoteAddress();
+        }
+
+        public long getId() { return id; }
+        public SocketAddress getRemoteAddress() { return remoteAddress; }
+        public boolean isOpen() { return !closed; }
+        public Object getAttachment() { return attachment; }
+        public void setAttachment(Object attachment) { this.attachment = attachment; }
+
+        /**
+         * 데이터 전송 (비동기, 전송 대기량이 상한을 넘으면 연결 종료)
+         * @param data 보낼 바이트 (호출 후 수정하지 말 것)
+         */
+        public void send(byte[] data) {
+            if (closed) return;
+            if (outboundBytes.addAndGet(data.length) > MAX_OUTBOUND_BYTES) {
+                System.err.println("전송 대기량 초과로 연결 종료: " + remoteAddress);
+                close();
+                return;
+            }
+            outbound.add(ByteBuffer.wrap(data));
+            worker.requestFlush(this);
+        }
+
+        /**
+         * 이후 수신 데이터를 줄 대신 프레임으로 처리 (onLine 안에서만 호출, 되돌릴 수 없음)
+         */
+        public void switchToFrames() {
+            switchToFrames(null);
+        }
+
+        /**
+         * 이후 수신 데이터를 inflater로 풀어 프레임으로 처리 (onLine 안에서만 호출, 되돌릴 수 없음)
+         * @param inflater 압축 해제기 (null이면 압축 없음, 연결이 끝나면 서버가 end() 호출)
+         */
+        public void switchToFrames(Inflater inflater) {
+            if (Thread.currentThread() != worker.thread) {
+                throw new IllegalStateException("수신 처리 스레드에서만 호출할 수 있습니다.");
+            }
+            framed = true;
+            this.inflater = inflater;
+        }
+
+        public boolean isFramed() { return framed; }
+        public boolean isCompressed() { return inflater != null; }
+
+        /**
+         * 연결 종료 (작업 스레드에서 처리)
+         */
+        public void close() {
+            worker.requestClose(this);
+        }
+    }
+
+    private final int port;
+    private final Handler handler;
+    private final int maxLineBytes;
+    private final Worker[] workers;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private volatile boolean running = false;
+    private final AtomicLong sessionIds = new AtomicLong();
+    private int maxConnections = Integer.MAX_VALUE;
+    private long idleTimeoutMs = 0; // 0이면 유휴 연결을 끊지 않음
+
+    // 통계
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder idleClosed = new LongAdder();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesInflated = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    /**
+     * @param port 수신 포트
+     * @param workerCount Selector 작업 스레드 수
+     * @param maxLineBytes 한 줄(프레임 본문) 최대 길이
+     * @param handler 수신 이벤트 처리기
+     */
+    public LogIngestServer(int port, int workerCount, int maxLineBytes, Handler handler) {
+        this.port = port;
+        this.maxLineBytes = maxLineBytes;
+        this.handler = handler;
+        this.workers = new Worker[workerCount];
+    }
+
+    /**
+     * 최대 동시 연결 수 설정 (start 전에 호출)
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * 유휴 연결 종료 시간 설정 (start 전에 호출, 0이면 사용 안 함)
+     */
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * 서버 시작 (포트 바인딩 후 즉시 반환)
+     */
+    public synchronized void start() throws IOException {
+        if (running) return;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        running = true;
+
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+            workers[i].thread.start();
+        }
+        acceptor = new Thread(this::acceptLoop, "log-ingest-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // 연결 수락 후 작업 스레드에 순서대로 배분
+    private void acceptLoop() {
+        int next = 0;
+        long backoffMs = 0;
+        while (running) {
+            try {
+                SocketChannel ch = serverChannel.accept();
+                backoffMs = 0;
+                if (connections.incrementAndGet() > maxConnections) {
+                    // 최대 연결 수 초과 - 바로 종료
+                    connections.decrementAndGet();
+                    rejected.increment();
+                    closeQuietly(ch);
+                    continue;
+                }
+                ch.configureBlocking(false);
+                ch.socket().setTcpNoDelay(true);
+                Worker worker = workers[next];
+                next = (next + 1) % workers.length;
+                worker.register(ch);
+                accepted.increment();
+            } catch (ClosedChannelException e) {
+                break; // 종료
+            } catch (IOException e) {
+                if (!running) break;
+                // 같은 오류가 바로 반복되므로 잠시 수락을 멈춤 (바쁜 대기로 CPU/로그를 채우지 않도록)
+                backoffMs = Math.min(Math.max(backoffMs * 2, MIN_ACCEPT_BACKOFF_MS), MAX_ACCEPT_BACKOFF_MS);
+                System.err.println("연결 수락 실패 (" + backoffMs + "ms 후 재시도): " + e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    break; // 종료
+                }
+            }
+        }
+    }
+
+    /**
+     * Selector 작업 스레드 (여러 연결의 읽기/쓰기를 담당)
+     */
+    private final class Worker implements Runnable {
+        final Thread thread;
+        final Selector selector;
+        final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES); // 재사용 읽기 버퍼
+        final ByteBuffer view = readBuffer.duplicate();                              // 한 줄 구간 표시용
+        final ByteBuffer inflated = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);   // 압축 연결 해제 버퍼 (재사용)
+        final ByteBuffer inflatedView = inflated.duplicate();                        // 해제 버퍼 구간 표시용
+        final FrameCodec codec = new FrameCodec(maxLineBytes);                       // 프레임 검사용 (CRC 재사용)
+        final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>(); // 수락 후 등록 대기 중인 연결
+
+        Worker(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "log-ingest-worker-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void register(SocketChannel ch) {
+            pending.add(ch);
+            if (running) {
+                selector.wakeup();
+            } else {
+                closePending(); // 작업 스레드가 이미 종료 정리를 마쳤을 수 있음
+            }
+        }
+
+        // 등록 대기 중인 연결을 Selector에 등록
+        private void registerPending() {
+            SocketChannel ch;
+            while ((ch = pending.poll()) != null) {
+                try {
+                    Session session = new Session(sessionIds.incrementAndGet(), ch, this);
+                    session.key = ch.register(selector, SelectionKey.OP_READ, session);
+                    handler.onOpen(session);
+                } catch (IOException e) {
+                    connections.decrementAndGet();
+                    closeQuietly(ch);
+                }
+            }
+        }
+
+        // 등록되지 못한 연결 닫기 (종료 시)
+        private void closePending() {
+            SocketChannel ch;
+            while ((ch = pending.poll()) != null) {
+                connections.decrementAndGet();
+                closeQuietly(ch);
+            }
+        }
+
+        void requestFlush(Session session) {
+            if (Thread.currentThread() == thread) {
+                flush(session);
+            } else {
+                tasks.add(() -> flush(session));
+                selector.wakeup();
+            }
+        }
+
+        void requestClose(Session session) {
+            if (Thread.currentThread() == thread) {
+                close(session);
+            } else {
+                tasks.add(() -> close(session));
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            long nextIdleCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(IDLE_CHECK_MS);
+            while (running) {
+                try {
+                    selector.select(idleTimeoutMs > 0 ? IDLE_CHECK_MS : 0);
+                    if (idleTimeoutMs > 0 && System.nanoTime() - nextIdleCheck >= 0) {
+                        closeIdle();
+                        nextIdleCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(IDLE_CHECK_MS);
+                    }
+                    registerPending();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) task.run();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Session session = (Session) key.attachment();
+                        if (!key.isValid()) {
+                            close(session);
+                            continue;
+                        }
+                        if (key.isReadable()) read(session);
+                        if (key.isValid() && key.isWritable()) flush(session);
+                    }
+                } catch (IOException e) {
+                    if (running) System.err.println("Selector 오류: " + e.getMessage());
+                }
+            }
+            // 종료 시 남은 연결 정리 (아직 등록되지 않은 연결 포함)
+            closePending();
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Session) close((Session) key.attachment());
+            }
+            closeQuietly(selector);
+        }
+
+        // idleTimeoutMs 동안 수신이 없는 연결 종료
+        private void closeIdle() {
+            long limit = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+            long now = System.nanoTime();
+            for (SelectionKey key : selector.keys()) {
+                Session session = (Session) key.attachment();
+                if (session != null && now - session.lastActivity > limit) {
+                    idleClosed.increment();
+                    close(session);
+                }
+            }
+        }
+
+        // 읽을 수 있는 만큼 읽고 완성된 줄을 처리
+        private void read(Session session) {
+            session.lastActivity = System.nanoTime();
+            while (true) {
+                readBuffer.clear();
+                int n;
+                try {
+                    n = session.channel.read(readBuffer);
+                } catch (IOException e) {
+                    close(session);
+                    return;
+                }
+                if (n < 0) {
+                    close(session);
+                    return;
+                }
+                if (n == 0) return;
+                bytesRead.add(n);
+
+                if (session.framed) {
+                    readFramed(session, 0, n);
+                } else {
+                    readLines(session, n);
+                }
+                if (session.closed) return;
+                if (n < readBuffer.capacity()) return; // 소켓 버퍼를 다 비움
+            }
+        }
+
+        // readBuffer[0, n) 에서 완성된 줄을 처리 (도중에 프레임 모드로 바뀌면 나머지는 프레임으로)
+        private void readLines(Session session, int n) {
+            int start = 0;
+            for (int i = 0; i < n; i++) {
+                if (readBuffer.get(i) != '\n') continue;
+                if (session.partialLength > 0) {
+                    // 이전에 남은 조각 + 이번 줄 앞부분
+                    if (!appendPartial(session, view, start, i, maxLineBytes)) return;
+                    deliver(session, ByteBuffer.wrap(session.partial, 0, session.partialLength));
+                    session.partialLength = 0;
+                } else {
+                    view.limit(i).position(start);
+                    deliver(session, view);
+                }
+                if (session.closed) return;
+                start = i + 1;
+                if (session.framed) {
+                    if (start < n) readFramed(session, start, n);
+                    return;
+                }
+            }
+            if (start < n) appendPartial(session, view, start, n, maxLineBytes);
+        }
+
+        // readBuffer[from, to) 를 프레임으로 처리 (압축 연결이면 해제 버퍼에 풀어가며 처리)
+        private void readFramed(Session session, int from, int to) {
+            Inflater inflater = session.inflater;
+            if (inflater == null) {
+                readFrames(session, view, from, to);
+                return;
+            }
+            view.limit(to).position(from);
+            inflater.setInput(view);
+            try {
+                // 입력을 모두 풀 때까지 반복 (readBuffer는 다음 읽기에서 재사용되므로 남기지 않음)
+                int produced;
+                do {
+                    inflated.clear();
+                    produced = inflater.inflate(inflated);
+                    if (produced > 0) {
+                        bytesInflated.add(produced);
+                        readFrames(session, inflatedView, 0, produced);
+                        if (session.closed) return;
+                    }
+                } while (produced > 0);
+                if (inflater.finished() || inflater.needsDictionary()) {
+                    throw new DataFormatException("압축 스트림이 예상과 다릅니다");
+                }
+            } catch (DataFormatException e) {
+                System.err.println("압축 해제 실패 (" + e.getMessage() + "), 연결 종료: " + session.remoteAddress);
+                close(session);
+            }
+        }
+
+        // src[from, to) 에서 완성된 프레임을 처리, 남은 조각은 연결별 byte[]에 보관
+        // - src는 readBuffer 또는 해제 버퍼의 구간 표시용 view
+        private void readFrames(Session session, ByteBuffer src, int from, int to) {
+            int maxFrame = codec.getMaxFrameBytes();
+            int pos = from;
+            try {
+                while (pos < to) {
+                    if (session.partialLength == 0) {
+                        // 읽기 버퍼 안에서 바로 처리 (복사 없음)
+                        src.limit(to).position(pos);
+                        int total = codec.frameLength(src);
+                        if (total < 0 || total > to - pos) {
+                            appendPartial(session, src, pos, to, maxFrame); // 다음 읽기로 이어짐
+                            return;
+                        }
+                        src.limit(pos + total);
+                        codec.openFrame(src);
+                        deliverFrame(session, src);
+                        if (session.closed) return;
+                        pos += total;
+                        continue;
+                    }
+
+                    // 이전 조각에 이번 프레임을 완성하는 데 필요한 만큼만 이어 붙임
+                    int total = codec.frameLength(ByteBuffer.wrap(session.partial, 0, session.partialLength));
+                    int need = (total < 0 ? FrameCodec.MAX_HEADER_BYTES : total) - session.partialLength;
+                    int take = Math.min(need, to - pos);
+                    if (!appendPartial(session, src, pos, pos + take, maxFrame)) return;
+                    pos += take;
+                    if (total > 0 && session.partialLength == total) {
+                        ByteBuffer frame = ByteBuffer.wrap(session.partial, 0, total);
+                        codec.openFrame(frame);
+                        deliverFrame(session, frame);
+                        session.partialLength = 0;
+                        if (session.closed) return;
+                    }
+                }
+            } catch (ProtocolException e) {
+                System.err.println("잘못된 프레임 (" + e.getMessage() + "), 연결 종료: " + session.remoteAddress);
+                close(session);
+            }
+        }
+
+        // src[from, to) 를 연결의 미완성 줄(프레임) 뒤에 이어 붙임
+        private boolean appendPartial(Session session, ByteBuffer src, int from, int to, int max) {
+            int length = to - from;
+            int needed = session.partialLength + length;
+            if (needed > max) {
+                System.err.println("한 줄이 너무 깁니다 (" + needed + "바이트), 연결 종료: " + session.remoteAddress);
+                close(session);
+                return false;
+            }
+            if (needed > session.partial.length) {
+                session.partial = Arrays.copyOf(session.partial, Math.min(max, Math.max(needed, session.partial.length * 2)));
+            }
+            src.limit(to).position(from);
+            src.get(session.partial, session.partialLength, length);
+            session.partialLength = needed;
+            return true;
+        }
+
+        // 줄 끝의 '\r' 제거 후 처리기로 전달
+        private void deliver(Session session, ByteBuffer line) {
+            int end = line.limit();
+            if (end > line.position() && line.get(end - 1) == '\r') line.limit(end - 1);
+            lines.increment();
+            try {
+                handler.onLine(session, line);
+            } catch (RuntimeException e) {
+                System.err.println("로그 처리 중 오류: " + e.getMessage());
+            }
+        }
+
+        // 검사를 마친 프레임 본문을 처리기로 전달
+        private void deliverFrame(Session session, ByteBuffer body) {
+            frames.increment();
+            try {
+                handler.onFrame(session, body);
+            } catch (RuntimeException e) {
+                System.err.println("프레임 처리 중 오류: " + e.getMessage());
+            }
+        }
+
+        // 전송 대기 데이터를 가능한 만큼 전송, 남으면 OP_WRITE 등록
+        private void flush(Session session) {
+            if (session.closed) return;
+            try {
+                ByteBuffer buf;
+                while ((buf = session.outbound.peek()) != null) {
+                    int written = session.channel.write(buf);
+                    bytesWritten.add(written);
+                    session.outboundBytes.addAndGet(-written);
+                    if (buf.hasRemaining()) break; // 소켓 송신 버퍼가 가득 참
+                    session.outbound.poll();
+                }
+                int ops = session.outbound.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                if (session.key.interestOps() != ops) session.key.interestOps(ops);
+            } catch (IOException e) {
+                close(session);
+            }
+        }
+
+        private void close(Session session) {
+            if (session == null || session.closed) return;
+            session.closed = true;
+            if (session.key != null) session.key.cancel();
+            closeQuietly(session.channel);
+            if (session.inflater != null) session.inflater.end();
+            connections.decrementAndGet();
+            try {
+                handler.onClose(session);
+            } catch (RuntimeException e) {
+                System.err.println("연결 종료 처리 중 오류: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable c) {
+        try {
+            c.close();
+        } catch (IOException ignored) {
+            // 닫기 실패는 무시
+        }
+    }
+
+    /**
+     * 서버 종료 (수락 중단, 모든 연결 종료)
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) return;
+        running = false;
+        closeQuietly(serverChannel);
+        if (acceptor != null) acceptor.interrupt(); // 수락 재시도 대기 중이면 깨움
+        for (Worker w : workers) {
+            if (w != null) w.selector.wakeup();
+        }
+    }
+
+    // 통계 조회
+    public int getConnectionCount() { return connections.get(); }
+    public long getAcceptedCount() { return accepted.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+    public long getIdleClosedCount() { return idleClosed.sum(); }
+    public long getLineCount() { return lines.sum(); }
+    public long getFrameCount() { return frames.sum(); }
+    public long getBytesRead() { return bytesRead.sum(); }
+    public long getBytesInflated() { return bytesInflated.sum(); }
+    public long getBytesWritten() { return bytesWritten.sum(); }
+}
@@ -0,0 +1,133 @@
+// network/SaleRingBuffer.java
+package network;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 전송 대기 매출을 담는 고정 크기 링 버퍼 (힙 밖 direct buffer)
+ * - 한 건 형식: [길이 int][시퀀스 long][epochDay int][가격 int][수량 int][음료명 UTF-8]
+ * - 공간이 모자라면 추가하지 않음 (확인되지 않은 기록은 지우지 않고, 넘친 기록은 SalesLogShipper가 DB에서 다시 채움)
+ * - 스레드 안전하지 않음 (SalesLogShipper가 lock 안에서만 사용)
+ */
+final class SaleRingBuffer {
+
+    private static final int HEADER_BYTES = 4 + 8 + 4 + 4 + 4;
+    static final int MAX_RECORD_BYTES = HEADER_BYTES + SalesProtocol.MAX_NAME_BYTES;
+
+    private final ByteBuffer ring;
+    private final int capacity;
+    private final byte[] scratch = new byte[MAX_RECORD_BYTES];        // 한 건 인코딩/디코딩용 (재사용)
+    private final ByteBuffer record = ByteBuffer.wrap(scratch);
+    private int head = 0;  // 가장 오래된 기록의 시작 위치
+    private int used = 0;  // 사용 중인 바이트 수
+    private int count = 0; // 기록 건수
+
+    /**
+     * @param capacity 버퍼 크기 (바이트, 최소 한 건 최대 크기)
+     */
+    SaleRingBuffer(int capacity) {
+        this.capacity = Math.max(capacity, MAX_RECORD_BYTES);
+        this.ring = ByteBuffer.allocateDirect(this.capacity);
+    }
+
+    /**
+     * 맨 뒤에 한 건 추가
+     * @return 추가했으면 1, 공간이 모자라면 0 (기존 기록은 그대로), 음료명이 너무 길면 -1
+     */
+    int add(SalesProtocol.Sale sale) {
+        byte[] name = sale.drinkName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > SalesProtocol.MAX_NAME_BYTES) return -1;
+        int size = HEADER_BYTES + name.length;
+        if (capacity - used < size) return 0;
+
+        record.clear();
+        record.putInt(size).putLong(sale.seq).putInt(sale.epochDay).putInt(sale.price).putInt(sale.quantity).put(name);
+        write((head + used) % capacity, size);
+        used += size;
+        count++;
+        return 1;
+    }
+
+    /**
+     * 가장 오래된 기록의 시퀀스 (비어 있으면 호출 금지)
+     */
+    long firstSeq() {
+        read(head, HEADER_BYTES);
+        return record.getLong(4);
+    }
+
+    /**
+     * 앞에서부터 시퀀스가 seq 이하인 기록 수
+     */
+    int countThrough(long seq) {
+        int pos = head;
+        int n = 0;
+        while (n < count) {
+            read(pos, HEADER_BYTES);
+            if (record.getLong(4) > seq) break;
+            pos = (pos + record.getInt(0)) % capacity;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 가장 오래된 기록 제거
+     */
+    void removeFirst() {
+        if (count == 0) return;
+        int size = sizeAt(head);
+        head = (head + size) % capacity;
+        used -= size;
+        if (--count == 0) {
+            head = 0;
+            used = 0;
+        }
+    }
+
+    /**
+     * 앞에서 skip건을 건너뛰고 최대 max건을 out에 추가
+     * @return 추가한 건수
+     */
+    int copy(int skip, int max, List<SalesProtocol.Sale> out) {
+        int pos = head;
+        for (int i = 0; i < skip && i < count; i++) pos = (pos + sizeAt(pos)) % capacity;
+
+        int copied = 0;
+        for (int i = skip; i < count && copied < max; i++) {
+            int size = sizeAt(pos);
+            read(pos, size);
+            out.add(new SalesProtocol.Sale(record.getLong(4), record.getInt(12), new String(scratch, HEADER_BYTES,
+                    size - HEADER_BYTES, StandardCharsets.UTF_8), record.getInt(16), record.getInt(20)));
+            pos = (pos + size) % capacity;
+            copied++;
+        }
+        return copied;
+    }
+
+    int size() { return count; }
+    boolean isEmpty() { return count == 0; }
+    int usedBytes() { return used; }
+    int capacity() { return capacity; }
+
+    private int sizeAt(int pos) {
+        read(pos, 4);
+        return record.getInt(0);
+    }
+
+    // scratch[0, length) → ring[pos...] (끝에 닿으면 앞으로 이어서)
+    private void write(int pos, int length) {
+        int first = Math.min(length, capacity - pos);
+        ring.put(pos, scratch, 0, first);
+        if (first < length) ring.put(0, scratch, first, length - first);
+    }
+
+    // ring[pos...] → scratch[0, length)
+    private void read(int pos, int length) {
+        int first = Math.min(length, capacity - pos);
+        ring.get(pos, scratch, 0, first);
+        if (first < length) ring.get(0, scratch, first, length - first);
+    }
+}
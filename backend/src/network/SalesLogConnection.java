@@ -0,0 +1,320 @@
+// network/SalesLogConnection.java
+package network;
+
+import util.SimpleEncryptor;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * 자판기 → 서버 매출 로그 전송 연결
+ * - 연결 시 이진 프로토콜(SalesProtocol)을 제안하고, 서버가 제때 답하지 않으면 기존 Base64 텍스트 줄로 전송
+ * - 보낼 내용은 재사용 버퍼에 모았다가 flush()에서 한 번에 씀 (버퍼가 차면 자동 flush)
+ * - 서버가 압축 옵션을 받아들이면 flush()마다 deflate SYNC_FLUSH로 압축해 전송 (LogCompression)
+ * - 서버 경고와 수신 확인(v2)은 수신 스레드에서 Listener로 전달
+ */
+public class SalesLogConnection implements Closeable {
+
+    private static final int NEGOTIATE_TIMEOUT_MS = Integer.getInteger("vending.log.negotiateTimeoutMs", 1000);
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_RECORD_BYTES = 2 * (SalesProtocol.MAX_FRAME_BYTES + FrameCodec.MAX_HEADER_BYTES + FrameCodec.CRC_BYTES);
+
+    /**
+     * 서버 메시지 수신 함수 (수신 스레드에서 호출됨)
+     */
+    public interface Listener {
+        void onWarning(String message);
+
+        /**
+         * 서버가 seq까지 모두 받음 (v2 이진 모드)
+         */
+        default void onAck(long seq) {}
+
+        /**
+         * 연결이 끊김 (수신 스레드 종료 직전)
+         */
+        default void onClosed() {}
+    }
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final String clientId;
+    private final int version;             // 협상된 이진 프로토콜 버전 (0이면 텍스트)
+    private long serverLastSeq = 0;        // 서버가 이미 받은 마지막 시퀀스 (v2 협상 응답)
+    private final SalesProtocol.Encoder encoder = new SalesProtocol.Encoder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES); // 전송 버퍼 (재사용)
+    private Deflater deflater;             // 압축 협상 시에만 (연결 동안 사전/상태 유지)
+    private byte[] compressed;             // 압축 출력 버퍼 (재사용)
+    private final Listener listener;
+    private volatile boolean closed = false;
+    private volatile long bytesSent = 0;   // 협상 이후 전송한 바이트 수 (압축 후)
+    private volatile long rawBytes = 0;    // 협상 이후 전송한 바이트 수 (압축 전)
+    private volatile long compressNanos = 0; // 압축에 쓴 시간
+
+    /**
+     * @param preferBinary 이진 프로토콜 제안 여부 (false면 처음부터 텍스트)
+     * @param clientId 자판기 ID (서버가 시퀀스 중복 제거에 사용)
+     * @param listener 서버 메시지 수신 함수 (null 가능)
+     */
+    public SalesLogConnection(String host, int port, boolean preferBinary, String clientId, Listener listener) throws IOException {
+        this.socket = new Socket(host, port);
+        this.clientId = clientId;
+        this.listener = listener;
+        try {
+            socket.setTcpNoDelay(true);
+            this.out = socket.getOutputStream();
+            this.version = preferBinary ? negotiate(socket.getInputStream()) : 0;
+        } catch (IOException e) {
+            if (deflater != null) deflater.end();
+            socket.close();
+            throw e;
+        }
+
+        Thread reader = new Thread(this::readLoop, "sales-log-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // 버전 협상 (서버가 "#VMB/버전"으로 답하면 이진 모드), 협상된 버전 반환 (텍스트면 0)
+    // - 서버가 압축 옵션을 그대로 돌려주면 이후 전송을 압축
+    private int negotiate(InputStream in) throws IOException {
+        String hello = SalesProtocol.hello(SalesProtocol.VERSION, clientId, LogCompression.offer());
+        out.write((hello + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        socket.setSoTimeout(NEGOTIATE_TIMEOUT_MS);
+        try {
+            String reply = SalesProtocol.readLine(in, 128);
+            if (reply == null) throw new IOException("협상 중 서버가 연결을 끊었습니다"); // 연결 수 초과 등
+            int accepted = SalesProtocol.parseHello(reply);
+            if (accepted < 1 || accepted > SalesProtocol.VERSION) return 0;
+            if (accepted >= SalesProtocol.MIN_ACK_VERSION) {
+                try {
+                    serverLastSeq = Long.parseLong(SalesProtocol.helloArgument(reply));
+                } catch (NumberFormatException e) {
+                    serverLastSeq = 0;
+                }
+            }
+            List<String> options = SalesProtocol.helloOptions(reply);
+            if (LogCompression.isEnabled(options)) {
+                deflater = LogCompression.newDeflater(LogCompression.usesDictionary(options));
+                compressed = new byte[BUFFER_BYTES / 4];
+            }
+            return accepted;
+        } catch (SocketTimeoutException e) {
+            return 0; // 텍스트 전용 서버 (응답 없이 연결 유지)
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    /**
+     * 이진 프로토콜 사용 여부
+     */
+    public boolean isBinary() {
+        return version > 0;
+    }
+
+    /**
+     * 서버가 BATCH/ACK를 지원하는지 여부 (아니면 sendBatch는 한 건씩 보내고 확인 없음)
+     */
+    public boolean isAcknowledged() {
+        return version >= SalesProtocol.MIN_ACK_VERSION;
+    }
+
+    /**
+     * 연결 시 서버가 알려준 마지막 수신 시퀀스 (이 이하는 다시 보낼 필요 없음)
+     */
+    public long getServerLastSeq() {
+        return serverLastSeq;
+    }
+
+    /**
+     * 압축 전송 여부
+     */
+    public boolean isCompressed() {
+        return compressed != null;
+    }
+
+    /**
+     * 협상 이후 전송한 바이트 수 (flush된 것만, 압축 후 실제 전송량)
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * 협상 이후 전송한 바이트 수 (flush된 것만, 압축 전)
+     */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * 압축에 쓴 누적 시간 (나노초)
+     */
+    public long getCompressNanos() {
+        return compressNanos;
+    }
+
+    public boolean isOpen() {
+        return !closed && !socket.isClosed();
+    }
+
+    /**
+     * 매출 한 건 전송 대기열에 추가 (flush 전까지 버퍼에만 기록)
+     */
+    public synchronized void sendSale(LocalDate saleDate, String drinkName, int price, int quantity) throws IOException {
+        if (buffer.remaining() < MAX_RECORD_BYTES) flush();
+        if (version > 0) {
+            encoder.sale(buffer, (int) saleDate.toEpochDay(), drinkName, price, quantity);
+        } else {
+            String line = SimpleEncryptor.encrypt(String.format("%s,%s,%d,%d", saleDate, drinkName, price, quantity));
+            byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            if (bytes.length + 1 > buffer.remaining()) {
+                flush();
+                out.write(bytes);
+                out.write('\n');
+                bytesSent += bytes.length + 1;
+                rawBytes += bytes.length + 1;
+                return;
+            }
+            buffer.put(bytes).put((byte) '\n');
+        }
+    }
+
+    /**
+     * 시퀀스가 붙은 매출 여러 건을 전송 버퍼에 기록 (flush 전까지 전송하지 않음)
+     * - v2 이진 모드: BATCH 프레임 하나 (수신 확인은 Listener.onAck)
+     * - 그 외: 한 건씩 기록 (확인 없음)
+     * @return 기록한 건수 (앞에서부터)
+     */
+    public synchronized int sendBatch(List<SalesProtocol.Sale> sales) throws IOException {
+        if (sales.isEmpty()) return 0;
+        if (!isAcknowledged()) {
+            for (SalesProtocol.Sale sale : sales) {
+                sendSale(LocalDate.ofEpochDay(sale.epochDay), sale.drinkName, sale.price, sale.quantity);
+            }
+            return sales.size();
+        }
+        int count = encoder.batch(buffer, sales);
+        if (count == 0) {
+            flush();
+            count = encoder.batch(buffer, sales);
+        }
+        return count;
+    }
+
+    /**
+     * 버퍼에 모인 내용을 한 번에 전송
+     * - 압축 모드면 SYNC_FLUSH로 압축 (서버가 지금까지 보낸 프레임을 바로 풀 수 있도록 바이트 경계를 맞춤)
+     */
+    public synchronized void flush() throws IOException {
+        if (buffer.position() > 0) {
+            rawBytes += buffer.position();
+            if (deflater != null) {
+                writeCompressed();
+            } else {
+                out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+                bytesSent += buffer.position();
+            }
+            buffer.clear();
+        }
+        out.flush();
+    }
+
+    // 버퍼 내용을 압축해 전송 (출력 버퍼가 가득 차면 남은 출력이 있으므로 다시 호출)
+    private void writeCompressed() throws IOException {
+        long start = System.nanoTime();
+        deflater.setInput(buffer.array(), buffer.arrayOffset(), buffer.position());
+        int n;
+        do {
+            n = deflater.deflate(compressed, 0, compressed.length, Deflater.SYNC_FLUSH);
+            out.write(compressed, 0, n);
+            bytesSent += n;
+        } while (n == compressed.length);
+        compressNanos += System.nanoTime() - start;
+    }
+
+    // 서버 경고/수신 확인 수신
+    private void readLoop() {
+        try {
+            InputStream in = socket.getInputStream();
+            if (version > 0) {
+                SalesProtocol.Decoder decoder = new SalesProtocol.Decoder();
+                FrameCodec codec = new FrameCodec(SalesProtocol.MAX_FRAME_BYTES);
+                ByteBuffer inBuffer = ByteBuffer.allocate(codec.getMaxFrameBytes());
+                SalesProtocol.Listener messages = new SalesProtocol.Listener() {
+                    @Override
+                    public void onWarning(String message) {
+                        if (listener != null) listener.onWarning(message);
+                    }
+
+                    @Override
+                    public void onAck(long seq) {
+                        if (listener != null) listener.onAck(seq);
+                    }
+                };
+                while (codec.readFrames(in, inBuffer, body -> decoder.decode(body, messages))) {
+                    // 프레임마다 decoder가 처리
+                }
+            } else {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String msg = line.trim();
+                    if (!msg.isEmpty() && listener != null) listener.onWarning(msg);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) System.err.println("서버 경고 수신 실패: " + e.getMessage());
+        } finally {
+            closeQuietly();
+            endDeflater();
+            if (listener != null) listener.onClosed();
+        }
+    }
+
+    // 버퍼를 비우지 않고 바로 종료 (연결이 이미 끊긴 경우)
+    private void closeQuietly() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 이미 닫힘
+        }
+    }
+
+    // 압축기 해제 (전송 중인 flush와 겹치지 않도록 잠금 안에서)
+    private synchronized void endDeflater() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
+
+    /**
+     * 남은 내용을 전송하고 연결 종료
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            flush();
+        } finally {
+            closed = true;
+            socket.close();
+            endDeflater();
+        }
+    }
+}
@@ -0,0 +1,451 @@
+// network/SalesLogShipper.java
+package network;
+
+import service.SalesExporter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 매출 로그 전송기 (자판기 → 서버, 확인 응답 기반)
+ * - offer()는 대기열에 넣고 바로 반환, 전송 스레드가 쌓인 기록을 BATCH 프레임으로 묶어 보냄
+ * - 확인(ACK)을 기다리지 않고 최대 window개 프레임까지 연속 전송 (확인이 밀릴수록 다음 BATCH가 커짐)
+ * - 서버 ACK는 누적 (그 시퀀스까지 모두 받음) → 확인된 기록만 대기열에서 제거
+ * - 연결이 끊기면 다시 연결한 뒤 서버가 알려준 마지막 시퀀스 다음부터 재전송 (서버는 시퀀스로 중복 제거)
+ * - 연결 실패 시 재시도 간격을 두 배씩 늘림 (최대 vending.log.reconnectMaxMs, 무작위 지연을 섞어 서버 재시작 시 몰림 방지)
+ *   연결이 vending.log.stableLinkMs 이상 유지된 뒤 끊겼을 때만 간격을 처음으로 되돌림 (받자마자 끊는 서버에 몰리지 않도록)
+ * - 대기열은 힙 밖 고정 크기 링 버퍼 (maxPendingBytes), 확인되지 않은 기록은 버리지 않음
+ *   (서버는 자판기별 마지막 시퀀스 이하를 중복으로 거르므로, 앞선 기록을 버리고 뒤 기록을 보내면 버린 기록은 다시 받지 못함)
+ * - 링이 가득 차면 그 뒤 기록은 링에 넣지 않고, 확인으로 절반 이상 비면 넣지 못한 기록부터 sales_log에서
+ *   저널 시퀀스 순으로 읽어 채움 (SalesExporter.exportJournal, 아직 DB에 저장되지 않았으면 잠시 후 다시)
+ *   채우기가 따라잡을 때까지 새 기록도 링에 넣지 않아 링 안의 시퀀스 순서를 유지
+ * - 서버가 BATCH/ACK를 지원하지 않으면 (v1/텍스트) 보낸 즉시 확인된 것으로 처리
+ * - 연결 상태가 바뀌면 StateListener로 알림 (전송 스레드에서 호출)
+ */
+public class SalesLogShipper implements Closeable {
+
+    private static final long RECONNECT_MIN_MS = Long.getLong("vending.log.reconnectMinMs", 500);
+    private static final long RECONNECT_MAX_MS = Long.getLong("vending.log.reconnectMaxMs", 30_000);
+    private static final long STABLE_LINK_MS = Long.getLong("vending.log.stableLinkMs", 5_000);
+    private static final long ACK_TIMEOUT_MS = Long.getLong("vending.log.ackTimeoutMs", 10_000);
+    private static final long REFILL_RETRY_MS = 500; // DB에 아직 없는 기록을 다시 찾기까지 대기
+    private static final int REFILL_ROWS = 1000;     // 한 번에 DB에서 읽을 최대 행 수
+
+    /**
+     * 연결 상태
+     */
+    public enum State {
+        CONNECTING,   // 연결 시도 중
+        CONNECTED,    // 연결됨 (전송 가능)
+        DISCONNECTED, // 끊김, 재시도 대기 중
+        CLOSED        // 종료됨
+    }
+
+    /**
+     * 연결 상태 변경 수신 함수 (전송 스레드 또는 close 호출 스레드에서 호출됨)
+     */
+    public interface StateListener {
+        /**
+         * @param detail 화면 표시용 설명 (서버 주소, 다음 재시도까지 남은 시간 등)
+         */
+        void onStateChanged(State state, String detail);
+    }
+
+    private final String host;
+    private final int port;
+    private final String clientId;
+    private final boolean preferBinary;
+    private final int window;
+    private final SalesLogConnection.Listener warnings;
+    private final StateListener stateListener;
+
+    // 전송 상태 (lock으로 보호)
+    private final Object lock = new Object();
+    private final SaleRingBuffer pending;                                      // 확인되지 않은 기록 (시퀀스 순)
+    private int sentCount = 0;                                                 // pending 앞쪽 중 현재 연결로 보낸 건수
+    private long queuedSeq = 0;                                                // pending에 넣었거나 서버가 확인한 마지막 시퀀스
+    private long overflowSeq = 0;                                              // 링에 넣지 못한 마지막 시퀀스 (queuedSeq보다 크면 채우는 중)
+    private long refillAtNanos = System.nanoTime();                            // 다음 채우기를 시도할 시각
+    private final ArrayDeque<Long> inFlight = new ArrayDeque<>();              // 확인을 기다리는 프레임의 마지막 시퀀스
+    private long lastAckNanos = 0;
+    private SalesLogConnection connection;
+    private volatile boolean running = true;
+    private volatile State state = State.DISCONNECTED;
+    private long reconnectDelayMs = RECONNECT_MIN_MS; // 다음 재시도 간격 (전송 스레드 전용)
+    private long connectedNanos = 0;                  // 마지막 연결 성립 시각 (0이면 없음, 전송 스레드 전용)
+
+    private final Thread sender;
+    private final List<SalesProtocol.Sale> batch = new ArrayList<>(SalesProtocol.MAX_BATCH); // 전송 스레드 전용
+
+    // 통계
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder acked = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder retransmitted = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    /**
+     * @param clientId 자판기 ID
+     * @param preferBinary 이진 프로토콜 제안 여부
+     * @param maxPendingBytes 확인 대기 버퍼 크기 (바이트, 힙 밖에 할당)
+     * @param window 확인 없이 연속으로 보낼 최대 프레임 수
+     * @param warnings 서버 경고 수신 함수 (null 가능)
+     */
+    public SalesLogShipper(String host, int port, String clientId, boolean preferBinary,
+                           int maxPendingBytes, int window, SalesLogConnection.Listener warnings) {
+        this(host, port, clientId, preferBinary, maxPendingBytes, window, warnings, null);
+    }
+
+    /**
+     * @param stateListener 연결 상태 변경 수신 함수 (null 가능)
+     */
+    public SalesLogShipper(String host, int port, String clientId, boolean preferBinary,
+                           int maxPendingBytes, int window, SalesLogConnection.Listener warnings,
+                           StateListener stateListener) {
+        this.host = host;
+        this.port = port;
+        this.clientId = clientId;
+        this.preferBinary = preferBinary;
+        this.pending = new SaleRingBuffer(maxPendingBytes);
+        this.window = window;
+        this.warnings = warnings;
+        this.stateListener = stateListener;
+        this.sender = new Thread(this::runLoop, "sales-log-shipper");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    /**
+     * 전송 대기열에 추가 (블로킹 없음)
+     * @param seq 자판기별 단조 증가 시퀀스 (매출 저널 시퀀스)
+     */
+    public void offer(long seq, LocalDate saleDate, String drinkName, int price, int quantity) {
+        SalesProtocol.Sale sale = new SalesProtocol.Sale(seq, (int) saleDate.toEpochDay(), drinkName, price, quantity);
+        offered.increment();
+        synchronized (lock) {
+            if (seq <= queuedSeq) return; // 채우기로 이미 넣었거나 서버가 이미 받음
+            int added = overflowSeq > queuedSeq ? 0 : pending.add(sale); // 채우는 중이면 순서를 지키려고 넣지 않음
+            if (added == 0) {
+                overflowSeq = seq;
+                overflowed.increment();
+                return;
+            }
+            if (added < 0) dropped.increment(); // 음료명이 너무 김
+            queuedSeq = seq;
+            lock.notifyAll();
+        }
+    }
+
+    // 전송 스레드: 연결 유지, 보낼 기록이 있고 창에 여유가 있으면 BATCH 전송
+    private void runLoop() {
+        while (running) {
+            SalesLogConnection conn = ensureConnected();
+            if (conn == null) {
+                if (!awaitRetry()) break;
+                continue;
+            }
+            try {
+                boolean refill = false;
+                long refillAfter;
+                synchronized (lock) {
+                    while (running && connection == conn && !(refill = refillDue())
+                            && (sentCount >= pending.size() || inFlight.size() >= window)) {
+                        if (!inFlight.isEmpty()
+                                && System.nanoTime() - lastAckNanos > TimeUnit.MILLISECONDS.toNanos(ACK_TIMEOUT_MS)) {
+                            throw new IOException("수신 확인 시간 초과");
+                        }
+                        long waitMs = inFlight.isEmpty() ? 0 : Math.max(1, ACK_TIMEOUT_MS / 4);
+                        if (overflowSeq > queuedSeq) waitMs = waitMs == 0 ? REFILL_RETRY_MS : Math.min(waitMs, REFILL_RETRY_MS);
+                        lock.wait(waitMs);
+                    }
+                    if (!running || connection != conn) continue;
+                    refillAfter = queuedSeq;
+                    if (!refill) {
+                        batch.clear();
+                        pending.copy(sentCount, SalesProtocol.MAX_BATCH, batch);
+                    }
+                }
+                if (refill) {
+                    refill(refillAfter); // DB 조회는 잠금 밖에서
+                    continue;
+                }
+
+                // 소켓 쓰기는 잠금 밖에서
+                int count = conn.sendBatch(batch);
+                if (count == 0) throw new IOException("전송 버퍼 공간 부족");
+                conn.flush();
+                frames.increment();
+                long lastSeq = batch.get(count - 1).seq;
+                synchronized (lock) {
+                    if (connection != conn) continue;
+                    // 보내는 동안 ACK로 앞쪽 기록이 빠졌을 수 있으므로 더하지 않고 남은 기록 중 lastSeq까지를 다시 셈
+                    sentCount = pending.countThrough(lastSeq);
+                    if (conn.isAcknowledged()) {
+                        if (inFlight.isEmpty()) lastAckNanos = System.nanoTime();
+                        inFlight.addLast(lastSeq);
+                    } else {
+                        acknowledge(lastSeq); // 확인을 지원하지 않는 서버
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("매출 로그 전송 실패: " + e.getMessage());
+                disconnect(conn);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    // 연결이 없으면 연결 시도 (실패 시 null)
+    private SalesLogConnection ensureConnected() {
+        synchronized (lock) {
+            if (connection != null) return connection;
+        }
+        if (connectedNanos != 0) {
+            // 직전 연결이 끊김: 한동안 정상이었으면 바로 재연결, 금방 끊겼으면 재시도 간격을 두고 연결
+            boolean stable = System.nanoTime() - connectedNanos >= TimeUnit.MILLISECONDS.toNanos(STABLE_LINK_MS);
+            connectedNanos = 0;
+            if (!stable) return null;
+            reconnectDelayMs = RECONNECT_MIN_MS;
+        }
+        changeState(State.CONNECTING, host + ":" + port);
+        SalesLogConnection[] self = new SalesLogConnection[1];
+        SalesLogConnection conn;
+        try {
+            conn = new SalesLogConnection(host, port, preferBinary, clientId, new SalesLogConnection.Listener() {
+                @Override
+                public void onWarning(String message) {
+                    if (warnings != null) warnings.onWarning(message);
+                }
+
+                @Override
+                public void onAck(long seq) {
+                    synchronized (lock) {
+                        acknowledge(seq);
+                    }
+                }
+
+                @Override
+                public void onClosed() {
+                    // 수신 스레드가 먼저 끊김을 알게 된 경우 → 전송 스레드가 다시 연결
+                    if (self[0] != null) disconnect(self[0]);
+                }
+            });
+        } catch (IOException e) {
+            return null;
+        }
+        self[0] = conn;
+        if (!conn.isOpen()) return null; // 협상 직후 끊김
+        synchronized (lock) {
+            if (!running) {
+                self[0] = null;
+            } else {
+                reconnects.increment();
+                connection = conn;
+                retransmitted.add(sentCount);
+                sentCount = 0;
+                inFlight.clear();
+                if (conn.isAcknowledged()) acknowledge(conn.getServerLastSeq()); // 서버가 이미 받은 기록 제거
+            }
+        }
+        if (self[0] == null) {
+            disconnect(conn); // 연결 중에 종료됨
+            return null;
+        }
+        connectedNanos = System.nanoTime();
+        changeState(State.CONNECTED, host + ":" + port + (conn.isBinary() ? " (이진" : " (텍스트")
+                + (conn.isCompressed() ? ", 압축)" : ")"));
+        return conn;
+    }
+
+    // 다음 재시도까지 대기 (간격은 실패할 때마다 두 배, 절반~전체 사이 무작위), 종료되면 false
+    private boolean awaitRetry() {
+        long delay = reconnectDelayMs / 2 + ThreadLocalRandom.current().nextLong(reconnectDelayMs / 2 + 1);
+        reconnectDelayMs = Math.min(RECONNECT_MAX_MS, reconnectDelayMs * 2);
+        changeState(State.DISCONNECTED, String.format("%.1f초 후 재연결", delay / 1000.0));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        synchronized (lock) {
+            try {
+                while (running) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) return true;
+                    lock.wait(remaining); // offer()가 깨워도 남은 시간만큼 다시 대기
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return false;
+    }
+
+    // 상태가 바뀌었으면 알림 (재시도 대기는 남은 시간이 달라지므로 매번 알림, 종료 후에는 무시)
+    private synchronized void changeState(State newState, String detail) {
+        if (state == State.CLOSED || (newState == state && newState != State.DISCONNECTED)) return;
+        state = newState;
+        if (stateListener == null) return;
+        try {
+            stateListener.onStateChanged(newState, detail);
+        } catch (RuntimeException e) {
+            System.err.println("연결 상태 알림 실패: " + e.getMessage());
+        }
+    }
+
+    // 넣지 못한 기록이 있고 링이 절반 이상 비었으면 채울 차례 (lock 보유 상태에서 호출)
+    private boolean refillDue() {
+        return overflowSeq > queuedSeq && pending.usedBytes() <= pending.capacity() / 2
+                && System.nanoTime() - refillAtNanos >= 0;
+    }
+
+    // afterSeq 다음 기록을 sales_log에서 저널 시퀀스 순으로 읽어 링의 빈 공간만큼 채움 (전송 스레드 전용)
+    private void refill(long afterSeq) {
+        List<SalesProtocol.Sale> rows = new ArrayList<>();
+        try {
+            SalesExporter.exportJournal(clientId, afterSeq, REFILL_ROWS, REFILL_ROWS,
+                    (seq, client, saleDate, drinkName, price, quantity) ->
+                            rows.add(new SalesProtocol.Sale(seq, (int) saleDate.toEpochDay(), drinkName, price, quantity)));
+        } catch (SQLException e) {
+            System.err.println("매출 로그 채우기 실패: " + e.getMessage());
+            rows.clear();
+        }
+        synchronized (lock) {
+            boolean full = false;
+            for (SalesProtocol.Sale sale : rows) {
+                if (sale.seq <= queuedSeq) continue; // 그사이 서버가 확인함
+                int added = pending.add(sale);
+                if (added == 0) {
+                    full = true;
+                    break;
+                }
+                if (added < 0) dropped.increment();
+                else refilled.increment();
+                queuedSeq = sale.seq;
+            }
+            // 아직 DB에 저장되지 않은 기록이 남았으면 (저장 스레드가 배치로 반영 중) 잠시 후 다시
+            if (!full && rows.size() < REFILL_ROWS && overflowSeq > queuedSeq) {
+                refillAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REFILL_RETRY_MS);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // seq까지 확인된 기록 제거 (lock 보유 상태에서 호출)
+    private void acknowledge(long seq) {
+        while (!pending.isEmpty() && pending.firstSeq() <= seq) {
+            pending.removeFirst();
+            if (sentCount > 0) sentCount--;
+            acked.increment();
+        }
+        if (seq > queuedSeq) queuedSeq = seq; // 서버가 이미 받은 기록은 채우지 않음
+        while (!inFlight.isEmpty() && inFlight.peekFirst() <= seq) inFlight.pollFirst();
+        lastAckNanos = System.nanoTime();
+        lock.notifyAll();
+    }
+
+    // 연결 종료 후 다음 연결에서 보낸 기록부터 다시 전송
+    private void disconnect(SalesLogConnection conn) {
+        boolean wasConnected;
+        synchronized (lock) {
+            wasConnected = connection == conn;
+            if (wasConnected) connection = null;
+            lock.notifyAll();
+        }
+        if (wasConnected && running) changeState(State.DISCONNECTED, "연결 끊김");
+        try {
+            conn.close();
+        } catch (IOException ignored) {
+            // 이미 끊긴 연결
+        }
+    }
+
+    /**
+     * 확인을 기다리는 기록이 없을 때까지 최대 timeoutMs 대기 (링에 넣지 못한 기록 포함)
+     * @return 모두 확인되었으면 true
+     */
+    public boolean awaitAcked(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (lock) {
+            while (!pending.isEmpty() || overflowSeq > queuedSeq) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) return false;
+                lock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 남은 기록을 최대 2초 동안 보낸 뒤 종료
+     */
+    @Override
+    public void close() {
+        try {
+            awaitAcked(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        SalesLogConnection conn;
+        synchronized (lock) {
+            running = false;
+            conn = connection;
+            connection = null;
+            lock.notifyAll();
+        }
+        sender.interrupt();
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (IOException ignored) {
+                // 종료 중
+            }
+        }
+        changeState(State.CLOSED, "");
+    }
+
+    // 통계 조회
+    public boolean isConnected() {
+        synchronized (lock) {
+            return connection != null;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 확인을 기다리는 건수 (링에 넣지 못한 기록은 시퀀스 차이로 어림)
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size() + (int) Math.max(0, overflowSeq - queuedSeq);
+        }
+    }
+
+    public int getPendingBytes() {
+        synchronized (lock) {
+            return pending.usedBytes();
+        }
+    }
+
+    public long getOfferedCount() { return offered.sum(); }
+    public long getAckedCount() { return acked.sum(); }
+    public long getFrameCount() { return frames.sum(); }
+    public long getRetransmittedCount() { return retransmitted.sum(); }
+    public long getOverflowCount() { return overflowed.sum(); }  // 링이 가득 차 바로 넣지 못한 건수 (나중에 DB에서 채움)
+    public long getRefilledCount() { return refilled.sum(); }   // DB에서 다시 읽어 링에 채운 건수
+    public long getDroppedCount() { return dropped.sum(); }     // 음료명이 너무 길어 보낼 수 없는 건수
+    public long getReconnectCount() { return reconnects.sum(); }
+}
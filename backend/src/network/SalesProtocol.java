@@ -0,0 +1,370 @@
+// network/SalesProtocol.java
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 자판기 ↔ 서버 매출 로그 이진 프로토콜
+ * - 연결 직후 자판기가 "#VMB/버전 클라이언트ID" 한 줄을 보내고, 서버가 "#VMB/버전 마지막수신시퀀스"로 답하면 이진 모드
+ *   (답이 없으면 기존 Base64 텍스트 줄 방식 그대로 사용, 텍스트 서버는 이 줄을 잘못된 로그로 보고 무시)
+ * - 협상 줄의 인자 뒤에 옵션을 붙일 수 있음 (예: "deflate" → 이후 자판기 → 서버 방향 압축, LogCompression)
+ * - 이진 모드에서는 FrameCodec 프레임 하나에 메시지 하나, 본문 첫 바이트가 메시지 종류
+ *   DRINK   [음료 id][음료명]                 - 연결마다 음료를 처음 보낼 때 한 번 id 정의
+ *   SALE    [epochDay][음료 id][가격][수량]   - 음료명 대신 id (시퀀스 없음, 일괄 전송용)
+ *   WARNING [메시지]                          - 서버 → 자판기 경고
+ *   BATCH   [첫 시퀀스][건수] + 건마다 [시퀀스 차이][epochDay][음료 id][가격][수량]   (v2)
+ *   ACK     [시퀀스]                          - 서버 → 자판기, 이 시퀀스까지 모두 받음 (v2)
+ * - 시퀀스는 자판기별 단조 증가 번호, 서버는 이미 받은 시퀀스를 버려 재전송 중복을 막음
+ * - 정수는 varint, 문자열은 [UTF-8 길이 varint][UTF-8 바이트]
+ */
+public final class SalesProtocol {
+
+    public static final int VERSION = 2;
+    public static final int MIN_ACK_VERSION = 2;     // BATCH/ACK를 지원하는 최소 버전
+    public static final String HELLO_PREFIX = "#VMB/";
+    public static final int MAX_FRAME_BYTES = 4096;  // 프레임 본문 최대 길이
+    public static final int MAX_NAME_BYTES = 1024;   // 음료명/경고 메시지 최대 길이 (UTF-8)
+    public static final int MAX_DRINK_ID = 65535;    // 연결당 음료 id 상한
+    public static final int MAX_BATCH = 200;         // BATCH 한 프레임 최대 건수
+
+    public static final byte DRINK = 1;
+    public static final byte SALE = 2;
+    public static final byte WARNING = 3;
+    public static final byte BATCH = 4;
+    public static final byte ACK = 5;
+
+    private SalesProtocol() {}
+
+    /**
+     * 시퀀스가 붙은 매출 한 건 (BATCH 전송 단위)
+     */
+    public static final class Sale {
+        public final long seq;
+        public final int epochDay;
+        public final String drinkName;
+        public final int price;
+        public final int quantity;
+
+        public Sale(long seq, int epochDay, String drinkName, int price, int quantity) {
+            this.seq = seq;
+            this.epochDay = epochDay;
+            this.drinkName = drinkName;
+            this.price = price;
+            this.quantity = quantity;
+        }
+    }
+
+    /**
+     * 버전 협상 줄 ("#VMB/2 Client1", 인자는 자판기가 보낼 때 클라이언트 ID, 서버가 답할 때 마지막 수신 시퀀스)
+     */
+    public static String hello(int version, String argument) {
+        return argument == null || argument.isEmpty() ? HELLO_PREFIX + version : HELLO_PREFIX + version + " " + argument;
+    }
+
+    /**
+     * 옵션이 붙은 버전 협상 줄 ("#VMB/2 Client1 deflate", 옵션은 인자 뒤에 공백으로 구분)
+     * - 인자가 없으면 "-"로 자리를 채움
+     */
+    public static String hello(int version, String argument, String options) {
+        if (options == null || options.isEmpty()) return hello(version, argument);
+        return hello(version, argument == null || argument.isEmpty() ? "-" : argument) + " " + options;
+    }
+
+    /**
+     * 버전 협상 줄 해석
+     * @return 버전 (협상 줄이 아니면 -1)
+     */
+    public static int parseHello(String line) {
+        if (line == null || !line.startsWith(HELLO_PREFIX)) return -1;
+        int end = line.indexOf(' ', HELLO_PREFIX.length());
+        try {
+            int version = Integer.parseInt(line.substring(HELLO_PREFIX.length(), end < 0 ? line.length() : end).trim());
+            return version > 0 ? version : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 버전 협상 줄의 인자 (없으면 빈 문자열)
+     */
+    public static String helloArgument(String line) {
+        String[] tokens = helloTokens(line);
+        return tokens.length < 2 || "-".equals(tokens[1]) ? "" : tokens[1];
+    }
+
+    /**
+     * 버전 협상 줄의 옵션 (인자 뒤의 단어들, 없으면 빈 목록)
+     */
+    public static List<String> helloOptions(String line) {
+        String[] tokens = helloTokens(line);
+        return tokens.length < 3 ? List.of() : Arrays.asList(tokens).subList(2, tokens.length);
+    }
+
+    private static String[] helloTokens(String line) {
+        return line.trim().split(" +");
+    }
+
+    /**
+     * 줄 버퍼(LogIngestServer가 넘긴 한 줄)가 협상 줄이면 문자열로, 아니면 null
+     */
+    public static String helloLine(ByteBuffer line) {
+        if (line.remaining() < HELLO_PREFIX.length() || line.get(line.position()) != '#') return null;
+        byte[] bytes = new byte[line.remaining()];
+        line.duplicate().get(bytes);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return parseHello(text) > 0 ? text : null;
+    }
+
+    /**
+     * 버퍼링 없이 한 줄 읽기 (협상 직후 같은 스트림을 이진으로 읽기 위해 한 바이트씩 읽음)
+     * @return 줄바꿈을 뺀 줄, 스트림 끝이면 null
+     */
+    public static String readLine(InputStream in, int maxBytes) throws IOException {
+        byte[] buf = new byte[Math.min(maxBytes, 256)];
+        int length = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                if (length > 0 && buf[length - 1] == '\r') length--;
+                return new String(buf, 0, length, StandardCharsets.UTF_8);
+            }
+            if (length == maxBytes) throw new ProtocolException("한 줄이 너무 깁니다");
+            if (length == buf.length) buf = Arrays.copyOf(buf, Math.min(maxBytes, buf.length * 2));
+            buf[length++] = (byte) b;
+        }
+        return length > 0 ? new String(buf, 0, length, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * 이진 메시지 인코더 (연결마다 하나, 스레드 간 공유 금지)
+     * - 음료명은 처음 한 번만 DRINK로 보내고 이후에는 id만 보냄
+     */
+    public static final class Encoder {
+        private final FrameCodec codec = new FrameCodec(MAX_FRAME_BYTES);
+        private final Map<String, Integer> drinkIds = new HashMap<>();
+
+        /**
+         * 매출 한 건 기록 (처음 보는 음료면 DRINK 프레임을 먼저 기록)
+         * - out에는 최대 2 * (MAX_FRAME_BYTES + 9) 바이트가 기록될 수 있음
+         */
+        public void sale(ByteBuffer out, int epochDay, String drinkName, int price, int quantity) {
+            int id = drinkId(out, drinkName);
+            int start = codec.beginFrame(out, 1 + FrameCodec.varintSize(epochDay) + FrameCodec.varintSize(id)
+                    + FrameCodec.varintSize(price) + FrameCodec.varintSize(quantity));
+            out.put(SALE);
+            FrameCodec.putVarint(out, epochDay);
+            FrameCodec.putVarint(out, id);
+            FrameCodec.putVarint(out, price);
+            FrameCodec.putVarint(out, quantity);
+            codec.endFrame(out, start);
+        }
+
+        /**
+         * 시퀀스가 붙은 매출 여러 건을 BATCH 프레임 하나로 기록 (처음 보는 음료는 DRINK 프레임을 먼저 기록)
+         * - 프레임 본문 한도, MAX_BATCH, out의 남은 공간 안에서 앞에서부터 가능한 만큼만 기록
+         * @param sales 시퀀스 오름차순
+         * @return 기록한 건수 (out 공간이 부족하면 0)
+         */
+        public int batch(ByteBuffer out, List<Sale> sales) {
+            int reserve = MAX_FRAME_BYTES + FrameCodec.MAX_HEADER_BYTES + FrameCodec.CRC_BYTES;
+            int count = 0;
+            long prevSeq = sales.isEmpty() ? 0 : sales.get(0).seq;
+            int body = 1 + FrameCodec.varlongSize(prevSeq) + FrameCodec.varintSize(MAX_BATCH);
+            int limit = Math.min(sales.size(), MAX_BATCH);
+
+            // 1차: 음료 id 정의를 먼저 기록하면서 BATCH에 들어갈 건수 결정
+            while (count < limit) {
+                Sale sale = sales.get(count);
+                Integer id = drinkIds.get(sale.drinkName);
+                if (id == null) {
+                    if (out.remaining() < reserve + 2 * FrameCodec.MAX_HEADER_BYTES + MAX_NAME_BYTES + FrameCodec.CRC_BYTES + 1) break;
+                    id = drinkId(out, sale.drinkName);
+                }
+                int size = FrameCodec.varlongSize(sale.seq - prevSeq) + FrameCodec.varintSize(sale.epochDay)
+                        + FrameCodec.varintSize(id) + FrameCodec.varintSize(sale.price) + FrameCodec.varintSize(sale.quantity);
+                if (body + size > MAX_FRAME_BYTES) break;
+                body += size;
+                prevSeq = sale.seq;
+                count++;
+            }
+            if (count == 0 || out.remaining() < reserve) return 0;
+
+            // 2차: BATCH 본문 기록 (건수는 고정 길이로 계산했으므로 실제 길이에 맞춰 조정)
+            long firstSeq = sales.get(0).seq;
+            body += FrameCodec.varintSize(count) - FrameCodec.varintSize(MAX_BATCH);
+            int start = codec.beginFrame(out, body);
+            out.put(BATCH);
+            FrameCodec.putVarlong(out, firstSeq);
+            FrameCodec.putVarint(out, count);
+            prevSeq = firstSeq;
+            for (int i = 0; i < count; i++) {
+                Sale sale = sales.get(i);
+                FrameCodec.putVarlong(out, sale.seq - prevSeq);
+                FrameCodec.putVarint(out, sale.epochDay);
+                FrameCodec.putVarint(out, drinkIds.get(sale.drinkName));
+                FrameCodec.putVarint(out, sale.price);
+                FrameCodec.putVarint(out, sale.quantity);
+                prevSeq = sale.seq;
+            }
+            codec.endFrame(out, start);
+            return count;
+        }
+
+        /**
+         * 수신 확인 기록 (서버 → 자판기)
+         */
+        public void ack(ByteBuffer out, long seq) {
+            int start = codec.beginFrame(out, 1 + FrameCodec.varlongSize(seq));
+            out.put(ACK);
+            FrameCodec.putVarlong(out, seq);
+            codec.endFrame(out, start);
+        }
+
+        // 음료 id 반환 (처음 보는 음료면 DRINK 프레임 기록 후 새 id 부여)
+        private int drinkId(ByteBuffer out, String drinkName) {
+            Integer id = drinkIds.get(drinkName);
+            if (id != null) return id;
+            if (drinkIds.size() > MAX_DRINK_ID) throw new IllegalStateException("음료 종류가 너무 많습니다.");
+            int newId = drinkIds.size();
+            byte[] name = utf8(drinkName);
+            int start = codec.beginFrame(out, 1 + FrameCodec.varintSize(newId) + FrameCodec.varintSize(name.length) + name.length);
+            out.put(DRINK);
+            FrameCodec.putVarint(out, newId);
+            FrameCodec.putVarint(out, name.length);
+            out.put(name);
+            codec.endFrame(out, start);
+            drinkIds.put(drinkName, newId);
+            return newId;
+        }
+
+        /**
+         * 경고 메시지 기록 (서버 → 자판기)
+         */
+        public void warning(ByteBuffer out, String message) {
+            byte[] text = utf8(message);
+            int start = codec.beginFrame(out, 1 + FrameCodec.varintSize(text.length) + text.length);
+            out.put(WARNING);
+            FrameCodec.putVarint(out, text.length);
+            out.put(text);
+            codec.endFrame(out, start);
+        }
+
+        private static byte[] utf8(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_NAME_BYTES) throw new IllegalArgumentException("문자열이 너무 깁니다: " + bytes.length);
+            return bytes;
+        }
+    }
+
+    /**
+     * 디코딩된 메시지를 받는 함수
+     */
+    public interface Listener {
+        /**
+         * @param epochDay 판매 날짜 (LocalDate.ofEpochDay로 변환)
+         */
+        default void onSale(int epochDay, String drinkName, int price, int quantity) {}
+
+        /**
+         * BATCH 안의 매출 한 건 (기본은 시퀀스를 무시하고 onSale로 넘김)
+         */
+        default void onSale(long seq, int epochDay, String drinkName, int price, int quantity) {
+            onSale(epochDay, drinkName, price, quantity);
+        }
+
+        /**
+         * BATCH 하나를 모두 처리한 뒤 호출
+         * @param lastSeq BATCH의 마지막 시퀀스
+         */
+        default void onBatchEnd(long lastSeq) {}
+
+        default void onWarning(String message) {}
+
+        default void onAck(long seq) {}
+    }
+
+    /**
+     * 이진 메시지 디코더 (연결마다 하나, 음료 id 표를 연결 동안 유지)
+     */
+    public static final class Decoder {
+        private String[] drinks = new String[16];
+
+        /**
+         * 프레임 본문 하나 해석
+         * @throws ProtocolException 알 수 없는 메시지, 잘린 본문, 정의되지 않은 음료 id
+         */
+        public void decode(ByteBuffer body, Listener listener) throws ProtocolException {
+            try {
+                byte type = body.get();
+                switch (type) {
+                    case SALE: {
+                        int epochDay = FrameCodec.getVarint(body);
+                        int id = FrameCodec.getVarint(body);
+                        int price = FrameCodec.getVarint(body);
+                        int quantity = FrameCodec.getVarint(body);
+                        listener.onSale(epochDay, drinkName(id), price, quantity);
+                        break;
+                    }
+                    case BATCH: {
+                        long seq = FrameCodec.getVarlong(body);
+                        int count = FrameCodec.getVarint(body);
+                        if (count < 0 || count > MAX_BATCH) throw new ProtocolException("잘못된 건수: " + count);
+                        for (int i = 0; i < count; i++) {
+                            seq += FrameCodec.getVarlong(body);
+                            int epochDay = FrameCodec.getVarint(body);
+                            String name = drinkName(FrameCodec.getVarint(body));
+                            int price = FrameCodec.getVarint(body);
+                            int quantity = FrameCodec.getVarint(body);
+                            listener.onSale(seq, epochDay, name, price, quantity);
+                        }
+                        listener.onBatchEnd(seq);
+                        break;
+                    }
+                    case ACK:
+                        listener.onAck(FrameCodec.getVarlong(body));
+                        break;
+                    case DRINK: {
+                        int id = FrameCodec.getVarint(body);
+                        if (id < 0 || id > MAX_DRINK_ID) throw new ProtocolException("잘못된 음료 id: " + id);
+                        if (id >= drinks.length) drinks = Arrays.copyOf(drinks, Math.max(id + 1, drinks.length * 2));
+                        drinks[id] = readString(body);
+                        break;
+                    }
+                    case WARNING:
+                        listener.onWarning(readString(body));
+                        break;
+                    default:
+                        throw new ProtocolException("알 수 없는 메시지 종류: " + type);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new ProtocolException("잘린 메시지");
+            }
+        }
+
+        private String drinkName(int id) throws ProtocolException {
+            String name = id >= 0 && id < drinks.length ? drinks[id] : null;
+            if (name == null) throw new ProtocolException("정의되지 않은 음료 id: " + id);
+            return name;
+        }
+
+        private static String readString(ByteBuffer body) throws ProtocolException {
+            int length = FrameCodec.getVarint(body);
+            if (length < 0 || length > MAX_NAME_BYTES || length > body.remaining()) {
+                throw new ProtocolException("잘못된 문자열 길이: " + length);
+            }
+            byte[] bytes = new byte[length];
+            body.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
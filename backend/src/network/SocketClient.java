@@ -1,66 +1,276 @@
 // network/SocketClient.java
 package network;
 
+import service.SalesExporter;
 import util.DBManager;
 
-import java.io.*;
-import java.net.Socket;
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.time.LocalDate;
-import java.util.Base64;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 서버로 매출 로그를 전송하는 클라이언트
- * - DB에서 매출 데이터를 조회하여
- * - Base64로 인코딩한 후 TCP 소켓을 통해 서버로 전송한다.
+ * 서버로 매출 로그를 전송하는 클라이언트 (증분 동기화)
+ * - 실시간 전송(SalesLogShipper)과 같은 식별자로 보냄: 자판기 ID 스트림 + 저널 시퀀스(sales_log.journal_seq)
+ *   (서버가 자판기별 마지막 시퀀스로 중복을 거르므로 이미 실시간으로 받은 매출을 다시 세지 않음)
+ * - 목적지(host:port)와 자판기마다 서버에 보낸 마지막 저널 시퀀스(워터마크)를 sales_sync_watermark 테이블에 저장
+ * - 워터마크 다음 행만 저널 시퀀스 순 키셋 페이지(SalesExporter.exportJournal)로 읽어 SalesLogConnection으로 전송
+ * - 서버가 BATCH/ACK를 지원하면 서버가 확인한 시퀀스까지만 워터마크를 올림 (지원하지 않으면 전송 후 바로 올림)
+ * - journal_seq가 없는 이전 버전의 행은 저널 시퀀스와 맞춰 볼 수 없으므로 별도 스트림(LEGACY_STREAM_ID)으로
+ *   sales_log.id를 시퀀스 삼아 한 번만 전송 (워터마크는 목적지 host:port 키에 id로 저장)
+ * - 서버가 압축을 수락하면 페이지마다 deflate SYNC_FLUSH로 압축 전송 (LogCompression)
+ * - 전송 건수, 바이트 수(압축 전/후), 초당 건수를 SyncResult로 반환
  */
 public class SocketClient {
 
+    public static final String LEGACY_STREAM_ID = "sales_log"; // journal_seq가 없는 행의 스트림 ID (sales_log.id가 시퀀스)
+    private static final int PAGE_ROWS = 1000;               // 한 번에 읽을 행 수 (키셋 페이지)
+    private static final int FETCH_SIZE = 500;               // JDBC fetch size (MySQL은 DBManager가 useCursorFetch 지정)
+    private static final long ACK_WAIT_MS = 10_000;          // 마지막 확인 대기 시간
+
+    private static final int ER_BAD_FIELD_ERROR = 1054;      // MySQL: 없는 열 (다른 연결이 먼저 이름을 바꾼 경우)
+
+    private static final String CREATE_WATERMARK =
+            "CREATE TABLE IF NOT EXISTS sales_sync_watermark (destination VARCHAR(128) PRIMARY KEY, last_seq BIGINT NOT NULL)";
+    // 이전 버전에서 만든 테이블의 last_id 열 이름 변경 (값은 그 스트림의 시퀀스 그대로)
+    private static final String RENAME_WATERMARK_COLUMN =
+            "ALTER TABLE sales_sync_watermark CHANGE last_id last_seq BIGINT NOT NULL";
+    private static final String SELECT_WATERMARK = "SELECT last_seq FROM sales_sync_watermark WHERE destination = ?";
+    private static final String UPSERT_WATERMARK =
+            "INSERT INTO sales_sync_watermark (destination, last_seq) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE last_seq = GREATEST(last_seq, VALUES(last_seq))";
+
+    // 시퀀스 순 페이지 읽기 (afterSeq 다음 행부터 최대 limit개, sink의 id 자리에 시퀀스)
+    private interface PageSource {
+        int read(long afterSeq, int limit, SalesExporter.RowSink sink) throws SQLException;
+    }
+
+    /**
+     * 동기화 결과
+     */
+    public static final class SyncResult {
+        public final long rows;         // 전송한 행 수
+        public final long bytes;        // 전송한 바이트 수 (압축 후 실제 전송량)
+        public final long rawBytes;     // 압축 전 바이트 수
+        public final long elapsedNanos; // 걸린 시간
+        public final int clients;       // 동기화한 자판기 수
+
+        SyncResult(long rows, long bytes, long rawBytes, long elapsedNanos, int clients) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.rawBytes = rawBytes;
+            this.elapsedNanos = elapsedNanos;
+            this.clients = clients;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d건 (자판기 %d대), %,d바이트 (압축 전 %,d), %.0f건/초",
+                    rows, clients, bytes, rawBytes, getRowsPerSecond());
+        }
+    }
+
     /**
-     * sales_log 테이블에서 데이터를 읽어 서버로 전송
-     * - sale_date, drink_name, price, quantity 필드를 읽어 ","로 연결된 문자열 생성
-     * - 해당 문자열을 Base64로 인코딩 후 한 줄씩 전송
+     * 기본 서버(vending.server.host:vending.server.port, 기본 localhost:12345)로 새 매출만 전송
+     * @return 동기화 결과 (실패 시 null)
      */
-    public static void sendLogToServerFromDB() {
-        try (
-                // 서버에 연결 (localhost:12345)
-                Socket socket = new Socket("localhost", 12345);
-                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
-                Connection conn = DBManager.getConnection() // DB 연결
-        ) {
-
-            // 매출 로그 조회 쿼리
-            String sql = "SELECT sale_date, drink_name, price, quantity FROM sales_log ORDER BY sale_date ASC";
-            try (
-                    PreparedStatement pstmt = conn.prepareStatement(sql);
-                    ResultSet rs = pstmt.executeQuery()
-            ) {
-
-                while (rs.next()) {
-                    // DB 필드 값 읽기
-                    LocalDate date = rs.getDate("sale_date").toLocalDate();
-                    String name = rs.getString("drink_name");
-                    int price = rs.getInt("price");
-                    int qty = rs.getInt("quantity");
-
-                    // 쉼표로 구분된 문자열로 구성 후 Base64 인코딩
-                    String line = String.format("%s,%s,%d,%d", date, name, price, qty);
-                    String encoded = Base64.getEncoder().encodeToString(line.getBytes());
-
-                    // 서버에 전송
-                    out.write(encoded);
-                    out.newLine();
+    public static SyncResult sendLogToServerFromDB() {
+        return sendLogToServerFromDB(System.getProperty("vending.server.host", "localhost"),
+                Integer.getInteger("vending.server.port", 12345));
+    }
+
+    /**
+     * 자판기별로 워터마크 이후의 sales_log 행을 서버로 전송 (journal_seq가 없는 이전 행은 별도 스트림으로)
+     * @return 동기화 결과 (한 스트림이라도 실패하면 null, 확인된 곳까지는 저장되어 다음에 이어서 보냄)
+     */
+    public static SyncResult sendLogToServerFromDB(String host, int port) {
+        long start = System.nanoTime();
+        List<String> clients;
+        try {
+            clients = SalesExporter.journalClients();
+        } catch (SQLException e) {
+            System.err.println("동기화 대상 조회 실패: " + e.getMessage());
+            return null;
+        }
+
+        long[] totals = new long[3]; // 행 수, 전송 바이트, 압축 전 바이트
+        boolean complete = true;
+        for (String clientId : clients) {
+            complete &= syncStream(host, port, clientId, host + ":" + port + "/" + clientId,
+                    (after, limit, sink) -> SalesExporter.exportJournal(clientId, after, limit, FETCH_SIZE, sink), totals);
+        }
+        complete &= syncStream(host, port, LEGACY_STREAM_ID, host + ":" + port,
+                (after, limit, sink) -> SalesExporter.exportLegacy(after, limit, FETCH_SIZE, sink), totals);
+        if (!complete) return null;
+
+        SyncResult result = new SyncResult(totals[0], totals[1], totals[2], System.nanoTime() - start, clients.size());
+        System.out.println("DB 로그 전송 완료: " + result);
+        return result;
+    }
+
+    /**
+     * 스트림 하나의 워터마크 이후 행을 그 스트림 ID로 전송
+     * - sale_date, drink_name, price, quantity 필드를 시퀀스 순으로 PAGE_ROWS씩 읽어 전송 버퍼에 기록
+     * - 페이지마다 flush, 확인(ACK)은 기다리지 않고 다음 페이지를 계속 보냄
+     * - 워터마크 이후 행이 없으면 연결하지 않음
+     * @param streamId 서버에 알릴 스트림 ID (자판기 ID 또는 LEGACY_STREAM_ID)
+     * @param destination 워터마크 키
+     * @param source 시퀀스 순 페이지 읽기 함수
+     * @param totals 행 수, 전송 바이트, 압축 전 바이트를 더할 배열
+     * @return 보낸 행을 서버가 모두 확인했으면 true
+     */
+    private static boolean syncStream(String host, int port, String streamId, String destination,
+                                      PageSource source, long[] totals) {
+        long watermark;
+        try {
+            watermark = loadWatermark(destination);
+            if (source.read(watermark, 1, (seq, client, saleDate, drinkName, price, quantity) -> { }) == 0) return true;
+        } catch (SQLException e) {
+            System.err.println("동기화 위치 조회 실패: " + e.getMessage());
+            return false;
+        }
+
+        // 서버 확인 (수신 스레드에서 갱신)
+        Object ackLock = new Object();
+        long[] acked = {watermark};
+
+        long sentSeq = watermark;
+        boolean acknowledged = false;
+        try (SalesLogConnection out = new SalesLogConnection(host, port, true, streamId,
+                new SalesLogConnection.Listener() {
+                    @Override
+                    public void onWarning(String message) {
+                        System.out.println("서버 경고: " + message);
+                    }
+
+                    @Override
+                    public void onAck(long seq) {
+                        synchronized (ackLock) {
+                            if (seq > acked[0]) acked[0] = seq;
+                            ackLock.notifyAll();
+                        }
+                    }
+                })) {
+
+            acknowledged = out.isAcknowledged();
+            if (acknowledged) {
+                // 서버가 이미 받은 시퀀스는 건너뜀 (실시간 전송으로 받았거나 워터마크 저장 전에 끊긴 경우)
+                synchronized (ackLock) {
+                    acked[0] = Math.max(acked[0], out.getServerLastSeq());
+                    sentSeq = acked[0];
+                }
+            }
+
+            List<SalesProtocol.Sale> page = new ArrayList<>(PAGE_ROWS);
+            while (true) {
+                // 키셋 페이지 읽기 (시퀀스 > 마지막 시퀀스 ORDER BY 시퀀스 LIMIT n)
+                page.clear();
+                int count = source.read(sentSeq, PAGE_ROWS,
+                        (seq, client, saleDate, drinkName, price, quantity) ->
+                                page.add(new SalesProtocol.Sale(seq, (int) saleDate.toEpochDay(), drinkName, price, quantity)));
+                if (count == 0) break;
+
+                // 서버에 전송 (BATCH 단위로 나눠 기록 후 페이지마다 한 번 flush)
+                List<SalesProtocol.Sale> rest = page;
+                while (!rest.isEmpty()) {
+                    int sent = out.sendBatch(rest);
+                    if (sent == 0) throw new IOException("전송 버퍼 공간 부족");
+                    rest = rest.subList(sent, rest.size());
+                }
+                out.flush();
+
+                totals[0] += count;
+                sentSeq = page.get(count - 1).seq;
+                if (!acknowledged) saveWatermark(destination, sentSeq); // 확인 없는 서버는 보낸 만큼 전진
+                if (count < PAGE_ROWS) break;
+            }
+
+            if (acknowledged) awaitAck(ackLock, acked, sentSeq);
+            totals[1] += out.getBytesSent();
+            totals[2] += out.getRawBytes();
+
+        } catch (IOException | SQLException e) {
+            // 예외 처리 (확인된 곳까지는 아래에서 저장)
+            System.err.println("DB 로그 전송 실패 (" + streamId + "): " + e.getMessage());
+        }
+
+        long confirmed;
+        synchronized (ackLock) {
+            confirmed = acknowledged ? acked[0] : sentSeq;
+        }
+        try {
+            if (confirmed > watermark) saveWatermark(destination, confirmed);
+        } catch (SQLException e) {
+            System.err.println("동기화 위치 저장 실패: " + e.getMessage());
+            return false;
+        }
+        return confirmed >= sentSeq; // 확인되지 않은 행은 다음 동기화에서 다시 전송
+    }
+
+    // 서버가 lastSeq까지 확인할 때까지 최대 ACK_WAIT_MS 대기
+    private static void awaitAck(Object ackLock, long[] acked, long lastSeq) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACK_WAIT_MS);
+        synchronized (ackLock) {
+            try {
+                while (acked[0] < lastSeq) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) break;
+                    ackLock.wait(remaining);
                 }
-                out.flush(); // 모든 데이터 전송 완료
-                System.out.println("DB 로그 전송 완료");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 
+    /**
+     * 목적지("host:port/자판기 ID")의 워터마크 조회 (없으면 0)
+     */
+    public static long loadWatermark(String destination) throws SQLException {
+        try (Connection conn = DBManager.getConnection()) {
+            ensureWatermarkTable(conn);
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_WATERMARK)) {
+                pstmt.setString(1, destination);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0;
+                }
             }
+        }
+    }
+
+    // 워터마크 테이블 생성, 이전 버전의 last_id 열은 last_seq로 이름 변경
+    private static void ensureWatermarkTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_WATERMARK);
+        }
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, "sales_sync_watermark", "last_id")) {
+            if (!rs.next()) return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(RENAME_WATERMARK_COLUMN);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_BAD_FIELD_ERROR) throw e;
+        }
+    }
 
-        } catch (Exception e) {
-            // 예외 처리
-            System.err.println("DB 로그 전송 실패: " + e.getMessage());
+    // 워터마크 저장 (뒤로 가지 않음)
+    private static void saveWatermark(String destination, long lastSeq) throws SQLException {
+        try (Connection conn = DBManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPSERT_WATERMARK)) {
+            pstmt.setString(1, destination);
+            pstmt.setLong(2, lastSeq);
+            pstmt.executeUpdate();
         }
     }
 }
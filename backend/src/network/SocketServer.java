@@ -1,44 +1,65 @@
 // network/SocketServer.java
 package network;
 
-import java.io.*;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 간단한 TCP 소켓 서버
  * - 클라이언트가 보낸 메시지를 콘솔에 출력
- * - 한 번 연결된 클라이언트의 모든 메시지를 출력 후 연결 종료
+ * - LogIngestServer(NIO Selector) 기반으로 여러 클라이언트를 동시에 처리
  */
 public class SocketServer {
 
+    private static final int MAX_LINE_BYTES = 8192; // 한 줄 최대 길이
+    private static final byte[] PREFIX = "수신: ".getBytes(StandardCharsets.UTF_8);
+
+    // 작업 스레드별 출력 버퍼 (줄마다 String을 만들지 않고 바이트 그대로 출력)
+    private static final ThreadLocal<byte[]> printBuffer =
+            ThreadLocal.withInitial(() -> new byte[PREFIX.length + MAX_LINE_BYTES + 1]);
+
     public static void main(String[] args) {
         int port = 12345; // 포트 번호 설정
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
 
-        try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("📡 서버 시작! 포트: " + port);
-
-            while (true) {
-                // 클라이언트 연결 수락
-                Socket client = serverSocket.accept();
-                System.out.println(" 클라이언트 연결됨: " + client.getInetAddress());
+        LogIngestServer server = new LogIngestServer(port, workers, MAX_LINE_BYTES, new LogIngestServer.Handler() {
+            @Override
+            public void onOpen(LogIngestServer.Session session) {
+                System.out.println(" 클라이언트 연결됨: " + session.getRemoteAddress());
+            }
 
-                // 클라이언트로부터 데이터 수신
-                BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream()));
-                String line;
-                while ((line = in.readLine()) != null) {
-                    // 수신된 Base64 문자열 출력
-                    System.out.println("수신: " + line);
+            @Override
+            public void onLine(LogIngestServer.Session session, ByteBuffer line) {
+                // 수신된 Base64 문자열 출력
+                byte[] buf = printBuffer.get();
+                int length = line.remaining();
+                System.arraycopy(PREFIX, 0, buf, 0, PREFIX.length);
+                line.get(buf, PREFIX.length, length);
+                buf[PREFIX.length + length] = '\n';
+                synchronized (System.out) { // 여러 워커의 줄이 섞이지 않도록 한 줄씩 기록 후 바로 내보냄
+                    System.out.write(buf, 0, PREFIX.length + length + 1);
+                    System.out.flush();
                 }
+            }
 
-                // 클라이언트 연결 종료
-                client.close();
-                System.out.println("클라이언트 연결 종료");
+            @Override
+            public void onClose(LogIngestServer.Session session) {
+                System.out.println("클라이언트 연결 종료: " + session.getRemoteAddress());
             }
+        });
+
+        try {
+            server.start();
+            System.out.println("📡 서버 시작! 포트: " + port + " (작업 스레드 " + workers + "개)");
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            Thread.currentThread().join(); // 종료 신호가 올 때까지 대기
 
         } catch (IOException e) {
             // 예외 발생 시 스택 트레이스 출력
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            server.close();
         }
     }
 }
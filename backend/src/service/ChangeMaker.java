@@ -0,0 +1,116 @@
+// service/ChangeMaker.java
+
+package service;
+
+import java.util.Arrays;
+
+/**
+ * 보유 화폐 개수가 제한된 상태에서의 거스름돈 계산기
+ * - 화폐별 보유 개수를 이진 분할하여 0/1 배낭 DP로 "최소 개수 거스름돈" 표를 미리 계산
+ * - 표가 만들어진 뒤에는 반환 가능 여부 확인이 O(1), 실제 조합 계산은 O(화폐 조각 수)
+ * - 계산만 수행하며 보유 화폐를 직접 변경하지 않음 (적용은 호출 측에서 한 번에 처리)
+ */
+public class ChangeMaker {
+
+    private static final int INF = Integer.MAX_VALUE / 2;
+
+    private final int[] denominations; // 화폐 단위 (MoneyManager와 같은 순서)
+    private final int unit;            // 모든 화폐 단위의 최대공약수 (표 크기 축소용)
+    private final int maxUnits;        // 표에서 다루는 최대 금액 (unit 단위)
+
+    private int[] minCoins;            // 금액별 최소 화폐 개수 (불가능하면 INF)
+    private boolean[][] take;          // 조각별로 해당 금액에서 사용되었는지 (역추적용)
+    private int[] pieceDenom = new int[0]; // 조각 → 화폐 인덱스
+    private int[] pieceCount = new int[0]; // 조각 → 화폐 개수
+    private int pieces;                // 조각 수
+
+    /**
+     * @param denominations 화폐 단위 목록
+     * @param maxAmount 계산할 최대 금액 (투입 한도)
+     */
+    public ChangeMaker(int[] denominations, int maxAmount) {
+        this.denominations = denominations.clone();
+        int g = 0;
+        for (int d : denominations) g = gcd(g, d);
+        this.unit = g;
+        this.maxUnits = maxAmount / g;
+        this.minCoins = new int[maxUnits + 1];
+    }
+
+    /**
+     * 보유 화폐 개수로 거스름돈 표를 다시 계산
+     * @param counts 화폐 인덱스별 보유 개수
+     */
+    public void rebuild(int[] counts) {
+        // 보유 개수를 1, 2, 4, ... 조각으로 분할 (각 조각은 한 번만 사용)
+        pieces = 0;
+        int maxPieces = 0;
+        for (int c : counts) maxPieces += 32 - Integer.numberOfLeadingZeros(Math.max(c, 0));
+        if (pieceDenom.length < maxPieces) {
+            pieceDenom = new int[maxPieces];
+            pieceCount = new int[maxPieces];
+        }
+        for (int i = 0; i < denominations.length; i++) {
+            int remaining = Math.max(counts[i], 0);
+            for (int k = 1; remaining > 0; k <<= 1) {
+                int piece = Math.min(k, remaining);
+                pieceDenom[pieces] = i;
+                pieceCount[pieces] = piece;
+                pieces++;
+                remaining -= piece;
+            }
+        }
+
+        if (take == null || take.length < pieces) {
+            take = new boolean[Math.max(pieces, 1)][maxUnits + 1];
+        }
+
+        Arrays.fill(minCoins, INF);
+        minCoins[0] = 0;
+        for (int p = 0; p < pieces; p++) {
+            boolean[] row = take[p];
+            Arrays.fill(row, false);
+            int weight = denominations[pieceDenom[p]] / unit * pieceCount[p];
+            int cost = pieceCount[p];
+            for (int a = maxUnits; a >= weight; a--) {
+                int candidate = minCoins[a - weight] + cost;
+                if (candidate < minCoins[a]) {
+                    minCoins[a] = candidate;
+                    row[a] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 거스름돈 반환 가능 여부 (O(1), 부작용 없음)
+     * @param amount 반환할 금액
+     */
+    public boolean canMakeChange(int amount) {
+        if (amount == 0) return true;
+        if (amount < 0 || amount % unit != 0 || amount / unit > maxUnits) return false;
+        return minCoins[amount / unit] < INF;
+    }
+
+    /**
+     * 최소 개수 거스름돈 조합 계산 (부작용 없음)
+     * @param amount 반환할 금액
+     * @return 화폐 인덱스별 반환 개수 (불가능하면 null)
+     */
+    public int[] plan(int amount) {
+        if (!canMakeChange(amount)) return null;
+        int[] result = new int[denominations.length];
+        int a = amount / unit;
+        for (int p = pieces - 1; p >= 0 && a > 0; p--) {
+            if (take[p][a]) {
+                result[pieceDenom[p]] += pieceCount[p];
+                a -= denominations[pieceDenom[p]] / unit * pieceCount[p];
+            }
+        }
+        return result;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
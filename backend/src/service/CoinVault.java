@@ -0,0 +1,138 @@
+// service/CoinVault.java
+
+package service;
+
+import java.util.Arrays;
+
+/**
+ * 화폐 보관함
+ * - 화폐 단위별 슬롯 번호로 접근하는 int 배열 기반 (Integer 박싱 없음)
+ * - 여러 슬롯을 함께 바꾸는 출금/수금은 모두 성공하거나 모두 실패 (원자적)
+ * - 내부 배열은 외부에 노출하지 않고 복사본(snapshot)만 제공
+ * - 내용이 바뀔 때마다 version이 증가하여 캐시(거스름돈 표 등) 무효화에 사용
+ */
+public class CoinVault {
+
+    private final int[] denominations; // 슬롯별 화폐 단위
+    private final int[] counts;        // 슬롯별 보유 개수
+    private volatile int version = 0;  // 변경 횟수
+
+    /**
+     * @param denominations 화폐 단위 목록 (슬롯 순서)
+     * @param initialCount 각 화폐의 초기 보유 개수
+     */
+    public CoinVault(int[] denominations, int initialCount) {
+        this.denominations = denominations.clone();
+        this.counts = new int[denominations.length];
+        Arrays.fill(counts, initialCount);
+    }
+
+    /**
+     * 화폐 단위에 해당하는 슬롯 번호 (없으면 -1)
+     */
+    public int slotOf(int denomination) {
+        for (int i = 0; i < denominations.length; i++) {
+            if (denominations[i] == denomination) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 슬롯 수 (화폐 단위 개수)
+     */
+    public int slots() {
+        return denominations.length;
+    }
+
+    /**
+     * 슬롯의 화폐 단위
+     */
+    public int denominationAt(int slot) {
+        return denominations[slot];
+    }
+
+    /**
+     * 슬롯의 현재 보유 개수
+     */
+    public synchronized int count(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * 보유 개수 복사본을 out에 채움 (추가 할당 없음)
+     * @param out 슬롯 수 이상의 길이를 가진 배열
+     */
+    public synchronized void snapshot(int[] out) {
+        System.arraycopy(counts, 0, out, 0, counts.length);
+    }
+
+    /**
+     * 보유 개수 복사본 반환
+     */
+    public int[] snapshot() {
+        int[] out = new int[denominations.length];
+        snapshot(out);
+        return out;
+    }
+
+    /**
+     * 변경 횟수 (값이 다르면 보유 화폐가 바뀐 것)
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * 화폐 입금
+     * @param slot 슬롯 번호
+     * @param count 입금 개수
+     */
+    public synchronized void deposit(int slot, int count) {
+        counts[slot] += count;
+        version++;
+    }
+
+    /**
+     * 슬롯별 개수만큼 출금 (하나라도 부족하면 아무것도 출금하지 않음)
+     * @param amounts 슬롯별 출금 개수
+     * @return 출금 성공 여부
+     */
+    public synchronized boolean withdraw(int[] amounts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (amounts[i] > counts[i]) return false;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] -= amounts[i];
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * 수금 - 각 화폐를 최소 보유 개수만 남기고 모두 수거
+     * @param minimumPerSlot 각 화폐 최소 보유 개수
+     * @return 수금된 총액
+     */
+    public synchronized int collect(int minimumPerSlot) {
+        int collected = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > minimumPerSlot) {
+                collected += denominations[i] * (counts[i] - minimumPerSlot);
+                counts[i] = minimumPerSlot;
+            }
+        }
+        if (collected > 0) version++;
+        return collected;
+    }
+
+    /**
+     * 보유 중인 모든 화폐의 총액
+     */
+    public synchronized int totalValue() {
+        int total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += denominations[i] * counts[i];
+        }
+        return total;
+    }
+}
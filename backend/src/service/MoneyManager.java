@@ -2,42 +2,47 @@
 
 package service;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * 투입금/거스름돈/수금 등을 관리하는 클래스
  * - 사용자 투입 금액, 잔액 계산, 거스름돈 반환, 수금 기능 포함
+ * - 보유 화폐는 CoinVault(int 배열)로 관리하여 투입/사용/거스름돈 경로에서 박싱 없음
+ * - 거스름돈/투입 내역은 화폐 단위 순서(denominationAt)의 개수 배열로 반환 (표시용 문자열 변환은 GUI에서)
+ * - 고객 투입과 관리자 수금이 동시에 일어나도 안전하도록 모든 상태 변경을 동기화
  */
 public class MoneyManager {
 
+    private static final int MAX_BALANCE = 7000; // 총 투입 한도
+
     // 자판기에서 사용하는 화폐 단위
     private final int[] denominations = {1000, 500, 100, 50, 10};
 
-    // 각 화폐 단위별 보유 개수
-    private final Map<Integer, Integer> coinStock = new HashMap<>();
+    // 각 화폐 단위별 보유 개수 (초기 각 화폐 10개 보유)
+    private final CoinVault vault = new CoinVault(denominations, 10);
 
-    // 사용자가 투입한 금액을 기록
-    private final List<Integer> insertedMoney = new ArrayList<>();
+    // 사용자가 투입한 화폐를 슬롯별 개수로 기록
+    private final int[] insertedCounts = new int[denominations.length];
 
     private int currentBalance = 0;         // 현재 투입된 총 금액
     private int totalBillsInserted = 0;     // 지폐 누적 합계 (1000원만)
 
-    public MoneyManager() {
-        for (int d : denominations) {
-            coinStock.put(d, 10); // 초기 각 화폐 10개 보유
-        }
-    }
+    // 보유 화폐 기준 거스름돈 표 (보관함 version이 바뀌면 다음 조회 때 다시 계산)
+    private final ChangeMaker changeMaker = new ChangeMaker(denominations, MAX_BALANCE);
+    private final int[] countBuffer = new int[denominations.length];
+    private int changeTableVersion = -1;
 
     /**
      * 돈 투입 처리
      * @param amount 투입 금액
-     * @return 투입 성공 여부 (지폐 한도 5000원, 총 7000원 제한)
+     * @return 투입 성공 여부 (지폐 한도 5000원, 총 7000원 제한, 지원하지 않는 화폐 거부)
      */
-    public boolean insertMoney(int amount) {
-        if (currentBalance + amount > 7000) return false;
+    public synchronized boolean insertMoney(int amount) {
+        int slot = vault.slotOf(amount);
+        if (slot < 0) return false;
+        if (currentBalance + amount > MAX_BALANCE) return false;
 
         if (amount == 1000) {
             if (totalBillsInserted + amount > 5000) return false;
@@ -45,106 +50,118 @@ public class MoneyManager {
         }
 
         currentBalance += amount;
-        insertedMoney.add(amount); // 입력 내역 기록
+        insertedCounts[slot]++; // 입력 내역 기록
         return true;
     }
 
     /**
      * 현재 잔액 반환
      */
-    public int getBalance() {
+    public synchronized int getBalance() {
         return currentBalance;
     }
 
     /**
      * 물건 구매 시 금액 차감
      */
-    public void spendMoney(int amount) {
+    public synchronized void spendMoney(int amount) {
         currentBalance -= amount;
-        insertedMoney.clear(); // 사용 후 투입 목록 초기화
+        clearInserted(); // 사용 후 투입 목록 초기화
     }
 
     /**
      * 잔액, 지폐 누적 초기화
      */
-    public void resetBalance() {
+    public synchronized void resetBalance() {
         currentBalance = 0;
         totalBillsInserted = 0;
-        insertedMoney.clear();
+        clearInserted();
     }
 
     /**
      * 투입한 화폐를 그대로 반환
+     * @return 슬롯별 반환 개수
      */
-    public List<Integer> returnInsertedMoney() {
-        List<Integer> refund = new ArrayList<>(insertedMoney);
+    public synchronized int[] returnInsertedMoney() {
+        int[] refund = getInsertedMoney();
         resetBalance();
         return refund;
     }
 
     /**
      * 가능한 거스름돈 계산 및 반환
-     * @return 단위별 반환 수량 (부족 시 null)
+     * - 보유 화폐 개수 제한 안에서 최소 개수 조합을 먼저 계산한 뒤 한 번에 차감
+     * - 반환이 불가능하면 보유 화폐와 잔액을 전혀 변경하지 않음
+     * @return 슬롯별 반환 개수 (잔액이 0이면 모두 0, 부족 시 null)
      */
-    public Map<Integer, Integer> returnChange() {
-        Map<Integer, Integer> change = new HashMap<>();
-        int remaining = currentBalance;
-
-        for (int denom : denominations) {
-            int stock = coinStock.getOrDefault(denom, 0);
-            int count = 0;
-
-            while (remaining >= denom && stock > 0) {
-                remaining -= denom;
-                stock--;
-                count++;
-            }
-
-            if (count > 0) {
-                change.put(denom, count);
-                coinStock.put(denom, stock);
-            }
-        }
-
-        if (remaining > 0) {
+    public synchronized int[] returnChange() {
+        refreshChangeTable();
+        int[] plan = changeMaker.plan(currentBalance);
+        if (plan == null || !vault.withdraw(plan)) {
             return null; // 거스름돈 부족
-        } else {
-            resetBalance();
-            return change;
         }
+        resetBalance();
+        return plan;
+    }
+
+    /**
+     * 현재 잔액의 거스름돈 반환 가능 여부 확인 (부작용 없음)
+     */
+    public synchronized boolean isChangeAvailable() {
+        return isChangeAvailable(currentBalance);
+    }
+
+    /**
+     * 지정 금액의 거스름돈 반환 가능 여부 확인 (부작용 없음, O(1))
+     * @param amount 반환할 금액
+     */
+    public synchronized boolean isChangeAvailable(int amount) {
+        refreshChangeTable();
+        return changeMaker.canMakeChange(amount);
+    }
+
+    // 보유 화폐가 바뀌었으면 거스름돈 표 재계산
+    private void refreshChangeTable() {
+        int version = vault.version();
+        if (version == changeTableVersion) return;
+        vault.snapshot(countBuffer);
+        changeMaker.rebuild(countBuffer);
+        changeTableVersion = version;
     }
 
     /**
-     * 거스름돈 반환 가능 여부 확인
+     * 슬롯의 화폐 단위 (반환 배열의 인덱스 → 금액)
      */
-    public boolean isChangeAvailable() {
-        return returnChange() != null;
+    public int denominationAt(int slot) {
+        return denominations[slot];
     }
 
     /**
-     * 현재 보유 중인 동전 현황 반환
+     * 현재 보유 중인 동전 현황 반환 (화폐 단위 순서의 읽기 전용 복사본)
      */
     public Map<Integer, Integer> getCoinStock() {
-        return coinStock;
+        int[] counts = vault.snapshot();
+        Map<Integer, Integer> stock = new LinkedHashMap<>();
+        for (int i = 0; i < denominations.length; i++) {
+            stock.put(denominations[i], counts[i]);
+        }
+        return Collections.unmodifiableMap(stock);
     }
 
     /**
      * 보유 중인 모든 동전의 총액 반환
      */
     public int getTotalStoredMoney() {
-        int total = 0;
-        for (Map.Entry<Integer, Integer> entry : coinStock.entrySet()) {
-            total += entry.getKey() * entry.getValue();
-        }
-        return total;
+        return vault.totalValue();
     }
 
     /**
      * 동전 재고 추가 (보충)
      */
     public void addCoinToStock(int amount) {
-        if (coinStock.containsKey(amount)) {
-            coinStock.put(amount, coinStock.get(amount) + 1);
+        int slot = vault.slotOf(amount);
+        if (slot >= 0) {
+            vault.deposit(slot, 1);
         }
     }
 
@@ -154,22 +171,21 @@ public class MoneyManager {
      * @return 수금된 총액
      */
     public int collectCoins(int minimumPerDenomination) {
-        int collected = 0;
-        for (int denom : denominations) {
-            int current = coinStock.getOrDefault(denom, 0);
-            if (current > minimumPerDenomination) {
-                int collect = current - minimumPerDenomination;
-                collected += denom * collect;
-                coinStock.put(denom, minimumPerDenomination);
-            }
-        }
-        return collected;
+        return vault.collect(minimumPerDenomination);
     }
 
     /**
-     * 투입된 화폐 목록 반환 (UI 출력용)
+     * 투입된 화폐 현황 반환 (UI 출력용)
+     * @return 슬롯별 투입 개수 복사본
      */
-    public List<Integer> getInsertedMoney() {
-        return new ArrayList<>(insertedMoney);
+    public synchronized int[] getInsertedMoney() {
+        return insertedCounts.clone();
+    }
+
+    // 투입 기록 초기화
+    private void clearInserted() {
+        for (int i = 0; i < insertedCounts.length; i++) {
+            insertedCounts[i] = 0;
+        }
     }
 }
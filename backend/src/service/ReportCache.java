@@ -0,0 +1,173 @@
+// service/ReportCache.java
+
+package service;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 매출 보고서 조회 결과 캐시
+ * - 최대 maxEntries개, 오래 안 쓴 항목부터 제거 (LRU)
+ * - 저장 후 ttlMs가 지나면 만료 (다른 자판기가 DB에 기록한 매출 반영용)
+ * - 이 자판기의 매출이 DB에 반영될 때마다 invalidate()로 기존 결과를 모두 비우고 세대 번호 증가
+ *   (무효화 전에 시작된 조회 결과는 저장하지 않고, 무효화 후 조회는 그 결과를 기다리지 않음)
+ * - 같은 키를 동시에 조회하면 한 번만 DB에 질의하고 나머지는 그 결과를 기다림
+ * - 조회 실패(SQLException)는 캐시하지 않음
+ */
+public class ReportCache {
+
+    /**
+     * 캐시에 없을 때 값을 읽어오는 함수
+     */
+    public interface Loader<V> {
+        V load() throws SQLException;
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;    // 만료 시각 (System.nanoTime 기준)
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;                                    // 접근 순서 (LRU)
+    private final Map<String, CompletableFuture<Object>> loading = new HashMap<>(); // 조회 중인 키
+    private long generation = 0;
+
+    // 통계
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ReportCache(int maxEntries, long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= ReportCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 캐시된 결과 반환 (없거나 만료/무효화되었으면 loader로 읽어 저장)
+     * @param key 보고서 종류
+     * @param loader 실제 조회 함수
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String key, Loader<V> loader) throws SQLException {
+        CompletableFuture<Object> pending;
+        boolean owner = false;
+        long gen;
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                if (System.nanoTime() - e.expiresAt < 0) {
+                    hits.incrementAndGet();
+                    return (V) e.value;
+                }
+                expirations.incrementAndGet();
+                entries.remove(key);
+            }
+            gen = generation;
+            pending = loading.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                loading.put(key, pending);
+                owner = true;
+                misses.incrementAndGet();
+            } else {
+                coalesced.incrementAndGet();
+            }
+        }
+
+        if (!owner) {
+            return (V) await(pending);
+        }
+
+        try {
+            V value = loader.load();
+            synchronized (this) {
+                loading.remove(key, pending); // 무효화 후 시작된 새 조회는 그대로 둠
+                if (gen == generation) { // 조회 중 무효화되었으면 저장하지 않음
+                    entries.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+                }
+            }
+            pending.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException ex) {
+            synchronized (this) {
+                loading.remove(key, pending);
+            }
+            pending.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    // 다른 스레드의 조회 결과 대기
+    private static Object await(CompletableFuture<Object> pending) throws SQLException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("보고서 조회 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * 모든 캐시 결과 무효화 (새 매출 반영 시 호출)
+     */
+    public synchronized void invalidate() {
+        generation++;
+        invalidations.incrementAndGet();
+        entries.clear(); // 조회 중인 결과는 세대 번호가 달라 저장되지 않음
+        loading.clear(); // 이후 조회는 무효화 전에 시작된 조회에 합류하지 않고 새로 질의
+    }
+
+    // 통계 조회
+    public synchronized int size() { return entries.size(); }
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getCoalescedCount() { return coalesced.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+    public long getExpirationCount() { return expirations.get(); }
+    public long getInvalidationCount() { return invalidations.get(); }
+
+    /**
+     * 적중률 (0~1)
+     */
+    public double getHitRatio() {
+        long h = hits.get() + coalesced.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReportCache[size=%d, max=%d, hit=%d, miss=%d, coalesced=%d, evicted=%d, expired=%d, invalidated=%d, hitRatio=%.2f]",
+                size(), maxEntries, getHitCount(), getMissCount(), getCoalescedCount(),
+                getEvictionCount(), getExpirationCount(), getInvalidationCount(), getHitRatio());
+    }
+}
@@ -0,0 +1,337 @@
+// service/SalesCube.java
+
+package service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메모리 매출 큐브 (클라이언트 × 음료 × 날짜 × 시간)
+ * - 차원 값은 정수 번호로 바꿔 하나의 long 키로 묶고, 셀마다 매출액/수량을 long 배열에 누적
+ * - 임의의 차원 조건(슬라이스)과 묶을 차원(롤업)을 지정해 셀 배열을 한 번 훑어서 집계
+ * - 시작 시 sales_rollup_daily에서 채우고(이때는 시간 정보가 없어 HOUR_UNKNOWN), 이후 DB에 반영된 판매마다 갱신
+ * - 차원 값이 너무 많아 반영하지 못하면 불완전(degraded) 상태로 표시하고 이후 갱신 중단 (조회 결과에 표시)
+ */
+public class SalesCube {
+
+    // 롤업 기준 차원 (비트 조합)
+    public static final int CLIENT = 1;
+    public static final int DRINK = 2;
+    public static final int DAY = 4;
+    public static final int HOUR = 8;
+
+    public static final int HOUR_UNKNOWN = 24; // 시간 정보 없이 집계된 매출
+
+    // 키 구성: [클라이언트 12비트][음료 16비트][날짜 30비트][시간 5비트]
+    private static final int HOUR_BITS = 5;
+    private static final int DAY_BITS = 30;
+    private static final int DRINK_BITS = 16;
+    private static final int CLIENT_BITS = 12;
+    private static final int DAY_SHIFT = HOUR_BITS;
+    private static final int DRINK_SHIFT = DAY_SHIFT + DAY_BITS;
+    private static final int CLIENT_SHIFT = DRINK_SHIFT + DRINK_BITS;
+
+    /**
+     * 조회 결과 한 행 (롤업된 차원은 null 또는 -1)
+     */
+    public static final class Row {
+        public final String clientId;
+        public final String drinkName;
+        public final LocalDate day;
+        public final int hour;
+        public final long amount;
+        public final long quantity;
+
+        Row(String clientId, String drinkName, LocalDate day, int hour, long amount, long quantity) {
+            this.clientId = clientId;
+            this.drinkName = drinkName;
+            this.day = day;
+            this.hour = hour;
+            this.amount = amount;
+            this.quantity = quantity;
+        }
+    }
+
+    // 차원 값 ↔ 번호
+    private final Map<String, Integer> clientIndex = new HashMap<>();
+    private final List<String> clientNames = new ArrayList<>();
+    private final Map<String, Integer> drinkIndex = new HashMap<>();
+    private final List<String> drinkNames = new ArrayList<>();
+
+    // 셀 (0..cellCount-1)
+    private long[] keys = new long[1024];
+    private long[] amounts = new long[1024];
+    private long[] quantities = new long[1024];
+    private int cellCount = 0;
+
+    // 키 → 셀 번호 (개방 주소법, -1은 빈 칸)
+    private int[] table = newTable(2048);
+
+    private boolean warmed = false;
+    private boolean degraded = false; // 반영하지 못한 기록이 있음 (조회 결과가 실제보다 적을 수 있음)
+
+    /**
+     * 판매 한 건 반영
+     */
+    public synchronized void add(String clientId, String drinkName, LocalDate day, int hour, long amount, long quantity) {
+        int client = intern(clientIndex, clientNames, clientId, CLIENT_BITS);
+        int drink = intern(drinkIndex, drinkNames, drinkName, DRINK_BITS);
+        int cell = cellOf(pack(client, drink, day.toEpochDay(), hour));
+        amounts[cell] += amount;
+        quantities[cell] += quantity;
+    }
+
+    /**
+     * DB에 반영된 매출 기록 반영 (저장 스레드에서 호출)
+     */
+    synchronized void addAll(List<SalesWriter.SaleRecord> records) {
+        if (degraded) return;
+        for (SalesWriter.SaleRecord r : records) {
+            add(r.clientId, r.drinkName, r.saleDate, r.saleHour, (long) r.price * r.quantity, r.quantity);
+        }
+    }
+
+    /**
+     * 일별 집계 테이블을 스트리밍하여 큐브 채우기 (시간은 HOUR_UNKNOWN)
+     * - 기존 내용을 비우고 시작하며, 도중에 실패하면 다시 비워 두 번 누적되지 않도록 함
+     */
+    synchronized void warmUp(Connection conn) throws SQLException {
+        clear();
+        String sql = "SELECT sale_date, client_id, drink_name, total, quantity FROM sales_rollup_daily";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    add(rs.getString(2), rs.getString(3), rs.getDate(1).toLocalDate(), HOUR_UNKNOWN,
+                            rs.getLong(4), rs.getLong(5));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            clear(); // 반쯤 채운 상태를 남기지 않음 (다음 시도에서 처음부터 다시)
+            throw e;
+        }
+        warmed = true;
+    }
+
+    /**
+     * 불완전 상태로 표시 (반영에 실패한 기록이 있음, 이후 갱신 중단)
+     */
+    synchronized void markDegraded() {
+        degraded = true;
+    }
+
+    /**
+     * 반영하지 못한 기록이 있어 조회 결과가 실제보다 적을 수 있는지 여부
+     */
+    public synchronized boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * 시작 시 DB에서 채워졌는지 여부
+     */
+    public synchronized boolean isWarmed() {
+        return warmed;
+    }
+
+    /**
+     * 슬라이스 + 롤업 조회
+     * @param clientId 클라이언트 조건 (null이면 전체)
+     * @param drinkName 음료 조건 (null이면 전체)
+     * @param from 시작 날짜 (포함, null이면 제한 없음)
+     * @param to 끝 날짜 (포함, null이면 제한 없음)
+     * @param hourFrom 시작 시간 (포함, 0~24)
+     * @param hourTo 끝 시간 (포함, 0~24, HOUR_UNKNOWN 포함하려면 24)
+     * @param groupBy 묶을 차원 (CLIENT | DRINK | DAY | HOUR 조합, 0이면 전체 합계 한 행)
+     * @return 묶인 차원별 합계
+     */
+    public synchronized List<Row> query(String clientId, String drinkName, LocalDate from, LocalDate to,
+                                        int hourFrom, int hourTo, int groupBy) {
+        int client = -1;
+        if (clientId != null) {
+            Integer c = clientIndex.get(clientId);
+            if (c == null) return new ArrayList<>();
+            client = c;
+        }
+        int drink = -1;
+        if (drinkName != null) {
+            Integer d = drinkIndex.get(drinkName);
+            if (d == null) return new ArrayList<>();
+            drink = d;
+        }
+        long dayFrom = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long dayTo = to == null ? Long.MAX_VALUE : to.toEpochDay();
+
+        // 롤업되는 차원을 지운 키 마스크
+        long mask = 0;
+        if ((groupBy & CLIENT) != 0) mask |= fieldMask(CLIENT_SHIFT, CLIENT_BITS);
+        if ((groupBy & DRINK) != 0) mask |= fieldMask(DRINK_SHIFT, DRINK_BITS);
+        if ((groupBy & DAY) != 0) mask |= fieldMask(DAY_SHIFT, DAY_BITS);
+        if ((groupBy & HOUR) != 0) mask |= fieldMask(0, HOUR_BITS);
+
+        // 그룹 키 → 그룹 번호 (개방 주소법, 박싱 없이 누적)
+        int[] groupTable = newTable(64);
+        long[] groupKeys = new long[32];
+        long[] groupAmounts = new long[32];
+        long[] groupQuantities = new long[32];
+        int groupCount = 0;
+
+        for (int i = 0; i < cellCount; i++) {
+            long key = keys[i];
+            if (client >= 0 && clientOf(key) != client) continue;
+            if (drink >= 0 && drinkOf(key) != drink) continue;
+            long day = dayOf(key);
+            if (day < dayFrom || day > dayTo) continue;
+            int hour = hourOf(key);
+            if (hour < hourFrom || hour > hourTo) continue;
+
+            long groupKey = key & mask;
+            int m = groupTable.length - 1;
+            int slot = (int) (mix(groupKey) & m);
+            while (groupTable[slot] >= 0 && groupKeys[groupTable[slot]] != groupKey) {
+                slot = (slot + 1) & m;
+            }
+            int g = groupTable[slot];
+            if (g < 0) {
+                if (groupCount == groupKeys.length) {
+                    groupKeys = Arrays.copyOf(groupKeys, groupCount * 2);
+                    groupAmounts = Arrays.copyOf(groupAmounts, groupCount * 2);
+                    groupQuantities = Arrays.copyOf(groupQuantities, groupCount * 2);
+                }
+                g = groupCount++;
+                groupKeys[g] = groupKey;
+                groupTable[slot] = g;
+                if (groupCount * 2 > groupTable.length) {
+                    groupTable = newTable(groupTable.length * 2);
+                    for (int k = 0; k < groupCount; k++) {
+                        int s = (int) (mix(groupKeys[k]) & (groupTable.length - 1));
+                        while (groupTable[s] >= 0) s = (s + 1) & (groupTable.length - 1);
+                        groupTable[s] = k;
+                    }
+                }
+            }
+            groupAmounts[g] += amounts[i];
+            groupQuantities[g] += quantities[i];
+        }
+
+        List<Row> rows = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            long key = groupKeys[g];
+            rows.add(new Row(
+                    (groupBy & CLIENT) != 0 ? clientNames.get(clientOf(key)) : null,
+                    (groupBy & DRINK) != 0 ? drinkNames.get(drinkOf(key)) : null,
+                    (groupBy & DAY) != 0 ? LocalDate.ofEpochDay(dayOf(key)) : null,
+                    (groupBy & HOUR) != 0 ? hourOf(key) : -1,
+                    groupAmounts[g], groupQuantities[g]));
+        }
+        return rows;
+    }
+
+    /**
+     * 저장된 셀 수
+     */
+    public synchronized int getCellCount() {
+        return cellCount;
+    }
+
+    // 모든 셀과 차원 값 비우기
+    private void clear() {
+        clientIndex.clear();
+        clientNames.clear();
+        drinkIndex.clear();
+        drinkNames.clear();
+        keys = new long[1024];
+        amounts = new long[1024];
+        quantities = new long[1024];
+        cellCount = 0;
+        table = newTable(2048);
+        warmed = false;
+        degraded = false;
+    }
+
+    // 차원 값을 번호로 변환 (처음 보는 값이면 새 번호 부여)
+    private static int intern(Map<String, Integer> index, List<String> names, String value, int bits) {
+        Integer id = index.get(value);
+        if (id != null) return id;
+        if (names.size() >= (1 << bits)) throw new IllegalStateException("큐브 차원 값이 너무 많습니다: " + value);
+        id = names.size();
+        index.put(value, id);
+        names.add(value);
+        return id;
+    }
+
+    private static long pack(int client, int drink, long epochDay, int hour) {
+        return ((long) client << CLIENT_SHIFT)
+                | ((long) drink << DRINK_SHIFT)
+                | ((epochDay & ((1L << DAY_BITS) - 1)) << DAY_SHIFT)
+                | hour;
+    }
+
+    private static long fieldMask(int shift, int bits) {
+        return ((1L << bits) - 1) << shift;
+    }
+
+    private static int clientOf(long key) { return (int) (key >>> CLIENT_SHIFT); }
+    private static int drinkOf(long key) { return (int) ((key >>> DRINK_SHIFT) & ((1L << DRINK_BITS) - 1)); }
+    private static long dayOf(long key) { return (key >>> DAY_SHIFT) & ((1L << DAY_BITS) - 1); }
+    private static int hourOf(long key) { return (int) (key & ((1L << HOUR_BITS) - 1)); }
+
+    // 키에 해당하는 셀 번호 (없으면 새로 추가)
+    private int cellOf(long key) {
+        int slot = slotOf(key, table);
+        int cell = table[slot];
+        if (cell >= 0) return cell;
+
+        if (cellCount == keys.length) {
+            int n = keys.length * 2;
+            keys = Arrays.copyOf(keys, n);
+            amounts = Arrays.copyOf(amounts, n);
+            quantities = Arrays.copyOf(quantities, n);
+        }
+        cell = cellCount++;
+        keys[cell] = key;
+        table[slot] = cell;
+
+        if (cellCount * 2 > table.length) rehash(); // 부하율 50% 유지
+        return cell;
+    }
+
+    // 키가 있는 칸 또는 넣을 빈 칸
+    private int slotOf(long key, int[] t) {
+        int m = t.length - 1;
+        int slot = (int) (mix(key) & m);
+        while (t[slot] >= 0 && keys[t[slot]] != key) {
+            slot = (slot + 1) & m;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] t = newTable(table.length * 2);
+        for (int i = 0; i < cellCount; i++) {
+            t[slotOf(keys[i], t)] = i;
+        }
+        table = t;
+    }
+
+    private static int[] newTable(int size) {
+        int[] t = new int[size];
+        Arrays.fill(t, -1);
+        return t;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,193 @@
+// service/SalesExporter.java
+
+package service;
+
+import util.DBManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * sales_log 원본 내보내기 (커서 기반)
+ * - id 기준 키셋 페이지네이션: WHERE id > 마지막 id ORDER BY id LIMIT n
+ * - 서버에 열린 커서를 남기지 않고, 다음 위치는 토큰(Cursor.encode)으로 클라이언트가 보관
+ * - 결과는 fetch size 단위로 읽으며 한 행씩 RowSink에 넘김 (전체 결과를 메모리에 올리지 않음)
+ * - 서버 동기화용으로 자판기별 저널 시퀀스(journal_seq) 순 키셋 페이지도 제공 (exportJournal)
+ *   journal_seq가 없는 이전 버전의 행은 id 순 키셋 페이지로 따로 제공 (exportLegacy)
+ */
+public class SalesExporter {
+
+    public static final int MAX_CHUNK_ROWS = 500; // 한 청크 최대 행 수
+    public static final int MAX_CREDITS = 8;      // 한 요청으로 받을 수 있는 최대 청크 수
+
+    /**
+     * 내보낸 행 하나를 받는 함수
+     */
+    public interface RowSink {
+        void row(long id, String clientId, LocalDate saleDate, String drinkName, int price, int quantity);
+    }
+
+    /**
+     * 내보내기 위치와 조건 (토큰으로 주고받음)
+     */
+    public static final class Cursor {
+        public final long afterId;      // 이 id 다음 행부터
+        public final LocalDate from;    // 시작 날짜 (포함, null이면 제한 없음)
+        public final LocalDate to;      // 끝 날짜 (포함, null이면 제한 없음)
+
+        public Cursor(long afterId, LocalDate from, LocalDate to) {
+            this.afterId = afterId;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * 같은 조건으로 afterId만 옮긴 커서
+         */
+        public Cursor advance(long lastId) {
+            return new Cursor(lastId, from, to);
+        }
+
+        /**
+         * 토큰 문자열로 변환 ("afterId|from|to"의 Base64)
+         */
+        public String encode() {
+            String raw = afterId + "|" + (from == null ? "" : from) + "|" + (to == null ? "" : to);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * 토큰 문자열 해석
+         * @throws IllegalArgumentException 잘못된 토큰
+         */
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 3) throw new IllegalArgumentException("잘못된 내보내기 토큰입니다.");
+                return new Cursor(Long.parseLong(parts[0]),
+                        parts[1].isEmpty() ? null : LocalDate.parse(parts[1]),
+                        parts[2].isEmpty() ? null : LocalDate.parse(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("잘못된 내보내기 토큰입니다.", e);
+            }
+        }
+    }
+
+    /**
+     * 커서 다음 행부터 최대 limit개를 id 순서로 내보냄
+     * @param cursor 시작 위치와 조건
+     * @param limit 최대 행 수
+     * @param fetchSize JDBC fetch size (한 번에 가져올 행 수)
+     * @param sink 행을 받을 함수
+     * @return 내보낸 행 수 (limit보다 작으면 끝까지 읽은 것)
+     */
+    public static int export(Cursor cursor, int limit, int fetchSize, RowSink sink) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, client_id, sale_date, drink_name, price, quantity FROM sales_log WHERE id > ?");
+        if (cursor.from != null) sql.append(" AND sale_date >= ?");
+        if (cursor.to != null) sql.append(" AND sale_date <= ?");
+        sql.append(" ORDER BY id LIMIT ?");
+
+        int count = 0;
+        try (Connection conn = DBManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            stmt.setLong(p++, cursor.afterId);
+            if (cursor.from != null) stmt.setDate(p++, Date.valueOf(cursor.from));
+            if (cursor.to != null) stmt.setDate(p++, Date.valueOf(cursor.to));
+            stmt.setInt(p, limit);
+            stmt.setFetchSize(fetchSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.row(rs.getLong(1), rs.getString(2), rs.getDate(3).toLocalDate(),
+                            rs.getString(4), rs.getInt(5), rs.getInt(6));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 저널 시퀀스가 기록된 매출이 있는 자판기 ID 목록 (journal_seq 열이 없으면 추가)
+     */
+    public static List<String> journalClients() throws SQLException {
+        List<String> clients = new ArrayList<>();
+        try (Connection conn = DBManager.getConnection()) {
+            SalesWriter.ensureJournalSeqColumn(conn);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(
+                         "SELECT DISTINCT client_id FROM sales_log WHERE journal_seq IS NOT NULL")) {
+                while (rs.next()) clients.add(rs.getString(1));
+            }
+        }
+        return clients;
+    }
+
+    /**
+     * 자판기 하나의 매출을 저널 시퀀스 순서로 afterSeq 다음부터 최대 limit개 내보냄
+     * (sink의 id 자리에 저널 시퀀스를 넘김, journal_seq가 없는 기존 행은 제외 → exportLegacy)
+     * @return 내보낸 행 수 (limit보다 작으면 끝까지 읽은 것)
+     */
+    public static int exportJournal(String clientId, long afterSeq, int limit, int fetchSize, RowSink sink)
+            throws SQLException {
+        String sql = "SELECT journal_seq, client_id, sale_date, drink_name, price, quantity FROM sales_log "
+                + "WHERE client_id = ? AND journal_seq > ? ORDER BY journal_seq LIMIT ?";
+
+        int count = 0;
+        try (Connection conn = DBManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, clientId);
+            stmt.setLong(2, afterSeq);
+            stmt.setInt(3, limit);
+            stmt.setFetchSize(fetchSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.row(rs.getLong(1), rs.getString(2), rs.getDate(3).toLocalDate(),
+                            rs.getString(4), rs.getInt(5), rs.getInt(6));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * journal_seq가 없는 이전 버전의 행을 id 순서로 afterId 다음부터 최대 limit개 내보냄
+     * (journalClients()로 journal_seq 열이 있는지 먼저 확인한 뒤 호출)
+     * @return 내보낸 행 수 (limit보다 작으면 끝까지 읽은 것)
+     */
+    public static int exportLegacy(long afterId, int limit, int fetchSize, RowSink sink) throws SQLException {
+        String sql = "SELECT id, client_id, sale_date, drink_name, price, quantity FROM sales_log "
+                + "WHERE journal_seq IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+        int count = 0;
+        try (Connection conn = DBManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
+            stmt.setFetchSize(fetchSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.row(rs.getLong(1), rs.getString(2), rs.getDate(3).toLocalDate(),
+                            rs.getString(4), rs.getInt(5), rs.getInt(6));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
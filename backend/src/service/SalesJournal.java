@@ -0,0 +1,414 @@
+// service/SalesJournal.java
+
+package service;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 로컬 매출 저널 (추가 전용, 메모리 매핑 세그먼트 파일)
+ * - 모든 판매는 DB보다 먼저 저널에 기록되어 DB가 꺼져 있어도 매출이 사라지지 않음
+ * - 고정 크기 세그먼트 파일(segment-<첫 시퀀스>.log)에 순서대로 추가, 가득 차면 새 세그먼트 생성
+ * - 레코드 형식: [길이 int][CRC32 int][시퀀스 long][본문], 재시작 시 CRC로 끊긴 레코드를 찾아 잘라냄
+ * - fsync 정책: ALWAYS(레코드마다, append가 디스크 동기화를 기다림), INTERVAL(주기적), OS(운영체제에 맡김)
+ * - DB 반영이 끝난 시퀀스는 checkpoint 파일에 기록하고, 모두 반영된 세그먼트는 삭제
+ * - 읽기(readPending/markCommitted)는 저장 스레드 하나만 사용
+ */
+public class SalesJournal {
+
+    /**
+     * 디스크 동기화 정책
+     */
+    public enum FsyncPolicy { ALWAYS, INTERVAL, OS }
+
+    private static final int HEADER_SIZE = 16; // 길이(4) + CRC(4) + 시퀀스(8)
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // 세그먼트 파일 하나
+    private static final class Segment {
+        final long baseSeq;             // 첫 레코드의 시퀀스
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        volatile int writePos;          // 유효한 데이터의 끝 위치
+        volatile long lastSeq;          // 마지막 레코드의 시퀀스 (없으면 baseSeq - 1)
+
+        Segment(long baseSeq, Path path, int size) throws IOException {
+            this.baseSeq = baseSeq;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.lastSeq = baseSeq - 1;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 닫기 실패는 무시
+            }
+        }
+    }
+
+    private final Path dir;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final Path checkpointPath;
+    private final List<Segment> segments = new ArrayList<>(); // 시퀀스 순서 (마지막이 현재 기록 중인 세그먼트)
+    private final ScheduledExecutorService syncer;
+    private final CRC32 crc = new CRC32();                    // append 잠금 안에서만 사용
+    private volatile boolean unsynced = false;
+
+    private long nextSeq;                  // 다음에 부여할 시퀀스
+    private volatile long committedSeq;    // DB 반영이 끝난 마지막 시퀀스
+
+    // 읽기 위치 (저장 스레드 전용): 다음에 읽을 레코드가 있는 세그먼트 인덱스/위치
+    private int readSegment = 0;
+    private int readPos = 0;
+
+    /**
+     * 저널 열기 (기존 세그먼트가 있으면 검증 후 이어서 기록)
+     * @param dir 저널 디렉터리
+     * @param segmentSize 세그먼트 파일 크기 (바이트)
+     * @param fsyncPolicy 디스크 동기화 정책
+     * @param fsyncIntervalMs INTERVAL 정책의 동기화 주기
+     */
+    public SalesJournal(Path dir, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncIntervalMs) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.checkpointPath = dir.resolve("checkpoint");
+        Files.createDirectories(dir);
+
+        this.committedSeq = readCheckpoint();
+        recover();
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sales-journal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncIfNeeded, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    // 기존 세그먼트를 읽어 기록 위치/시퀀스 복구
+    private void recover() throws IOException {
+        List<Long> bases = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                bases.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        bases.sort(null);
+
+        for (int i = 0; i < bases.size(); i++) {
+            long base = bases.get(i);
+            Path path = segmentPath(base);
+            // 다음 세그먼트 시작 전까지 모두 반영된 세그먼트는 매핑하지 않고 삭제
+            if (i + 1 < bases.size() && bases.get(i + 1) - 1 <= committedSeq) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            Segment seg = new Segment(base, path, segmentSize);
+            scan(seg);
+            segments.add(seg);
+        }
+
+        if (segments.isEmpty()) {
+            nextSeq = committedSeq + 1;
+            segments.add(new Segment(nextSeq, segmentPath(nextSeq), segmentSize));
+        } else {
+            nextSeq = Math.max(segments.get(segments.size() - 1).lastSeq, committedSeq) + 1;
+        }
+        seekTo(committedSeq);
+    }
+
+    // 세그먼트의 유효한 레코드 끝까지 검사 (CRC가 맞지 않는 끊긴 레코드 이후는 버림)
+    private void scan(Segment seg) {
+        ByteBuffer buf = seg.buffer;
+        int pos = 0;
+        long lastSeq = seg.baseSeq - 1;
+        while (pos + HEADER_SIZE <= segmentSize) {
+            int length = buf.getInt(pos);
+            if (length <= 0 || pos + HEADER_SIZE + length > segmentSize) break;
+            int storedCrc = buf.getInt(pos + 4);
+            if (storedCrc != checksum(buf, pos + 8, 8 + length)) break;
+            lastSeq = buf.getLong(pos + 8);
+            pos += HEADER_SIZE + length;
+        }
+        // 끊긴 레코드 흔적이 남아 있으면 지움 (이후 추가한 레코드 뒤에 잘못된 데이터가 남지 않도록)
+        if (pos + 4 <= segmentSize && buf.getInt(pos) != 0) {
+            for (int i = pos; i < segmentSize; i++) buf.put(i, (byte) 0);
+            seg.buffer.force();
+        }
+        seg.writePos = pos;
+        seg.lastSeq = lastSeq;
+    }
+
+    /**
+     * 매출 기록 추가
+     * @param record 기록할 매출 (부여된 시퀀스가 record.seq에 저장됨)
+     * @return 부여된 시퀀스
+     */
+    public synchronized long append(SalesWriter.SaleRecord record) throws IOException {
+        byte[] client = record.clientId.getBytes(StandardCharsets.UTF_8);
+        byte[] drink = record.drinkName.getBytes(StandardCharsets.UTF_8);
+        byte[] data = record.encryptedData.getBytes(StandardCharsets.UTF_8);
+        int length = 2 + client.length + 4 + 1 + 2 + drink.length + 4 + 4 + 2 + data.length;
+        if (HEADER_SIZE + length > segmentSize) throw new IOException("저널 레코드가 세그먼트보다 큽니다: " + length);
+
+        Segment seg = segments.get(segments.size() - 1);
+        if (seg.writePos + HEADER_SIZE + length > segmentSize) {
+            seg.buffer.force(); // 이전 세그먼트는 닫기 전에 디스크에 반영
+            seg = new Segment(nextSeq, segmentPath(nextSeq), segmentSize);
+            segments.add(seg);
+        }
+
+        long seq = nextSeq;
+        ByteBuffer buf = seg.buffer.duplicate();
+        int start = seg.writePos;
+        buf.position(start + 8);
+        buf.putLong(seq);
+        putBytes(buf, client);
+        buf.putInt((int) record.saleDate.toEpochDay());
+        buf.put((byte) record.saleHour);
+        putBytes(buf, drink);
+        buf.putInt(record.price);
+        buf.putInt(record.quantity);
+        putBytes(buf, data);
+        buf.putInt(start + 4, checksum(buf, start + 8, 8 + length));
+        buf.putInt(start, length); // 길이는 마지막에 기록 (중간에 끊기면 빈 레코드로 보임)
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            seg.buffer.force();
+        } else {
+            unsynced = true;
+        }
+
+        seg.writePos = start + HEADER_SIZE + length;
+        seg.lastSeq = seq;
+        nextSeq = seq + 1;
+        record.seq = seq;
+        return seq;
+    }
+
+    /**
+     * 아직 DB에 반영되지 않은 기록을 순서대로 읽음 (읽기 위치는 markCommitted 때 이동)
+     * @param max 최대 개수
+     * @param out 읽은 기록을 담을 목록
+     * @return 읽은 개수
+     */
+    public int readPending(int max, List<SalesWriter.SaleRecord> out) {
+        int count = 0;
+        int segIndex = readSegment;
+        int pos = readPos;
+        while (count < max) {
+            Segment seg;
+            synchronized (this) {
+                if (segIndex >= segments.size()) break;
+                seg = segments.get(segIndex);
+            }
+            if (pos >= seg.writePos) {
+                synchronized (this) {
+                    if (segIndex == segments.size() - 1) break; // 현재 기록 중인 세그먼트의 끝
+                }
+                segIndex++;
+                pos = 0;
+                continue;
+            }
+            ByteBuffer buf = seg.buffer.duplicate();
+            int length = buf.getInt(pos);
+            out.add(decode(buf, pos));
+            pos += HEADER_SIZE + length;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * seq까지 DB 반영 완료 표시 (읽기 위치 이동, checkpoint 기록, 다 쓴 세그먼트 삭제)
+     */
+    public void markCommitted(long seq) throws IOException {
+        if (seq <= committedSeq) return;
+        seekTo(seq);
+        committedSeq = seq;
+        writeCheckpoint(seq);
+
+        // 모두 반영된 이전 세그먼트 삭제 (현재 기록 중인 세그먼트는 유지)
+        while (true) {
+            Segment first;
+            synchronized (this) {
+                if (segments.size() <= 1 || segments.get(0).lastSeq > seq || readSegment == 0) break;
+                first = segments.remove(0);
+                readSegment--;
+            }
+            first.close();
+            try {
+                Files.deleteIfExists(first.path);
+            } catch (IOException e) {
+                // 매핑이 아직 해제되지 않은 경우 (Windows) 다음 실행 때 삭제됨
+            }
+        }
+    }
+
+    /**
+     * 시퀀스를 afterSeq 다음부터 다시 매김 (DB 반영 위치가 저널보다 앞선 경우: 저널을 새로 만들었거나 같은 ID를 다른 곳에서 사용)
+     * - 반영되지 않은 기록을 afterSeq + 1부터 새 시퀀스로 다시 추가하고, 이전 번호의 기록은 반영된 것으로 표시
+     * @return 다시 추가한 기록 수
+     */
+    public int rebase(long afterSeq) throws IOException {
+        List<SalesWriter.SaleRecord> pending = new ArrayList<>();
+        synchronized (this) {
+            if (afterSeq < nextSeq) return 0;
+            readPending(Integer.MAX_VALUE, pending);
+            nextSeq = afterSeq + 1;
+            for (SalesWriter.SaleRecord record : pending) append(record);
+            segments.get(segments.size() - 1).buffer.force(); // 옛 기록을 반영 처리하기 전에 디스크에 남김
+        }
+        markCommitted(afterSeq);
+        return pending.size();
+    }
+
+    // 읽기 위치를 seq 다음 레코드로 이동
+    private void seekTo(long seq) {
+        while (true) {
+            Segment seg;
+            synchronized (this) {
+                if (readSegment >= segments.size()) return;
+                seg = segments.get(readSegment);
+            }
+            if (readPos >= seg.writePos) {
+                synchronized (this) {
+                    if (readSegment == segments.size() - 1) return;
+                }
+                readSegment++;
+                readPos = 0;
+                continue;
+            }
+            ByteBuffer buf = seg.buffer;
+            if (buf.getLong(readPos + 8) > seq) return;
+            readPos += HEADER_SIZE + buf.getInt(readPos);
+        }
+    }
+
+    // 레코드 하나 해석
+    private static SalesWriter.SaleRecord decode(ByteBuffer buf, int pos) {
+        buf.position(pos + 8);
+        long seq = buf.getLong();
+        String client = getString(buf);
+        LocalDate date = LocalDate.ofEpochDay(buf.getInt());
+        int hour = buf.get();
+        String drink = getString(buf);
+        int price = buf.getInt();
+        int quantity = buf.getInt();
+        String data = getString(buf);
+        SalesWriter.SaleRecord record = new SalesWriter.SaleRecord(client, date, hour, drink, price, quantity, data);
+        record.seq = seq;
+        return record;
+    }
+
+    private static void putBytes(ByteBuffer buf, byte[] bytes) {
+        buf.putShort((short) bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // buf[from, from + length) 구간의 CRC32
+    private int checksum(ByteBuffer buf, int from, int length) {
+        synchronized (crc) {
+            crc.reset();
+            ByteBuffer slice = buf.duplicate();
+            slice.limit(from + length).position(from);
+            crc.update(slice);
+            return (int) crc.getValue();
+        }
+    }
+
+    private void syncIfNeeded() {
+        if (!unsynced) return;
+        unsynced = false;
+        Segment seg;
+        synchronized (this) {
+            seg = segments.get(segments.size() - 1);
+        }
+        seg.buffer.force();
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) return 0;
+        try (RandomAccessFile file = new RandomAccessFile(checkpointPath.toFile(), "r")) {
+            return file.length() >= 8 ? file.readLong() : 0;
+        }
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(checkpointPath.toFile(), "rw")) {
+            file.seek(0);
+            file.writeLong(seq);
+            if (fsyncPolicy != FsyncPolicy.OS) file.getFD().sync();
+        }
+    }
+
+    private Path segmentPath(long baseSeq) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseSeq, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * DB 반영이 끝난 마지막 시퀀스
+     */
+    public long getCommittedSeq() {
+        return committedSeq;
+    }
+
+    /**
+     * 마지막으로 기록된 시퀀스
+     */
+    public synchronized long getLastSeq() {
+        return nextSeq - 1;
+    }
+
+    /**
+     * 아직 DB에 반영되지 않은 기록 수
+     */
+    public long getPendingCount() {
+        return Math.max(0, getLastSeq() - committedSeq);
+    }
+
+    /**
+     * 저널 닫기 (남은 내용을 디스크에 반영)
+     */
+    public synchronized void close() {
+        if (syncer != null) syncer.shutdownNow();
+        for (Segment seg : segments) {
+            seg.buffer.force();
+            seg.close();
+        }
+        segments.clear();
+    }
+}
@@ -2,39 +2,79 @@
 
 package service;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.sql.*;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 import javafx.scene.control.Alert;
-import util.DBManager;
+import network.SalesLogShipper;
 import util.SimpleEncryptor;
 
 /**
  * 매출 로그 관리 클래스
- * - 매출 기록 DB 저장 및 TCP 전송
- * - 일/월별 매출 집계 및 다이얼로그 표시 기능 포함
+ * - 매출 기록 로컬 저널 기록 후 DB 저장(SalesWriter로 비동기 배치 저장) 및 TCP 전송
+ * - 일/월별 매출 집계 및 다이얼로그 표시 기능 포함 (조회 결과는 ReportCache에 캐시)
  */
 public class SalesLogger {
 
-    private static BufferedWriter tcpWriter = null;
+    private static volatile SalesLogShipper logShipper = null;
+
+    // 매출 분석용 메모리 큐브 (저장 스레드가 DB 반영 후 갱신)
+    private static final SalesCube salesCube = new SalesCube();
+
+    // 보고서 조회 결과 캐시 (최대 개수/TTL은 시스템 프로퍼티로 변경 가능, 매출 반영 시 무효화)
+    private static final ReportCache reportCache = new ReportCache(
+            Integer.getInteger("vending.reportCache.max", 64),
+            Long.getLong("vending.reportCache.ttlMs", 30_000));
+
+    // 매출 기록 비동기 저장기 (start 또는 첫 판매 때 생성)
+    private static volatile SalesWriter salesWriter = null;
+
+    // 저널 설정 (시스템 프로퍼티로 변경 가능)
+    private static final String JOURNAL_DIR = System.getProperty("vending.journal.dir", "sales-journal");
+    private static final int JOURNAL_SEGMENT_BYTES = Integer.getInteger("vending.journal.segmentBytes", 1 << 20);
+    // 기본은 INTERVAL: 판매(UI 스레드)마다 디스크 동기화를 기다리지 않고 주기적으로 한 번에 동기화
+    // (매핑된 페이지는 프로세스가 죽어도 남으므로, 주기 안의 기록은 OS 장애/정전 때만 잃을 수 있음, ALWAYS로 변경 가능)
+    private static final String JOURNAL_FSYNC = System.getProperty("vending.journal.fsync", "INTERVAL");
+    private static final long JOURNAL_FSYNC_INTERVAL_MS = Long.getLong("vending.journal.fsyncIntervalMs", 200);
+
+    /**
+     * 서버 로그 전송기 설정 (외부에서 주입)
+     */
+    public static void setLogShipper(SalesLogShipper shipper) {
+        logShipper = shipper;
+    }
 
     /**
-     * TCP 스트림 설정 (외부에서 주입)
+     * 서버 로그 전송기 반환 (통계 조회용, 없으면 null)
      */
-    public static void setTcpWriter(BufferedWriter writer) {
-        tcpWriter = writer;
+    public static SalesLogShipper getLogShipper() {
+        return logShipper;
     }
 
     /**
-     * 매출 기록 처리 (DB 저장 + TCP 전송)
+     * 매출 저널 열기 및 저장 스레드 시작 (이전 실행에서 DB에 반영되지 못한 기록은 자동 재전송)
+     * @param clientId 이 자판기의 클라이언트 ID (저널 디렉터리/반영 위치 구분용)
+     */
+    public static synchronized void start(String clientId) throws IOException {
+        if (salesWriter != null) return;
+        SalesJournal journal = new SalesJournal(Paths.get(JOURNAL_DIR, clientId), JOURNAL_SEGMENT_BYTES,
+                SalesJournal.FsyncPolicy.valueOf(JOURNAL_FSYNC), JOURNAL_FSYNC_INTERVAL_MS);
+        // 반영 대기 10000건 초과 시 50ms 대기, 최대 100건/200ms 단위 배치
+        salesWriter = new SalesWriter(journal, salesCube, reportCache, clientId, 10_000, 100, 200, 50);
+    }
+
+    /**
+     * 매출 기록 처리 (저널 기록 + DB 저장 + TCP 전송)
      */
     public static void logSale(String clientId, String drinkName, int price, int quantity) throws IOException {
         // 로그 문자열 생성 및 암호화
-        String plainLine = String.format("%s,%s,%d,%d", LocalDate.now(), drinkName, price, quantity);
+        LocalDateTime now = LocalDateTime.now();
+        String plainLine = String.format("%s,%s,%d,%d", now.toLocalDate(), drinkName, price, quantity);
         String encryptedLine;
 
         try {
@@ -46,47 +86,58 @@ public class SalesLogger {
             throw new IOException("암호화 중 오류 발생: " + e.getMessage(), e);
         }
 
-        // DB 저장
-        try (Connection conn = DBManager.getConnection()) {
-            String sql = "INSERT INTO sales_log (client_id, sale_date, drink_name, price, quantity, encrypted_data) VALUES (?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, clientId); // 클라이언트 ID
-                pstmt.setDate(2, Date.valueOf(LocalDate.now()));
-                pstmt.setString(3, drinkName);
-                pstmt.setInt(4, price);
-                pstmt.setInt(5, quantity);
-                pstmt.setString(6, encryptedLine);
-                pstmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            System.err.println("DB 저장 실패: " + e.getMessage());
-        }
+        // 저널에 기록 후 반환 (저장 스레드가 배치로 INSERT)
+        if (salesWriter == null) start(clientId);
+        long seq = salesWriter.submit(new SalesWriter.SaleRecord(clientId, now.toLocalDate(), now.getHour(), drinkName, price, quantity, encryptedLine));
 
-        //TCP 서버로 암호화된 로그 전송
-        try {
-            if (tcpWriter != null) {
-                tcpWriter.write(encryptedLine);
-                tcpWriter.newLine();
-                tcpWriter.flush();
-            }
-        } catch (IOException e) {
-            System.err.println("TCP 전송 실패: " + e.getMessage());
+        //TCP 서버로 로그 전송 (전송 스레드가 묶어서 보내고 서버 확인까지 보관, 저널 시퀀스로 중복 제거)
+        SalesLogShipper shipper = logShipper;
+        if (shipper != null) {
+            shipper.offer(seq, now.toLocalDate(), drinkName, price, quantity);
         }
     }
 
+    /**
+     * 대기 중인 매출 기록을 모두 저장하고 저장 스레드 종료 (프로그램 종료 시 호출)
+     */
+    public static void shutdown() {
+        SalesWriter writer = salesWriter;
+        if (writer != null) writer.shutdown(5000);
+    }
+
+    /**
+     * 매출 기록 저장기 반환 (통계 조회용)
+     */
+    public static SalesWriter getSalesWriter() {
+        return salesWriter;
+    }
+
+    /**
+     * 매출 큐브 반환 (다차원 매출 조회용)
+     */
+    public static SalesCube getSalesCube() {
+        return salesCube;
+    }
+
+    /**
+     * 보고서 캐시 반환 (적중률 등 통계 조회용)
+     */
+    public static ReportCache getReportCache() {
+        return reportCache;
+    }
+
     /**
      * 음료별 매출 총합 다이얼로그 출력
      */
     public static void showSalesReportDialog() {
-        try (Connection conn = DBManager.getConnection()) {
-            var stmt = conn.createStatement();
-            var rs = stmt.executeQuery("SELECT drink_name, SUM(price * quantity) AS total FROM sales_log GROUP BY drink_name");
+        try {
+            Map<String, Integer> drinkMap = reportCache.get("drink", SalesRollup::getDrinkTotals); // 집계 테이블에서 조회
 
             StringBuilder sb = new StringBuilder("음료별 총 매출\n");
-            while (rs.next()) {
-                sb.append(rs.getString("drink_name"))
+            for (var entry : drinkMap.entrySet()) {
+                sb.append(entry.getKey())
                         .append(" : ")
-                        .append(rs.getInt("total"))
+                        .append(entry.getValue())
                         .append("원\n");
             }
 
@@ -106,52 +157,50 @@ public class SalesLogger {
     }
 
     /**
-     * 일별 매출 반환
+     * 일별 매출 반환 (집계 테이블 기준, 날짜순)
      * @return Map<날짜, 총 매출>
      */
     public static Map<LocalDate, Integer> getDailySales() {
-        Map<LocalDate, Integer> dailyMap = new HashMap<>();
-        String sql = "SELECT sale_date, SUM(price * quantity) AS total FROM sales_log GROUP BY sale_date";
-
-        try (Connection conn = DBManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                LocalDate date = rs.getDate("sale_date").toLocalDate();
-                int total = rs.getInt("total");
-                dailyMap.put(date, total);
-            }
-
+        try {
+            return reportCache.get("daily", SalesRollup::getDailyTotals);
         } catch (SQLException e) {
             System.err.println("일별 매출 조회 실패: " + e.getMessage());
+            return new HashMap<>();
         }
-
-        return dailyMap;
     }
 
     /**
-     * 월별 매출 반환
+     * 월별 매출 반환 (집계 테이블 기준, 월순)
      * @return Map<"YYYY-MM", 총 매출>
      */
     public static Map<String, Integer> getMonthlySales() {
-        Map<String, Integer> monthlyMap = new HashMap<>();
-        String sql = "SELECT DATE_FORMAT(sale_date, '%Y-%m') AS month, SUM(price * quantity) AS total FROM sales_log GROUP BY month";
-
-        try (Connection conn = DBManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                String month = rs.getString("month");
-                int total = rs.getInt("total");
-                monthlyMap.put(month, total);
-            }
-
+        try {
+            return reportCache.get("monthly", SalesRollup::getMonthlyTotals);
         } catch (SQLException e) {
             System.err.println("월별 매출 조회 실패: " + e.getMessage());
+            return new HashMap<>();
         }
+    }
 
-        return monthlyMap;
+    /**
+     * 전체 매출 합계 반환 (집계 테이블 기준)
+     */
+    public static long getTotalSales() {
+        try {
+            return reportCache.get("total", SalesRollup::getGrandTotal);
+        } catch (SQLException e) {
+            System.err.println("전체 매출 조회 실패: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * sales_log 원본에서 매출 집계를 다시 계산
+     * @return 성공 여부
+     */
+    public static boolean rebuildSalesRollups() {
+        boolean ok = SalesRollup.rebuild();
+        reportCache.invalidate();
+        return ok;
     }
 }
@@ -0,0 +1,225 @@
+// service/SalesRollup.java
+
+package service;
+
+import util.DBManager;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 매출 집계 테이블 관리 클래스
+ * - sales_rollup_daily(날짜, 클라이언트, 음료) / sales_rollup_monthly(월, 클라이언트, 음료) 단위로 합계 유지
+ * - 매출 INSERT와 같은 트랜잭션에서 증가시키므로 sales_log와 항상 일치
+ * - 보고서는 sales_log 전체 대신 집계 행(버킷 수만큼)만 읽음
+ * - rebuild()로 sales_log에서 집계를 다시 계산 가능
+ */
+public class SalesRollup {
+
+    private static final String CREATE_DAILY =
+            "CREATE TABLE IF NOT EXISTS sales_rollup_daily ("
+                    + "sale_date DATE NOT NULL, client_id VARCHAR(64) NOT NULL, drink_name VARCHAR(100) NOT NULL, "
+                    + "total BIGINT NOT NULL, quantity BIGINT NOT NULL, "
+                    + "PRIMARY KEY (sale_date, client_id, drink_name))";
+    private static final String CREATE_MONTHLY =
+            "CREATE TABLE IF NOT EXISTS sales_rollup_monthly ("
+                    + "sale_month CHAR(7) NOT NULL, client_id VARCHAR(64) NOT NULL, drink_name VARCHAR(100) NOT NULL, "
+                    + "total BIGINT NOT NULL, quantity BIGINT NOT NULL, "
+                    + "PRIMARY KEY (sale_month, client_id, drink_name))";
+
+    private static final String ROW = "(?, ?, ?, ?, ?)";
+    private static final String UPSERT_SUFFIX =
+            " ON DUPLICATE KEY UPDATE total = total + VALUES(total), quantity = quantity + VALUES(quantity)";
+
+    private static volatile boolean tablesReady = false;
+
+    // 배치 안에서 같은 버킷끼리 미리 합산하기 위한 키
+    private static final class Bucket {
+        final String period; // 날짜(YYYY-MM-DD) 또는 월(YYYY-MM)
+        final String clientId;
+        final String drinkName;
+        long total;
+        long quantity;
+
+        Bucket(String period, String clientId, String drinkName) {
+            this.period = period;
+            this.clientId = clientId;
+            this.drinkName = drinkName;
+        }
+    }
+
+    /**
+     * 집계 테이블 생성 (처음 만들어진 경우 기존 sales_log로 채움)
+     */
+    public static void ensureTables(Connection conn) throws SQLException {
+        if (tablesReady) return;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_DAILY);
+            stmt.execute(CREATE_MONTHLY);
+            boolean empty;
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sales_rollup_monthly LIMIT 1")) {
+                empty = !rs.next();
+            }
+            if (empty) rebuild(conn);
+        }
+        tablesReady = true;
+    }
+
+    /**
+     * 저장할 매출 기록만큼 집계 증가 (호출자의 트랜잭션 안에서 실행)
+     */
+    static void apply(Connection conn, List<SalesWriter.SaleRecord> batch) throws SQLException {
+        Map<String, Bucket> daily = new LinkedHashMap<>();
+        Map<String, Bucket> monthly = new LinkedHashMap<>();
+        for (SalesWriter.SaleRecord r : batch) {
+            String day = r.saleDate.toString();
+            String month = day.substring(0, 7);
+            long amount = (long) r.price * r.quantity;
+            add(daily, day, r, amount);
+            add(monthly, month, r, amount);
+        }
+        upsert(conn, "sales_rollup_daily", "sale_date", daily, true);
+        upsert(conn, "sales_rollup_monthly", "sale_month", monthly, false);
+    }
+
+    private static void add(Map<String, Bucket> buckets, String period, SalesWriter.SaleRecord r, long amount) {
+        String key = period + '\u0000' + r.clientId + '\u0000' + r.drinkName;
+        Bucket b = buckets.computeIfAbsent(key, k -> new Bucket(period, r.clientId, r.drinkName));
+        b.total += amount;
+        b.quantity += r.quantity;
+    }
+
+    // 버킷들을 한 번의 INSERT ... ON DUPLICATE KEY UPDATE 로 반영
+    private static void upsert(Connection conn, String table, String periodColumn, Map<String, Bucket> buckets, boolean isDate) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(periodColumn).append(", client_id, drink_name, total, quantity) VALUES ");
+        for (int i = 0; i < buckets.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW);
+        }
+        sql.append(UPSERT_SUFFIX);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Bucket b : buckets.values()) {
+                if (isDate) {
+                    pstmt.setDate(p++, Date.valueOf(b.period));
+                } else {
+                    pstmt.setString(p++, b.period);
+                }
+                pstmt.setString(p++, b.clientId);
+                pstmt.setString(p++, b.drinkName);
+                pstmt.setLong(p++, b.total);
+                pstmt.setLong(p++, b.quantity);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * sales_log 원본에서 집계 테이블을 다시 계산
+     * @return 성공 여부
+     */
+    public static boolean rebuild() {
+        try (Connection conn = DBManager.getConnection()) {
+            ensureTables(conn);
+            rebuild(conn);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("매출 집계 재계산 실패: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void rebuild(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM sales_rollup_daily");
+            stmt.executeUpdate("DELETE FROM sales_rollup_monthly");
+            stmt.executeUpdate("INSERT INTO sales_rollup_daily (sale_date, client_id, drink_name, total, quantity) "
+                    + "SELECT sale_date, client_id, drink_name, SUM(price * quantity), SUM(quantity) "
+                    + "FROM sales_log GROUP BY sale_date, client_id, drink_name");
+            stmt.executeUpdate("INSERT INTO sales_rollup_monthly (sale_month, client_id, drink_name, total, quantity) "
+                    + "SELECT DATE_FORMAT(sale_date, '%Y-%m'), client_id, drink_name, SUM(price * quantity), SUM(quantity) "
+                    + "FROM sales_log GROUP BY DATE_FORMAT(sale_date, '%Y-%m'), client_id, drink_name");
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * 일별 매출 합계 (날짜순)
+     */
+    public static Map<LocalDate, Integer> getDailyTotals() throws SQLException {
+        Map<LocalDate, Integer> map = new TreeMap<>();
+        String sql = "SELECT sale_date, SUM(total) AS total FROM sales_rollup_daily GROUP BY sale_date";
+        try (Connection conn = DBManager.getConnection()) {
+            ensureTables(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    map.put(rs.getDate("sale_date").toLocalDate(), rs.getInt("total"));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(map); // 캐시에서 공유되므로 읽기 전용
+    }
+
+    /**
+     * 월별 매출 합계 (월순)
+     */
+    public static Map<String, Integer> getMonthlyTotals() throws SQLException {
+        return sumBy("sale_month", new TreeMap<>());
+    }
+
+    /**
+     * 음료별 매출 합계
+     */
+    public static Map<String, Integer> getDrinkTotals() throws SQLException {
+        return sumBy("drink_name", new HashMap<>());
+    }
+
+    // 월별 집계 테이블을 column 기준으로 합산
+    private static Map<String, Integer> sumBy(String column, Map<String, Integer> map) throws SQLException {
+        String sql = "SELECT " + column + ", SUM(total) AS total FROM sales_rollup_monthly GROUP BY " + column;
+        try (Connection conn = DBManager.getConnection()) {
+            ensureTables(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    map.put(rs.getString(1), rs.getInt("total"));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 전체 매출 합계
+     */
+    public static long getGrandTotal() throws SQLException {
+        try (Connection conn = DBManager.getConnection()) {
+            ensureTables(conn);
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(SUM(total), 0) FROM sales_rollup_monthly");
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+}
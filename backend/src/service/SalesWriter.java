@@ -0,0 +1,404 @@
+// service/SalesWriter.java
+
+package service;
+
+import util.DBManager;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 매출 기록 비동기 저장기 (그룹 커밋)
+ * - 판매 시 기록을 로컬 저널(SalesJournal)에 추가하고 즉시 반환 (UI 스레드가 DB를 기다리지 않음)
+ * - 전용 스레드가 저널에서 아직 반영되지 않은 기록을 모아 여러 행을 한 번의 INSERT ... VALUES (...), (...) 로 저장
+ * - 배치 크기(maxBatch)에 도달하거나 maxDelayMs가 지나면 저장
+ * - 같은 트랜잭션에서 sales_journal_offset에 마지막 시퀀스를 기록하여, 재시작 후 재전송해도 중복 저장되지 않음
+ * - 각 행에 저널 시퀀스(journal_seq)도 저장 (서버 실시간 전송과 DB 일괄 전송이 같은 자판기/시퀀스로 중복 제거)
+ * - 같은 트랜잭션에서 일/월별 집계(SalesRollup)도 함께 증가
+ * - 커밋된 기록은 메모리 큐브(SalesCube)에도 반영 (시작 직후 DB에 연결되면 반영 대기 기록이 없어도 큐브를 DB 집계로 채움)
+ * - 커밋할 때마다 보고서 캐시(ReportCache) 무효화
+ * - DB에 연결할 수 없으면 기록은 저널에 남겨 두고 점점 간격을 늘려 재시도 (오프라인 운영)
+ * - 반영 대기 기록이 maxPending을 넘으면 제출 시 offerTimeoutMs 동안 대기 (역압력, 기록은 버리지 않음)
+ */
+public class SalesWriter {
+
+    /**
+     * 저장할 매출 기록 한 건
+     */
+    public static final class SaleRecord {
+        final String clientId;
+        final LocalDate saleDate;
+        final int saleHour;       // 판매 시각 (0~23)
+        final String drinkName;
+        final int price;
+        final int quantity;
+        final String encryptedData;
+        long seq; // 저널 시퀀스 (저널에 추가할 때 부여)
+
+        public SaleRecord(String clientId, LocalDate saleDate, int saleHour, String drinkName, int price, int quantity, String encryptedData) {
+            this.clientId = clientId;
+            this.saleDate = saleDate;
+            this.saleHour = saleHour;
+            this.drinkName = drinkName;
+            this.price = price;
+            this.quantity = quantity;
+            this.encryptedData = encryptedData;
+        }
+    }
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO sales_log (client_id, sale_date, drink_name, price, quantity, encrypted_data, journal_seq) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    // 기존 sales_log에 저널 시퀀스 열 추가 (자판기별 시퀀스 순 조회용 인덱스 포함)
+    private static final String ADD_JOURNAL_SEQ =
+            "ALTER TABLE sales_log ADD COLUMN journal_seq BIGINT NULL, "
+                    + "ADD INDEX idx_sales_log_journal (client_id, journal_seq)";
+    private static final int ER_DUP_FIELDNAME = 1060; // MySQL: 이미 있는 열 (동시에 추가한 경우)
+
+    // 저널별 DB 반영 위치 (매출 INSERT와 같은 트랜잭션에서 갱신)
+    private static final String CREATE_OFFSET_TABLE =
+            "CREATE TABLE IF NOT EXISTS sales_journal_offset (journal_id VARCHAR(64) PRIMARY KEY, last_seq BIGINT NOT NULL)";
+    private static final String SELECT_OFFSET = "SELECT last_seq FROM sales_journal_offset WHERE journal_id = ?";
+    private static final String UPSERT_OFFSET =
+            "INSERT INTO sales_journal_offset (journal_id, last_seq) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE last_seq = GREATEST(last_seq, VALUES(last_seq))";
+
+    private static final long MIN_RETRY_MS = 500;     // 저장 실패 후 첫 재시도 간격
+    private static final long MAX_RETRY_MS = 30_000;  // 재시도 간격 상한
+
+    private final SalesJournal journal;
+    private final SalesCube cube;
+    private final ReportCache reportCache;
+    private final String journalId;     // DB 반영 위치를 구분하는 저널 이름
+    private final int maxPending;       // 반영 대기 기록 상한 (넘으면 제출 시 대기)
+    private final int maxBatch;         // 한 번에 저장할 최대 행 수
+    private final long maxDelayMs;      // 배치를 모으는 최대 대기 시간
+    private final long offerTimeoutMs;  // 대기 기록이 많을 때 제출 대기 시간
+    private final Object signal = new Object(); // 저장 스레드/제출 스레드 깨우기용
+    private final Thread worker;
+    private volatile boolean running = true;
+    private boolean offsetSynced = false; // DB의 반영 위치를 확인했는지 (저장 스레드 전용)
+    private long cubeSeq = -1;            // 큐브에 반영된 마지막 시퀀스 (-1: 아직 채우지 않음)
+
+    // 통계
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    public SalesWriter(SalesJournal journal, SalesCube cube, ReportCache reportCache, String journalId, int maxPending, int maxBatch, long maxDelayMs, long offerTimeoutMs) {
+        this.journal = journal;
+        this.cube = cube;
+        this.reportCache = reportCache;
+        this.journalId = journalId;
+        this.maxPending = maxPending;
+        this.maxBatch = maxBatch;
+        this.maxDelayMs = maxDelayMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.worker = new Thread(this::runLoop, "sales-writer");
+        this.worker.setDaemon(true);
+        this.worker.start(); // 시작하면 이전 실행에서 남은 기록부터 재전송
+    }
+
+    /**
+     * 매출 기록 제출 (저널에 기록된 뒤 반환)
+     * @param record 저장할 기록
+     * @return 저널 시퀀스 (이 자판기에서 단조 증가, 재시작 후에도 이어짐)
+     * @throws IOException 저널 기록 실패
+     */
+    public long submit(SaleRecord record) throws IOException {
+        submitted.incrementAndGet();
+        if (journal.getPendingCount() >= maxPending) {
+            throttled.incrementAndGet();
+            awaitPendingBelow(maxPending, offerTimeoutMs);
+        }
+        long seq = journal.append(record);
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        return seq;
+    }
+
+    // 반영 대기 기록이 limit 아래로 내려갈 때까지 최대 timeoutMs 대기
+    private void awaitPendingBelow(long limit, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (signal) {
+            try {
+                while (journal.getPendingCount() >= limit) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) break;
+                    signal.wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 반영 대기 기록이 count개 이상 쌓이거나 종료 요청이 올 때까지 최대 timeoutMs 대기
+    private void awaitPendingAtLeast(long count, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (signal) {
+            while (running && journal.getPendingCount() < count) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) break;
+                signal.wait(remaining);
+            }
+        }
+    }
+
+    // 재시도 전 최대 timeoutMs 대기 (제출로 깨어나도 남은 시간만큼 다시 대기, 종료 요청 시 즉시 반환)
+    private void awaitRetry(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (signal) {
+            while (running) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) break;
+                signal.wait(remaining);
+            }
+        }
+    }
+
+    // 저장 스레드: 저널에서 반영되지 않은 기록을 모아 배치 저장
+    private void runLoop() {
+        List<SaleRecord> batch = new ArrayList<>(maxBatch);
+        long retryMs = 0;
+        long nextSyncNanos = System.nanoTime();
+        while (true) {
+            boolean stopping = !running;
+            try {
+                if (journal.getPendingCount() == 0) {
+                    if (stopping) break;
+                    // 반영할 기록이 없어도 DB 위치 확인/큐브 채우기는 미리 (실패하면 점점 간격을 늘려 재시도)
+                    if (!offsetSynced && System.nanoTime() - nextSyncNanos >= 0) {
+                        if (syncWithDb()) {
+                            retryMs = 0;
+                        } else {
+                            retryMs = Math.min(Math.max(retryMs * 2, MIN_RETRY_MS), MAX_RETRY_MS);
+                            nextSyncNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryMs);
+                        }
+                    }
+                    awaitPendingAtLeast(1, 100);
+                    continue;
+                }
+                if (!stopping && retryMs == 0) {
+                    awaitPendingAtLeast(maxBatch, maxDelayMs); // 배치가 찰 때까지 잠시 모으기
+                }
+            } catch (InterruptedException e) {
+                running = false; // 종료 요청 - 한 번 더 저장 시도 후 종료
+                continue;
+            }
+
+            batch.clear();
+            journal.readPending(maxBatch, batch);
+            if (batch.isEmpty()) continue;
+
+            if (writeBatch(batch)) {
+                retryMs = 0;
+                synchronized (signal) {
+                    signal.notifyAll(); // 대기 중인 제출 스레드 깨우기
+                }
+            } else {
+                if (stopping) break; // DB에 연결할 수 없음 - 남은 기록은 다음 실행 때 재전송
+                retryMs = Math.min(Math.max(retryMs * 2, MIN_RETRY_MS), MAX_RETRY_MS);
+                try {
+                    awaitRetry(retryMs); // 종료 요청이 오면 바로 깨어 마지막으로 한 번 더 저장 시도
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+            }
+        }
+    }
+
+    // DB 반영 위치 확인 및 큐브 채우기 (반영 대기 기록이 없을 때 저장 스레드에서 호출)
+    private boolean syncWithDb() {
+        try (Connection conn = DBManager.getConnection()) {
+            syncOffset(conn);
+            return true;
+        } catch (SQLException | IOException e) {
+            System.err.println("DB 반영 위치 확인 실패 (재시도 예정): " + e.getMessage());
+            return false;
+        }
+    }
+
+    // DB의 반영 위치와 저널을 맞추고, 처음이면 DB 집계로 큐브 채우기
+    // - DB에는 반영됐지만 로컬 checkpoint 기록 전에 종료된 경우 → 해당 기록은 반영된 것으로 표시
+    // - DB 위치가 저널의 마지막 시퀀스보다 앞서면 (저널 재생성, 같은 ID의 다른 자판기) 새 기록이 걸러지지 않도록 시퀀스를 다시 매김
+    private void syncOffset(Connection conn) throws SQLException, IOException {
+        long dbSeq = readOffset(conn);
+        long lastSeq = journal.getLastSeq();
+        if (lastSeq < dbSeq) {
+            int moved = journal.rebase(dbSeq);
+            System.err.println("경고: 저널 시퀀스(" + lastSeq + ")가 DB 반영 위치(" + dbSeq + ")보다 뒤처짐 - "
+                    + "저널을 새로 만들었거나 같은 ID(" + journalId + ")를 다른 자판기가 사용 중입니다. "
+                    + "반영 대기 " + moved + "건을 " + (dbSeq + 1) + "번부터 다시 매겼습니다.");
+        }
+        ensureJournalSeqColumn(conn);
+        SalesRollup.ensureTables(conn);
+        if (cubeSeq < 0) {
+            try {
+                cube.warmUp(conn); // dbSeq까지 포함된 상태
+            } catch (RuntimeException e) {
+                cube.markDegraded();
+                System.err.println("매출 큐브 채우기 실패 (큐브 갱신 중단): " + e.getMessage());
+            }
+            cubeSeq = dbSeq;
+        }
+        // 커밋됐지만 큐브에 빠진 기록 반영 (재연결 시 커밋 결과를 받지 못한 배치)
+        List<SaleRecord> applied = new ArrayList<>();
+        while (journal.getCommittedSeq() < dbSeq) {
+            applied.clear();
+            if (journal.readPending(maxBatch, applied) == 0) break;
+            long last = applied.get(applied.size() - 1).seq;
+            applied.removeIf(r -> r.seq > dbSeq || r.seq <= cubeSeq);
+            applyToCube(applied);
+            journal.markCommitted(Math.min(last, dbSeq));
+        }
+        journal.markCommitted(dbSeq);
+        cubeSeq = Math.max(cubeSeq, dbSeq);
+        offsetSynced = true;
+    }
+
+    // 커밋된 기록을 큐브에 반영 (큐브 오류로 저장 스레드가 멈추지 않도록 실패하면 큐브만 불완전 상태로 표시)
+    private void applyToCube(List<SaleRecord> records) {
+        try {
+            cube.addAll(records);
+        } catch (RuntimeException e) {
+            cube.markDegraded();
+            System.err.println("매출 큐브 반영 실패 (큐브 갱신 중단): " + e.getMessage());
+        }
+    }
+
+    // 여러 행을 한 번의 INSERT 문으로 저장하고 같은 트랜잭션에서 반영 위치 갱신
+    private boolean writeBatch(List<SaleRecord> batch) {
+        try (Connection conn = DBManager.getConnection()) {
+            if (!offsetSynced) {
+                syncOffset(conn);
+                long committed = journal.getCommittedSeq();
+                batch.removeIf(r -> r.seq <= committed); // 이미 DB에 있는 기록
+                if (batch.isEmpty()) return true;
+            }
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW.length() + 2));
+            sql.append(INSERT_PREFIX);
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(ROW);
+            }
+            long lastSeq = batch.get(batch.size() - 1).seq;
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString());
+                 PreparedStatement offset = conn.prepareStatement(UPSERT_OFFSET)) {
+                int p = 1;
+                for (SaleRecord r : batch) {
+                    pstmt.setString(p++, r.clientId); // 클라이언트 ID
+                    pstmt.setDate(p++, Date.valueOf(r.saleDate));
+                    pstmt.setString(p++, r.drinkName);
+                    pstmt.setInt(p++, r.price);
+                    pstmt.setInt(p++, r.quantity);
+                    pstmt.setString(p++, r.encryptedData);
+                    pstmt.setLong(p++, r.seq);
+                }
+                pstmt.executeUpdate();
+                SalesRollup.apply(conn, batch); // 일/월별 집계 증가
+
+                offset.setString(1, journalId);
+                offset.setLong(2, lastSeq);
+                offset.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            applyToCube(batch);
+            cubeSeq = lastSeq;
+            reportCache.invalidate(); // 새 매출이 반영되었으므로 보고서 결과 무효화
+            journal.markCommitted(lastSeq);
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+            return true;
+        } catch (SQLException e) {
+            failed.addAndGet(batch.size());
+            offsetSynced = false; // 다시 연결되면 반영 위치부터 확인
+            System.err.println("DB 저장 실패 (" + batch.size() + "건, 저널에 보관 후 재시도): " + e.getMessage());
+            return false;
+        } catch (IOException e) {
+            // DB 반영은 끝났으므로 재전송 시 sales_journal_offset으로 걸러짐
+            System.err.println("저널 반영 위치 기록 실패: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // DB에 기록된 이 저널의 반영 위치 조회 (테이블이 없으면 생성)
+    private long readOffset(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_OFFSET_TABLE);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_OFFSET)) {
+            pstmt.setString(1, journalId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * sales_log에 journal_seq 열이 없으면 추가 (이전 버전에서 만든 테이블, 기존 행은 NULL)
+     */
+    public static void ensureJournalSeqColumn(Connection conn) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, "sales_log", "journal_seq")) {
+            if (rs.next()) return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ADD_JOURNAL_SEQ);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_DUP_FIELDNAME) throw e;
+        }
+    }
+
+    /**
+     * 종료 - 저널에 남은 기록을 저장할 때까지 대기 후 저널 닫기
+     * (DB에 연결할 수 없으면 기록은 저널에 남아 다음 실행 때 재전송)
+     * @param timeoutMs 최대 대기 시간
+     */
+    public void shutdown(long timeoutMs) {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        try {
+            worker.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!worker.isAlive()) {
+            journal.close();
+        }
+    }
+
+    // 통계 조회
+    public long getPendingCount() { return journal.getPendingCount(); }
+    public long getSubmittedCount() { return submitted.get(); }
+    public long getWrittenCount() { return written.get(); }
+    public long getBatchCount() { return batches.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public long getThrottledCount() { return throttled.get(); }
+}
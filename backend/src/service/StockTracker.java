@@ -0,0 +1,52 @@
+// service/StockTracker.java
+
+package service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 서버 측 음료별 재고 추적기 (여러 연결 스레드에서 동시에 사용)
+ * - 음료별 판매 수량을 LongAdder로 누적 (같은 음료를 동시에 기록해도 경합이 적음)
+ * - 남은 재고 = 초기 재고 - 누적 판매 수량
+ */
+public class StockTracker {
+
+    private final int initialStock;     // 처음 보는 음료의 초기 재고
+    private final int warningThreshold; // 이 값 이하가 되면 재고 부족
+    private final ConcurrentHashMap<String, LongAdder> sold = new ConcurrentHashMap<>();
+
+    public StockTracker(int initialStock, int warningThreshold) {
+        this.initialStock = initialStock;
+        this.warningThreshold = warningThreshold;
+    }
+
+    /**
+     * 판매 기록
+     * @return 판매 후 남은 재고
+     */
+    public long recordSale(String drinkName, int quantity) {
+        LongAdder adder = sold.computeIfAbsent(drinkName, k -> new LongAdder());
+        adder.add(quantity);
+        return initialStock - adder.sum();
+    }
+
+    /**
+     * 남은 재고가 경고 기준 이하인지 여부
+     */
+    public boolean isLow(long remaining) {
+        return remaining <= warningThreshold;
+    }
+
+    /**
+     * 음료별 남은 재고 (이름순 읽기 전용 복사본)
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> map = new TreeMap<>();
+        sold.forEach((name, adder) -> map.put(name, initialStock - adder.sum()));
+        return Collections.unmodifiableMap(map);
+    }
+}
@@ -0,0 +1,504 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 크기가 제한된 JDBC 커넥션 풀
+ * - 최대 커넥션 수 제한, 대기 시간 초과 시 SQLException
+ * - 오래 쉬고 있던 커넥션은 꺼낼 때 isValid로 검증
+ * - 유휴 시간이 지난 커넥션은 백그라운드에서 정리
+ * - 커넥션별 PreparedStatement 캐시 (같은 SQL은 재사용, 반납 시 fetch size 등 사용별 설정 초기화)
+ * - 호출 측은 기존처럼 close()만 호출하면 풀로 반납됨
+ * - 커넥션/statement 프록시는 대여마다 새로 만들어, 반납 후 남은 참조로는 다른 사용자의 커넥션을 쓸 수 없음
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int maxSize;              // 최대 커넥션 수
+    private final long acquireTimeoutMs;    // 커넥션 획득 대기 시간
+    private final long idleTimeoutMs;       // 유휴 커넥션 정리 기준 시간
+    private final long validateAfterMs;     // 이 시간 이상 쉰 커넥션은 꺼낼 때 검증
+    private final int statementCacheSize;   // 커넥션별 캐시할 PreparedStatement 수
+
+    private final Semaphore permits;                                    // 동시에 빌려줄 수 있는 커넥션 수
+    private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>(); // 유휴 커넥션 (최근 반납 순)
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed = false;
+
+    // 풀 통계
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long acquireTimeoutMs, long idleTimeoutMs, long validateAfterMs, int statementCacheSize) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validateAfterMs = validateAfterMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 풀에서 커넥션 획득 (close() 호출 시 풀로 반납)
+     * @throws SQLException 대기 시간 초과 또는 연결 실패 시
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("커넥션 풀이 종료되었습니다.");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("커넥션 풀 대기 시간 초과 (" + acquireTimeoutMs + "ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("커넥션 대기 중 인터럽트", e);
+        }
+
+        try {
+            PooledConnection pc = takeIdle();
+            if (pc == null) pc = open();
+            Connection lent = pc.lend();
+            acquired.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+            return lent;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // 유휴 커넥션 중 사용 가능한 것을 꺼냄 (오래 쉰 커넥션은 검증)
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pc;
+            synchronized (idle) {
+                pc = idle.pollFirst();
+            }
+            if (pc == null) return null;
+
+            long idleMs = System.currentTimeMillis() - pc.lastUsed;
+            if (idleMs < validateAfterMs) return pc;
+            try {
+                if (pc.physical.isValid(2)) return pc;
+            } catch (SQLException ignored) {
+                // 검증 실패 → 폐기
+            }
+            destroy(pc);
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    // 커넥션 반납 (오류가 있었으면 폐기)
+    private void release(PooledConnection pc) {
+        if (!pc.borrowed) return; // 중복 close 무시
+        pc.borrowed = false;
+        try {
+            if (closed || pc.broken || pc.physical.isClosed()) {
+                destroy(pc);
+                return;
+            }
+            pc.resetStatements();
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            pc.lastUsed = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.offerFirst(pc);
+            }
+        } catch (SQLException e) {
+            destroy(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        pc.closeStatements();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+            // 이미 끊긴 커넥션
+        }
+        destroyed.incrementAndGet();
+    }
+
+    // 유휴 시간이 지난 커넥션 정리
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        ArrayDeque<PooledConnection> expired = new ArrayDeque<>();
+        synchronized (idle) {
+            for (Iterator<PooledConnection> it = idle.iterator(); it.hasNext(); ) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsed >= idleTimeoutMs) {
+                    it.remove();
+                    expired.add(pc);
+                }
+            }
+        }
+        for (PooledConnection pc : expired) destroy(pc);
+    }
+
+    /**
+     * 풀 종료 - 유휴 커넥션을 모두 닫고, 사용 중인 커넥션은 반납 시 닫음
+     */
+    public void shutdown() {
+        closed = true;
+        evictor.shutdownNow();
+        synchronized (idle) {
+            for (PooledConnection pc : idle) destroy(pc);
+            idle.clear();
+        }
+    }
+
+    // 풀 통계 조회
+    public int getMaxSize() { return maxSize; }
+    public int getActiveCount() { return maxSize - permits.availablePermits(); }
+    public int getIdleCount() { synchronized (idle) { return idle.size(); } }
+    public long getCreatedCount() { return created.get(); }
+    public long getDestroyedCount() { return destroyed.get(); }
+    public long getAcquiredCount() { return acquired.get(); }
+    public long getTimeoutCount() { return timeouts.get(); }
+    public long getStatementCacheHits() { return statementHits.get(); }
+    public long getStatementCacheMisses() { return statementMisses.get(); }
+
+    /**
+     * 평균 커넥션 획득 대기 시간 (ms)
+     */
+    public double getAverageWaitMillis() {
+        long n = acquired.get();
+        return n == 0 ? 0 : waitNanos.get() / 1_000_000.0 / n;
+    }
+
+    // 연결 자체의 오류인지 (SQLState 08xxx) 확인
+    private static boolean isConnectionError(Throwable t) {
+        if (!(t instanceof SQLException)) return false;
+        String state = ((SQLException) t).getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[active=%d, idle=%d, max=%d, created=%d, destroyed=%d, acquired=%d, timeouts=%d, avgWait=%.2fms, stmtHit=%d, stmtMiss=%d]",
+                getActiveCount(), getIdleCount(), maxSize, getCreatedCount(), getDestroyedCount(),
+                getAcquiredCount(), getTimeoutCount(), getAverageWaitMillis(),
+                getStatementCacheHits(), getStatementCacheMisses());
+    }
+
+    /**
+     * 풀에서 관리하는 실제 커넥션
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        volatile boolean borrowed;
+        volatile boolean broken;      // SQL 예외로 상태를 신뢰할 수 없는 커넥션
+        volatile long lastUsed = System.currentTimeMillis();
+
+        // SQL → 캐시된 PreparedStatement (LRU)
+        private final Map<String, CachedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() > statementCacheSize && !eldest.getValue().inUse()) {
+                            eldest.getValue().closePhysical();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        // 캐시하지 않는 statement (createStatement, prepareCall 등) - 반납 시 닫음
+        private final List<Statement> uncached = new ArrayList<>();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        // 새 대여 시작 - 이전 대여에서 받은 커넥션/statement 참조는 더 이상 쓸 수 없음
+        Connection lend() {
+            borrowed = true;
+            return new ConnectionLease(this).proxy;
+        }
+
+        private PreparedStatement prepareCached(String sql, ConnectionLease by) throws SQLException {
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse()) {
+                statementHits.incrementAndGet();
+                return cached.lend(by);
+            }
+            statementMisses.incrementAndGet();
+            PreparedStatement ps;
+            try {
+                ps = physical.prepareStatement(sql);
+            } catch (SQLException e) {
+                if (isConnectionError(e)) broken = true; // 반납 시 폐기
+                throw e;
+            }
+            if (cached != null) return (PreparedStatement) track(ps, PreparedStatement.class, by); // 같은 SQL이 이미 사용 중이면 캐시하지 않음
+            CachedStatement entry = new CachedStatement(ps, this);
+            statements.put(sql, entry);
+            return entry.lend(by);
+        }
+
+        // 캐시하지 않는 statement를 기록하고 getConnection()이 풀 커넥션을 돌려주도록 감쌈
+        private Statement track(Statement physicalStmt, Class<?> type, ConnectionLease by) {
+            uncached.add(physicalStmt);
+            UncachedStatement handler = new UncachedStatement(physicalStmt, this, by);
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        // 반납 시 닫히지 않은 캐시 statement를 재사용 가능 상태로 되돌리고, 캐시하지 않는 statement는 닫음
+        void resetStatements() throws SQLException {
+            for (Statement st : uncached) st.close();
+            uncached.clear();
+            for (CachedStatement cs : statements.values()) {
+                if (cs.inUse()) cs.reset();
+            }
+        }
+
+        void closeStatements() {
+            for (Statement st : uncached) {
+                try {
+                    st.close();
+                } catch (SQLException ignored) {
+                    // 이미 닫힌 statement
+                }
+            }
+            uncached.clear();
+            for (CachedStatement cs : statements.values()) cs.closePhysical();
+            statements.clear();
+        }
+    }
+
+    /**
+     * 한 번의 대여에 대해 호출 측에 넘겨주는 커넥션 프록시
+     * - close() 이후(또는 다른 사용자가 다시 빌린 뒤)에는 이 참조로 커넥션을 쓸 수 없음
+     */
+    private final class ConnectionLease implements InvocationHandler {
+        final PooledConnection pc;
+        final Connection proxy;
+        volatile boolean closed;
+
+        ConnectionLease(PooledConnection pc) {
+            this.pc = pc;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "Pooled(" + pc.physical + ")";
+                default:
+                    break;
+            }
+            if (closed) throw new SQLException("이미 반납된 커넥션입니다.");
+
+            if (name.equals("prepareStatement") && args != null && args.length == 1 && statementCacheSize > 0) {
+                return pc.prepareCached((String) args[0], this);
+            }
+            Object result;
+            try {
+                result = method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                if (isConnectionError(e.getCause())) pc.broken = true;
+                throw e.getCause();
+            }
+            // createStatement, prepareCall, 여러 인자 prepareStatement - 실제 커넥션이 새어 나가지 않도록 감쌈
+            if (result instanceof Statement) {
+                return pc.track((Statement) result, method.getReturnType(), this);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 캐시하지 않는 statement 프록시 - getConnection()은 풀 커넥션을 돌려주고, 연결 오류 시 커넥션을 폐기 대상으로 표시
+     */
+    private static final class UncachedStatement implements InvocationHandler {
+        final Statement physical;
+        final PooledConnection owner;
+        final ConnectionLease lease;
+
+        UncachedStatement(Statement physical, PooledConnection owner, ConnectionLease lease) {
+            this.physical = physical;
+            this.owner = owner;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    owner.uncached.remove(physical);
+                    physical.close();
+                    return null;
+                case "getConnection":
+                    return lease.proxy;
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                if (isConnectionError(e.getCause())) owner.broken = true; // 반납 시 폐기
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 캐시된 PreparedStatement - close() 시 실제로 닫지 않고 재사용 대기
+     */
+    private static final class CachedStatement {
+        final PreparedStatement physical;
+        final PooledConnection owner; // 연결 오류 표시용
+        private volatile StatementLease lease; // 현재 사용 중인 대여 (없으면 재사용 대기)
+
+        CachedStatement(PreparedStatement physical, PooledConnection owner) {
+            this.physical = physical;
+            this.owner = owner;
+        }
+
+        boolean inUse() {
+            return lease != null;
+        }
+
+        // 대여마다 새 프록시를 만들어, 이전 사용자의 참조로는 다음 사용자의 statement를 건드릴 수 없게 함
+        PreparedStatement lend(ConnectionLease by) {
+            StatementLease l = new StatementLease(this, by);
+            lease = l;
+            return l.proxy;
+        }
+
+        // 재사용 대기 상태로 되돌림 (다음 사용자가 이전 사용자의 파라미터/설정을 물려받지 않도록)
+        void reset() throws SQLException {
+            StatementLease l = lease;
+            if (l != null) l.closed = true;
+            lease = null;
+            physical.clearParameters();
+            physical.clearBatch();
+            physical.setFetchSize(0);
+            physical.setMaxRows(0);
+            physical.setQueryTimeout(0);
+        }
+
+        void closePhysical() {
+            StatementLease l = lease;
+            if (l != null) l.closed = true;
+            lease = null;
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // 이미 닫힌 statement
+            }
+        }
+    }
+
+    /**
+     * 캐시된 PreparedStatement의 한 번의 대여 - close() 이후에는 close/isClosed/equals/hashCode 외 호출 시 SQLException
+     */
+    private static final class StatementLease implements InvocationHandler {
+        final CachedStatement cached;
+        final ConnectionLease connection; // getConnection()에서 돌려줄 풀 커넥션
+        final PreparedStatement proxy;
+        volatile boolean closed;
+
+        StatementLease(CachedStatement cached, ConnectionLease connection) {
+            this.cached = cached;
+            this.connection = connection;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) cached.reset();
+                    return null;
+                case "isClosed":
+                    return closed || cached.physical.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                default:
+                    break;
+            }
+            if (closed) throw new SQLException("이미 닫힌 statement입니다.");
+            if (method.getName().equals("getConnection")) return connection.proxy;
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                if (isConnectionError(e.getCause())) cached.owner.broken = true; // 반납 시 폐기
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -2,33 +2,79 @@
 package util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
  * MySQL 데이터베이스 연결 및 매출 기록 관리 유틸리티
+ * - 모든 연결은 ConnectionPool을 통해 재사용 (close() 시 풀로 반납)
+ * - 연결 정보와 풀 설정은 시스템 프로퍼티로 변경 가능 (예: 로컬 내장 DB로 테스트)
+ * - MySQL URL에는 useCursorFetch=true를 붙여 fetch size를 지정한 조회가 나눠 읽히도록 함
+ *   vending.db.url / vending.db.user / vending.db.password / vending.db.driver
+ *   vending.db.pool.max / vending.db.pool.timeoutMs / vending.db.pool.idleMs / vending.db.pool.statements
  */
 public class DBManager {
 
     // 🔧 DB 연결 정보
-    private static final String URL = "jdbc:mysql://localhost:3306/vending_db";  // DB명: vending_db
-    private static final String USER = "root";         // 사용자명
-    private static final String PASSWORD = "1234";     // 비밀번호
+    private static final String URL = withCursorFetch(System.getProperty("vending.db.url", "jdbc:mysql://localhost:3306/vending_db"));  // DB명: vending_db
+    private static final String USER = System.getProperty("vending.db.user", "root");         // 사용자명
+    private static final String PASSWORD = System.getProperty("vending.db.password", "1234"); // 비밀번호
+    private static final String DRIVER = System.getProperty("vending.db.driver", "com.mysql.cj.jdbc.Driver");
+
+    private static volatile ConnectionPool pool; // 처음 사용할 때 생성
+    private static boolean closed = false;       // shutdown() 이후에는 풀을 다시 만들지 않음 (DBManager.class로 보호)
+
+    // MySQL은 useCursorFetch=true일 때만 setFetchSize 단위로 나눠 읽음 (없으면 결과 전체를 메모리에 받음)
+    private static String withCursorFetch(String url) {
+        if (!url.startsWith("jdbc:mysql:") || url.contains("useCursorFetch=")) return url;
+        return url + (url.contains("?") ? "&" : "?") + "useCursorFetch=true";
+    }
 
     /**
-     * DB 연결을 반환하는 메서드
+     * DB 연결을 반환하는 메서드 (풀에서 대여)
      * @return Connection 객체
-     * @throws SQLException 연결 실패 시 예외 발생
+     * @throws SQLException 연결 실패, 풀 대기 시간 초과 또는 풀이 종료된 경우 예외 발생
      */
     public static Connection getConnection() throws SQLException {
-        try {
-            // JDBC 드라이버 로딩 (MySQL 8.x 기준)
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();  // 드라이버 로딩 실패
+        ConnectionPool p = getPool();
+        if (p == null) throw new SQLException("DB 연결 풀이 종료되었습니다.");
+        return p.getConnection(); // 종료된 풀이면 풀에서 예외
+    }
+
+    /**
+     * 커넥션 풀 반환 (통계 조회용, 풀을 만들기 전에 종료되었으면 null)
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DBManager.class) {
+                p = pool;
+                if (p == null && !closed) {
+                    try {
+                        // JDBC 드라이버 로딩 (MySQL 8.x 기준), 한 번만 수행
+                        Class.forName(DRIVER);
+                    } catch (ClassNotFoundException e) {
+                        e.printStackTrace();  // 드라이버 로딩 실패
+                    }
+                    p = new ConnectionPool(URL, USER, PASSWORD,
+                            Integer.getInteger("vending.db.pool.max", 8),
+                            Long.getLong("vending.db.pool.timeoutMs", 3000L),
+                            Long.getLong("vending.db.pool.idleMs", 300_000L),
+                            5_000L,
+                            Integer.getInteger("vending.db.pool.statements", 32));
+                    pool = p;
+                }
+            }
         }
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return p;
+    }
+
+    /**
+     * 커넥션 풀 종료 (프로그램 종료 시 호출, 이후 getConnection()은 SQLException)
+     */
+    public static synchronized void shutdown() {
+        closed = true;
+        if (pool != null) pool.shutdown(); // 종료된 풀을 그대로 두어 새 풀이 만들어지지 않게 함
     }
 
     /**